@@ -0,0 +1,99 @@
+package com.poc.lab.batch.deputy.encode;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 코덱별 한 페이지 인코딩 시간(ms/page)과 결과 크기(bytes/page) 비교
+ * - 1 op = 300dpi 로 렌더링한 증명서 형태(흰 바탕 검은 글자) A4 한 페이지 인코딩
+ * - 렌더링은 setup 에서 코덱의 색 공간으로 한 번만 하고, bytes/page 는 setup 에서 한 번 출력
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageEncoderBenchmark {
+
+    @Param({"png", "png-gray", "png-bilevel", "jpeg", "jpeg-gray", "tiff-g4"})
+    String codec;
+
+    @Param({"-1", "1", "9"})
+    int pngDeflateLevel;
+
+    private ImageEncoder encoder;
+    private BufferedImage page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        encoder = ImageEncoders.encoder(codec, pngDeflateLevel, 0.85f);
+        try (PDDocument doc = Loader.loadPDF(certificatePdf())) {
+            page = new PDFRenderer(doc).renderImageWithDPI(0, 300, encoder.imageType());
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(page, out);
+        System.out.printf("%n%s (png level %d): %d bytes/page%n", codec, pngDeflateLevel, out.size());
+    }
+
+    @Benchmark
+    public int encode() throws Exception {
+        final CountingOutputStream out = new CountingOutputStream();
+        encoder.encode(page, out);
+        return out.count;
+    }
+
+    // Court 샘플과 같은 형태의 텍스트 위주 한 페이지 PDF
+    private static byte[] certificatePdf() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            final PDPage pdPage = new PDPage(PDRectangle.A4);
+            doc.addPage(pdPage);
+            try (PDPageContentStream content = new PDPageContentStream(doc, pdPage)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 11);
+                content.setLeading(16);
+                content.newLineAtOffset(60, 780);
+                for (int line = 0; line < 44; line++) {
+                    content.showText("Family relation certificate  No. " + line + "  name / birth / relation / address");
+                    content.newLine();
+                }
+                content.endText();
+                content.addRect(50, 40, 495, 760);
+                content.stroke();
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            doc.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static final class CountingOutputStream extends java.io.OutputStream {
+        private int count;
+
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.poc.lab.batch.deputy.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 문자 디코딩 reader(stream) 와 byte 스캔 reader(channel) 의 전체 파일 읽기 처리량 비교
+ * - 1 op = 파일 전체(records 건) 읽기
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CommaSeparatedObjectReaderBenchmark {
+
+    @Param({"100000"})
+    int records;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Files.createTempFile("accounting", ".bench");
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < records; i++) {
+                if (i > 0) {
+                    out.write(",\n");
+                }
+                out.write("{\"userId\":\"u-" + i + "\",\"docId1\":\"A-" + i + "\",\"docType1\":\"basic\",\"edmsId1\":\"E-" + i
+                        + "\",\"docId2\":\"B-" + i + "\",\"docType2\":\"family\",\"edmsId2\":\"\",\"guid\":\"\"}");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int streamReader() throws Exception {
+        return readAll(new CommaSeparatedObjectStreamItemReader<>(
+                new FileSystemResource(file), objectMapper, AccountingSystemDocument.class));
+    }
+
+    @Benchmark
+    public int channelReader() throws Exception {
+        return readAll(new CommaSeparatedObjectChannelItemReader<>(
+                new FileSystemResource(file), objectMapper, AccountingSystemDocument.class));
+    }
+
+    private static int readAll(AbstractItemCountingItemStreamItemReader<AccountingSystemDocument> reader) throws Exception {
+        int count = 0;
+        reader.open(new ExecutionContext());
+        try {
+            while (reader.read() != null) {
+                count++;
+            }
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+}
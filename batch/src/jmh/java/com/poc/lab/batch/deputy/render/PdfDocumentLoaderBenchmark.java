@@ -0,0 +1,76 @@
+package com.poc.lab.batch.deputy.render;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 문서 하나의 로딩 + 300dpi 렌더링 시간(ms/doc) 비교
+ * - default: 기존 Loader 기본 설정, 문서마다 폰트를 새로 만든다
+ * - shared: 폰트 매퍼 warmUp + 문서 간 폰트 공유
+ * - 1 op 마다 docId 가 다른 문서(Court 샘플과 같은 구조)를 돌려 가며 로딩해 같은 문서 재사용 효과는 빠진다
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PdfDocumentLoaderBenchmark {
+
+    private static final int DOCUMENTS = 256;
+
+    @Param({"basic", "family"})
+    String docType;
+
+    @Param({"default", "shared"})
+    String loader;
+
+    private PdfDocumentLoader documentLoader;
+    private byte[][] documents;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("shared".equals(loader)) {
+            documentLoader = new PdfDocumentLoader(0, true);
+            documentLoader.warmUp("Helvetica");
+        } else {
+            documentLoader = PdfDocumentLoader.defaults();
+        }
+        documents = new byte[DOCUMENTS][];
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents[i] = courtPdf(docType, "DOC" + i);
+        }
+    }
+
+    @Benchmark
+    public int loadAndRender() throws Exception {
+        final byte[] pdf = documents[next++ & (DOCUMENTS - 1)];
+        try (PDDocument doc = documentLoader.load(pdf)) {
+            return new PDFRenderer(doc).renderImageWithDPI(0, 300, ImageType.RGB).getHeight();
+        }
+    }
+
+    // Court 모의 API 가 돌려주는 문서와 같은 형태(xref 없음, 임베드하지 않은 Helvetica, Letter 한 페이지)
+    private static byte[] courtPdf(final String docType, final String docId) {
+        final String label = "family".equals(docType) ? "Family" : "Basic";
+        final String content = "BT\n/F1 12 Tf\n100 700 Td\n(" + label + " Document ID: " + docId + ") Tj\nET";
+        return ("%PDF-1.4\n1 0 obj\n<<\n/Type /Catalog\n/Pages 2 0 R\n>>\nendobj\n"
+                + "2 0 obj\n<<\n/Type /Pages\n/Kids [3 0 R]\n/Count 1\n>>\nendobj\n"
+                + "3 0 obj\n<<\n/Type /Page\n/Parent 2 0 R\n/Resources <<\n/Font <<\n/F1 4 0 R\n>>\n>>\n"
+                + "/MediaBox [0 0 612 792]\n/Contents 5 0 R\n>>\nendobj\n"
+                + "4 0 obj\n<<\n/Type /Font\n/Subtype /Type1\n/BaseFont /Helvetica\n>>\nendobj\n"
+                + "5 0 obj\n<< /Length " + content.length() + " >>\nstream\n" + content + "\nendstream\nendobj\n"
+                + "xref\ntrailer\n<<\n/Size 6\n/Root 1 0 R\n>>\nstartxref\n%%EOF").getBytes(StandardCharsets.US_ASCII);
+    }
+}
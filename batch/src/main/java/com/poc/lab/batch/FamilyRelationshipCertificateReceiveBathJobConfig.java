@@ -1,65 +1,575 @@
 package com.poc.lab.batch;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.async.PipelinedItemProcessor;
+import com.poc.lab.batch.deputy.async.PipelinedItemWriter;
+import com.poc.lab.batch.deputy.cache.DocumentImageCache;
+import com.poc.lab.batch.deputy.compensation.DeletionJournal;
+import com.poc.lab.batch.deputy.compensation.EdmsDeletionQueue;
 import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
 import com.poc.lab.batch.deputy.dto.ChannelSystemDocument;
+import com.poc.lab.batch.deputy.encode.ImageEncoders;
+import com.poc.lab.batch.deputy.execution.AimdLimit;
+import com.poc.lab.batch.deputy.execution.CircuitBreaker;
+import com.poc.lab.batch.deputy.execution.DeputyStageExecutors;
+import com.poc.lab.batch.deputy.execution.DownstreamsEndpoint;
+import com.poc.lab.batch.deputy.fault.DocumentConversionException;
+import com.poc.lab.batch.deputy.fault.SkippedRecordWriter;
+import com.poc.lab.batch.deputy.fault.TransientDocumentException;
+import com.poc.lab.batch.deputy.partition.CommaSeparatedObjectRangePartitioner;
+import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectChannelItemReader;
+import com.poc.lab.batch.deputy.render.PdfDocumentLoader;
+import com.poc.lab.batch.deputy.render.PdfPageRenderer;
+import com.poc.lab.batch.deputy.render.RasterPool;
+import com.poc.lab.batch.deputy.render.RenderMemoryBudget;
 import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectStreamItemReader;
+import com.poc.lab.batch.deputy.service.BtService;
+import com.poc.lab.batch.deputy.service.DeputyDocumentBatcher;
+import com.poc.lab.batch.deputy.service.EdmsService;
+import com.poc.lab.batch.deputy.service.EdmsUploadBatcher;
+import com.poc.lab.batch.deputy.tasklet.PartitionedOutputMergeTasklet;
 import com.poc.lab.batch.deputy.tasklet.PdfConvertToImageProcessor;
 import com.poc.lab.batch.deputy.writer.ChannelLineDelimitedJsonItemWriter;
+import com.poc.lab.common.http.HedgedRetry;
+import com.poc.lab.common.http.HttpClientSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Future;
+
 @Configuration
 public class FamilyRelationshipCertificateReceiveBathJobConfig {
 
     private static final String JOB_NAME = "deputyDocumentJob";
     private static final String STEP_NAME = "courtDocumentFileStep";
+    private static final String PARTITION_STEP_NAME = "courtDocumentPartitionStep";
+    private static final String WORKER_STEP_NAME = "courtDocumentWorkerStep";
+    private static final String MERGE_STEP_NAME = "courtDocumentMergeStep";
+    private static final String FAILED_MERGE_STEP_NAME = "courtDocumentFailedMergeStep";
+    private static final String REPROCESS_JOB_NAME = "deputyReprocessJob";
+    private static final String REPROCESS_STEP_NAME = "courtDocumentReprocessStep";
+
+    private static final String INPUT_PATH = "batch/src/main/resources/from/accounting";
+    private static final String OUTPUT_PATH = "batch/build/resources/main/to/channel";
+    // skip 된 입력 레코드(입력과 같은 형식). deputyReprocessJob 의 입력
+    private static final String FAILED_PATH = "batch/build/resources/main/to/failed";
+    private static final String REPROCESSED_OUTPUT_PATH = "batch/build/resources/main/to/channel-reprocessed";
+    private static final String REPROCESS_FAILED_PATH = "batch/build/resources/main/to/failed-reprocessed";
+    // 삭제 대기 EDMS id 기록
+    private static final String DELETION_JOURNAL_PATH = "batch/build/resources/main/to/edms-deletions.journal";
+
+    // stream: 문자 디코딩 기반 reader, channel: UTF-8 byte 스캔 reader
+    private static final String CHANNEL_READER_MODE = "channel";
+
+    private static final String PDF_TRANSPORT = "pdf";
+
+    @Value("${deputy.batch.chunk-size:1}")
+    private int chunkSize;
+
+    // 파이프라인 모드: 청크(window) 안의 레코드를 동시에 처리하고 결과는 writer 에서 순서대로 기록
+    @Value("${deputy.batch.pipeline.enabled:true}")
+    private boolean pipelined;
+
+    @Value("${deputy.batch.pipeline.window:64}")
+    private int pipelineWindow;
+
+    @Value("${deputy.batch.pipeline.ordered:true}")
+    private boolean pipelineOrdered;
+
+    // 내결함 모드: 일시적 실패는 레코드 단위 재시도, 그래도 실패하거나 영구 실패면 skip 후 실패 파일에 기록
+    @Value("${deputy.batch.fault.enabled:true}")
+    private boolean faultTolerant;
+
+    @Value("${deputy.batch.fault.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${deputy.batch.fault.retry-backoff:PT1S}")
+    private Duration retryBackoff;
+
+    @Value("${deputy.batch.fault.skip-limit:1000}")
+    private int skipLimit;
 
     @Bean
-    public Job deputyDocumentJob(JobRepository jobRepository, PlatformTransactionManager txManager) {
+    public Job deputyDocumentJob(JobRepository jobRepository,
+                                 @Qualifier("deputyDocumentFileStep") Step deputyDocumentFileStep,
+                                 @Qualifier("deputyDocumentPartitionStep") Step deputyDocumentPartitionStep,
+                                 @Qualifier("deputyDocumentMergeStep") Step deputyDocumentMergeStep,
+                                 @Qualifier("deputyDocumentFailedMergeStep") Step deputyDocumentFailedMergeStep,
+                                 @Value("${deputy.batch.partition.enabled:false}") boolean partitioned) {
+        if (!partitioned) {
+            return new JobBuilder(JOB_NAME, jobRepository)
+                    .start(deputyDocumentFileStep)
+                    .build();
+        }
         return new JobBuilder(JOB_NAME, jobRepository)
-                .start(deputyDocumentFileStep(jobRepository, txManager))
+                .start(deputyDocumentPartitionStep)
+                .next(deputyDocumentMergeStep)
+                .next(deputyDocumentFailedMergeStep)
                 .build();
     }
 
     @Bean
-    public Step deputyDocumentFileStep(JobRepository jobRepository, PlatformTransactionManager txManager) {
-        return new StepBuilder(STEP_NAME, jobRepository)
-                .<AccountingSystemDocument, ChannelSystemDocument>chunk(1, txManager)
-                .reader(deputyDocumentReader())
-                .processor(deputyDocumentProcessor())
-                .writer(deputyDocumentWriter())
+    public Step deputyDocumentFileStep(JobRepository jobRepository, PlatformTransactionManager txManager,
+                                       @Qualifier("deputyDocumentReader") ItemStreamReader<AccountingSystemDocument> deputyDocumentReader,
+                                       PdfConvertToImageProcessor deputyDocumentProcessor) {
+        return documentStep(new StepBuilder(STEP_NAME, jobRepository), txManager,
+                deputyDocumentReader, deputyDocumentProcessor, deputyDocumentWriter(), skippedRecordWriter(null), pipelineWindow);
+    }
+
+    @Bean
+    public ItemStreamReader<AccountingSystemDocument> deputyDocumentReader(
+            @Value("${deputy.batch.reader.mode:channel}") String readerMode,
+            @Value("${deputy.batch.reader.index-interval:0}") int indexInterval) {
+        return accountingReader(readerMode, 0, -1, true, indexInterval);
+    }
+
+    @Bean
+    public PdfConvertToImageProcessor deputyDocumentProcessor(
+            DeputyStageExecutors deputyStageExecutors,
+            DocumentImageCache documentImageCache,
+            BtService btService,
+            EdmsService edmsService,
+            DeputyDocumentBatcher deputyDocumentBatcher,
+            @Value("${deputy.batch.fetch.batched:true}") boolean batched,
+            EdmsUploadBatcher edmsUploadBatcher,
+            @Value("${deputy.batch.upload.batched:true}") boolean uploadBatched,
+            @Value("${deputy.batch.fetch.transport:pdf}") String transport,
+            PdfPageRenderer pdfPageRenderer,
+            ImageEncoders imageEncoders,
+            EdmsDeletionQueue edmsDeletionQueue,
+            @Value("${deputy.batch.compensation.enabled:true}") boolean compensation) {
+        final PdfConvertToImageProcessor processor = new PdfConvertToImageProcessor(deputyStageExecutors, documentImageCache, btService, edmsService);
+        processor.setPageRenderer(pdfPageRenderer);
+        processor.setImageEncoders(imageEncoders);
+        processor.setPropagateFailures(faultTolerant);
+        if (compensation) {
+            processor.setDeletionQueue(edmsDeletionQueue);
+        }
+        // pdf: application/pdf 원본 byte, json: 기존 Base64 JSON (일괄 조회는 batcher 에 같은 설정)
+        processor.setBinaryTransport(PDF_TRANSPORT.equalsIgnoreCase(transport));
+        if (batched) {
+            processor.setDocumentBatcher(deputyDocumentBatcher);
+        }
+        if (uploadBatched) {
+            processor.setUploadBatcher(edmsUploadBatcher);
+        }
+        return processor;
+    }
+
+    // 지정 구간 페이지를 render 풀에서 병렬 렌더링해 세로로 이어 붙인 이미지 하나로 만든다
+    @Bean
+    public PdfPageRenderer pdfPageRenderer(DeputyStageExecutors deputyStageExecutors,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${deputy.batch.render.dpi:300}") int dpi,
+                                           @Value("${deputy.batch.render.first-page:1}") int firstPage,
+                                           @Value("${deputy.batch.render.last-page:0}") int lastPage,
+                                           @Value("${deputy.batch.render.pages-per-task:1}") int pagesPerTask,
+                                           RenderMemoryBudget renderMemoryBudget,
+                                           RasterPool rasterPool,
+                                           PdfDocumentLoader pdfDocumentLoader) {
+        final PdfPageRenderer renderer = new PdfPageRenderer(deputyStageExecutors.render(), meterRegistry, dpi, firstPage, lastPage, pagesPerTask);
+        renderer.setMemoryBudget(renderMemoryBudget);
+        renderer.setRasterPool(rasterPool);
+        renderer.setDocumentLoader(pdfDocumentLoader);
+        return renderer;
+    }
+
+    // PDF 로딩 설정. max-main-memory-bytes 가 0 이하면 메모리 전용 스트림 캐시, 초과분은 임시 파일
+    @Bean
+    public PdfDocumentLoader pdfDocumentLoader(@Value("${deputy.batch.render.loader.max-main-memory-bytes:0}") long maxMainMemoryBytes,
+                                               @Value("${deputy.batch.render.loader.share-fonts:true}") boolean shareFonts,
+                                               @Value("${deputy.batch.render.loader.warm-up-fonts:Helvetica}") String[] warmUpFonts) {
+        final PdfDocumentLoader loader = new PdfDocumentLoader(maxMainMemoryBytes, shareFonts);
+        loader.warmUp(warmUpFonts);
+        return loader;
+    }
+
+    // 렌더링 이미지 재사용 풀. max-idle-bytes 가 0 이면 풀 없이 매번 할당
+    @Bean
+    public RasterPool rasterPool(MeterRegistry meterRegistry,
+                                 @Value("${deputy.batch.render.pool.max-idle-bytes:268435456}") long maxIdleBytes,
+                                 @Value("${deputy.batch.render.pool.max-idle-per-key:8}") int maxIdlePerKey) {
+        final RasterPool pool = new RasterPool(maxIdleBytes, maxIdlePerKey);
+        pool.bindTo(meterRegistry);
+        return pool;
+    }
+
+    // docType 별 인코더. 코덱: png, png-gray, png-bilevel, jpeg, jpeg-gray, tiff-g4
+    @Bean
+    public ImageEncoders imageEncoders(@Value("${deputy.batch.encode.default-codec:png}") String defaultCodec,
+                                       @Value("${deputy.batch.encode.doc-types:}") String docTypeCodecs,
+                                       @Value("${deputy.batch.encode.png-deflate-level:-1}") int pngDeflateLevel,
+                                       @Value("${deputy.batch.encode.jpeg-quality:0.85}") float jpegQuality) {
+        return ImageEncoders.of(defaultCodec, docTypeCodecs, pngDeflateLevel, jpegQuality);
+    }
+
+    // 추정 래스터 크기 기준 렌더링 시작 제한. budget-bytes 가 0 이하면 최대 힙의 heap-ratio 만큼
+    @Bean
+    public RenderMemoryBudget renderMemoryBudget(MeterRegistry meterRegistry,
+                                                 @Value("${deputy.batch.render.memory.budget-bytes:0}") long budgetBytes,
+                                                 @Value("${deputy.batch.render.memory.heap-ratio:0.25}") double heapRatio,
+                                                 @Value("${deputy.batch.render.memory.min-dpi:150}") int minDpi,
+                                                 @Value("${deputy.batch.render.memory.downgrade-after:PT2S}") Duration downgradeAfter) {
+        final RenderMemoryBudget budget = budgetBytes > 0
+                ? new RenderMemoryBudget(budgetBytes, minDpi, downgradeAfter)
+                : RenderMemoryBudget.ofHeapRatio(heapRatio, minDpi, downgradeAfter);
+        budget.bindTo(meterRegistry);
+        return budget;
+    }
+
+    // BT 문서 조회 요청을 모아 일괄 조회(/api/v1/deputy/documents)로 보낸다
+    @Bean(destroyMethod = "shutdown")
+    public DeputyDocumentBatcher deputyDocumentBatcher(DeputyStageExecutors deputyStageExecutors,
+                                                       BtService btService,
+                                                       @Value("${deputy.batch.fetch.max-batch-size:32}") int maxBatchSize,
+                                                       @Value("${deputy.batch.fetch.linger:PT0.02S}") Duration linger,
+                                                       @Value("${deputy.batch.fetch.transport:pdf}") String transport) {
+        final DeputyDocumentBatcher batcher = new DeputyDocumentBatcher(btService, deputyStageExecutors.bt(), maxBatchSize, linger);
+        batcher.setBinaryTransport(PDF_TRANSPORT.equalsIgnoreCase(transport));
+        return batcher;
+    }
+
+    // 여러 레코드의 EDMS 업로드를 모아 일괄 업로드(/files/batch)로 보낸다
+    @Bean(destroyMethod = "shutdown")
+    public EdmsUploadBatcher edmsUploadBatcher(DeputyStageExecutors deputyStageExecutors,
+                                               EdmsService edmsService,
+                                               @Value("${deputy.batch.upload.max-batch-size:16}") int maxBatchSize,
+                                               @Value("${deputy.batch.upload.linger:PT0.01S}") Duration linger) {
+        return new EdmsUploadBatcher(edmsService, deputyStageExecutors.edms(), maxBatchSize, linger);
+    }
+
+    // 고아 EDMS 이미지 일괄 삭제. 대기 id 는 journal 파일에 남아 재시작 후에도 이어서 지운다
+    @Bean(destroyMethod = "shutdown")
+    public EdmsDeletionQueue edmsDeletionQueue(DeputyStageExecutors deputyStageExecutors,
+                                               EdmsService edmsService,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${deputy.batch.compensation.journal:" + DELETION_JOURNAL_PATH + "}") String journalPath,
+                                               @Value("${deputy.batch.compensation.journal-sync:true}") boolean journalSync,
+                                               @Value("${deputy.batch.compensation.max-batch-size:100}") int maxBatchSize,
+                                               @Value("${deputy.batch.compensation.flush-interval:PT1S}") Duration flushInterval) {
+        final EdmsDeletionQueue queue = new EdmsDeletionQueue(edmsService, deputyStageExecutors.edms(),
+                new DeletionJournal(Path.of(journalPath), journalSync), maxBatchSize, flushInterval);
+        queue.bindTo(meterRegistry);
+        queue.start();
+        return queue;
+    }
+
+    // BT/EDMS 연결 풀 클라이언트. 연결 수는 단계별 동시 실행 상한에 맞춘다
+    @Bean
+    public BtService btService(MeterRegistry meterRegistry,
+                               ObservationRegistry observationRegistry,
+                               @Value("${deputy.batch.http.bt.max-connections:64}") int maxConnections,
+                               @Value("${deputy.batch.http.bt.read-timeout:PT30S}") Duration readTimeout,
+                               @Value("${deputy.batch.http.connect-timeout:PT2S}") Duration connectTimeout,
+                               @Value("${deputy.batch.http.keep-alive:PT15S}") Duration keepAlive,
+                               @Value("${deputy.batch.http.time-to-live:PT5M}") Duration timeToLive,
+                               HedgedRetry btHedgedRetry) {
+        final BtService btService = BtService.pooled(new HttpClientSettings(maxConnections, connectTimeout, readTimeout, keepAlive, timeToLive),
+                meterRegistry, observationRegistry);
+        btService.setHedgedRetry(btHedgedRetry);
+        // 레코드 재시도(fault)가 켜져 있으면 그것만 재시도한다(HTTP/BT 층은 재시도하지 않아 시도 수가 곱해지지 않는다)
+        btService.setRecordRetry(faultTolerant);
+        return btService;
+    }
+
+    // BT 건건이 조회 재시도(max-attempts 1 이면 없음)와 hedged request(최근 응답 시간 percentile 분위 초과 시 한 번 더)
+    @Bean(destroyMethod = "shutdown")
+    public HedgedRetry btHedgedRetry(MeterRegistry meterRegistry,
+                                     @Value("${deputy.batch.http.bt.hedge.enabled:true}") boolean hedging,
+                                     @Value("${deputy.batch.http.bt.hedge.percentile:0.5}") double percentile,
+                                     @Value("${deputy.batch.http.bt.hedge.min-delay:PT0.2S}") Duration minDelay,
+                                     @Value("${deputy.batch.http.bt.hedge.budget:0.3}") double budget,
+                                     @Value("${deputy.batch.http.bt.retry.max-attempts:3}") int maxAttempts,
+                                     @Value("${deputy.batch.http.bt.retry.base-backoff:PT0.1S}") Duration baseBackoff,
+                                     @Value("${deputy.batch.http.bt.retry.max-backoff:PT1S}") Duration maxBackoff) {
+        return new HedgedRetry("bt", meterRegistry, hedging, percentile, minDelay, budget, maxAttempts, baseBackoff, maxBackoff);
+    }
+
+    @Bean
+    public EdmsService edmsService(MeterRegistry meterRegistry,
+                                   ObservationRegistry observationRegistry,
+                                   @Value("${deputy.batch.http.edms.max-connections:32}") int maxConnections,
+                                   @Value("${deputy.batch.http.edms.read-timeout:PT30S}") Duration readTimeout,
+                                   @Value("${deputy.batch.http.connect-timeout:PT2S}") Duration connectTimeout,
+                                   @Value("${deputy.batch.http.keep-alive:PT15S}") Duration keepAlive,
+                                   @Value("${deputy.batch.http.time-to-live:PT5M}") Duration timeToLive) {
+        return EdmsService.pooled(new HttpClientSettings(maxConnections, connectTimeout, readTimeout, keepAlive, timeToLive),
+                meterRegistry, observationRegistry);
+    }
+
+    @Bean
+    public DocumentImageCache documentImageCache(MeterRegistry meterRegistry,
+                                                 @Value("${deputy.batch.cache.enabled:true}") boolean enabled,
+                                                 @Value("${deputy.batch.cache.maximum-size:100000}") long maximumSize,
+                                                 @Value("${deputy.batch.cache.ttl:PT1H}") Duration ttl) {
+        if (!enabled) {
+            return DocumentImageCache.disabled();
+        }
+        final DocumentImageCache cache = DocumentImageCache.of(maximumSize, ttl);
+        cache.bindTo(meterRegistry);
+        return cache;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public DeputyStageExecutors deputyStageExecutors(MeterRegistry meterRegistry,
+                                                     @Value("${deputy.batch.execution.mode:virtual}") String mode,
+                                                     @Value("${deputy.batch.execution.bt-max-concurrency:64}") int btMaxConcurrency,
+                                                     @Value("${deputy.batch.execution.edms-max-concurrency:32}") int edmsMaxConcurrency,
+                                                     @Value("${deputy.batch.execution.render-threads:0}") int renderThreads,
+                                                     @Value("${deputy.batch.execution.adaptive.enabled:true}") boolean adaptive,
+                                                     @Value("${deputy.batch.execution.adaptive.initial-limit:8}") int initialLimit,
+                                                     @Value("${deputy.batch.execution.adaptive.min-limit:2}") int minLimit,
+                                                     @Value("${deputy.batch.execution.adaptive.backoff-ratio:0.7}") double backoffRatio,
+                                                     @Value("${deputy.batch.execution.adaptive.bt-latency-threshold:PT5S}") Duration btLatencyThreshold,
+                                                     @Value("${deputy.batch.execution.adaptive.edms-latency-threshold:PT1S}") Duration edmsLatencyThreshold,
+                                                     @Value("${deputy.batch.execution.max-wait:PT30S}") Duration maxWait,
+                                                     @Value("${deputy.batch.circuit.enabled:true}") boolean circuitEnabled,
+                                                     @Value("${deputy.batch.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                                     @Value("${deputy.batch.circuit.window-size:50}") int windowSize,
+                                                     @Value("${deputy.batch.circuit.minimum-calls:20}") int minimumCalls,
+                                                     @Value("${deputy.batch.circuit.open-duration:PT10S}") Duration openDuration,
+                                                     @Value("${deputy.batch.circuit.half-open-calls:5}") int halfOpenCalls) {
+        if (DeputyStageExecutors.PLATFORM.equalsIgnoreCase(mode)) {
+            return DeputyStageExecutors.platform(meterRegistry);
+        }
+        // adaptive: 최대 동시 호출 수 안에서 응답 시간/과부하 신호로 한도 조정, 아니면 최대값 고정
+        final AimdLimit btLimit = adaptive
+                ? new AimdLimit(Math.min(initialLimit, btMaxConcurrency), Math.min(minLimit, btMaxConcurrency), btMaxConcurrency, btLatencyThreshold, backoffRatio)
+                : AimdLimit.fixed(btMaxConcurrency);
+        final AimdLimit edmsLimit = adaptive
+                ? new AimdLimit(Math.min(initialLimit, edmsMaxConcurrency), Math.min(minLimit, edmsMaxConcurrency), edmsMaxConcurrency, edmsLatencyThreshold, backoffRatio)
+                : AimdLimit.fixed(edmsMaxConcurrency);
+        return DeputyStageExecutors.virtual(meterRegistry,
+                btLimit, circuitBreaker(circuitEnabled, failureRateThreshold, windowSize, minimumCalls, openDuration, halfOpenCalls),
+                edmsLimit, circuitBreaker(circuitEnabled, failureRateThreshold, windowSize, minimumCalls, openDuration, halfOpenCalls),
+                maxWait, renderThreads);
+    }
+
+    // /actuator/downstreams: BT/EDMS 한도, 거부 수, 서킷 상태
+    @Bean
+    public DownstreamsEndpoint downstreamsEndpoint(DeputyStageExecutors deputyStageExecutors) {
+        return new DownstreamsEndpoint(List.of(deputyStageExecutors.bt(), deputyStageExecutors.edms()));
+    }
+
+    @Bean
+    public ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> deputyDocumentWriter() {
+        return new ChannelLineDelimitedJsonItemWriter<>(
+                new FileSystemResource(OUTPUT_PATH),
+                new ObjectMapper(),
+                ChannelSystemDocument.class);
+    }
+
+    @Bean
+    public SkippedRecordWriter skippedRecordWriter(MeterRegistry meterRegistry) {
+        return new SkippedRecordWriter(new FileSystemResource(FAILED_PATH), new ObjectMapper(), meterRegistry);
+    }
+
+    // ---- 재처리: 실패 파일의 레코드만 다시 처리(--spring.batch.job.name=deputyReprocessJob) ----
+
+    @Bean
+    public Job deputyReprocessJob(JobRepository jobRepository,
+                                  @Qualifier("deputyReprocessStep") Step deputyReprocessStep) {
+        return new JobBuilder(REPROCESS_JOB_NAME, jobRepository)
+                .start(deputyReprocessStep)
                 .build();
     }
 
     @Bean
-    public ItemStreamReader<AccountingSystemDocument> deputyDocumentReader() {
-        return new CommaSeparatedObjectStreamItemReader<>(
-                new FileSystemResource("batch/src/main/resources/from/accounting"),
+    public Step deputyReprocessStep(JobRepository jobRepository, PlatformTransactionManager txManager,
+                                    PdfConvertToImageProcessor deputyDocumentProcessor,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${deputy.batch.reprocess.window:256}") int reprocessWindow) {
+        final CommaSeparatedObjectStreamItemReader<AccountingSystemDocument> reader = new CommaSeparatedObjectStreamItemReader<>(
+                new FileSystemResource(FAILED_PATH),
                 new ObjectMapper(),
                 AccountingSystemDocument.class
         );
+        final ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> writer = new ChannelLineDelimitedJsonItemWriter<>(
+                new FileSystemResource(REPROCESSED_OUTPUT_PATH),
+                new ObjectMapper(),
+                ChannelSystemDocument.class);
+        return documentStep(new StepBuilder(REPROCESS_STEP_NAME, jobRepository), txManager, reader, deputyDocumentProcessor, writer,
+                new SkippedRecordWriter(new FileSystemResource(REPROCESS_FAILED_PATH), new ObjectMapper(), meterRegistry), reprocessWindow);
     }
 
+    // ---- 파티션 모드: 입력 파일을 byte 구간으로 나눠 워커 스텝들이 병렬 처리 후 순서대로 병합 ----
+
     @Bean
-    public ItemProcessor<? super AccountingSystemDocument, ChannelSystemDocument> deputyDocumentProcessor() {
-        return new PdfConvertToImageProcessor();
+    public Step deputyDocumentPartitionStep(JobRepository jobRepository,
+                                            @Qualifier("deputyDocumentWorkerStep") Step deputyDocumentWorkerStep,
+                                            @Value("${deputy.batch.partition.grid-size:4}") int gridSize,
+                                            @Value("${deputy.batch.partition.workers:4}") int workers) {
+        final SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("batch-partition-");
+        taskExecutor.setConcurrencyLimit(workers);
+        return new StepBuilder(PARTITION_STEP_NAME, jobRepository)
+                .partitioner(WORKER_STEP_NAME, new CommaSeparatedObjectRangePartitioner(new FileSystemResource(INPUT_PATH)))
+                .step(deputyDocumentWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(taskExecutor)
+                .build();
     }
 
     @Bean
-    public ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> deputyDocumentWriter() {
+    public Step deputyDocumentWorkerStep(JobRepository jobRepository, PlatformTransactionManager txManager,
+                                         PdfConvertToImageProcessor deputyDocumentProcessor) {
+        return documentStep(new StepBuilder(WORKER_STEP_NAME, jobRepository), txManager,
+                partitionedDeputyDocumentReader(null, null, null), deputyDocumentProcessor, partitionedDeputyDocumentWriter(null),
+                partitionedSkippedRecordWriter(null, null), pipelineWindow);
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<AccountingSystemDocument> partitionedDeputyDocumentReader(
+            @Value("${deputy.batch.reader.mode:channel}") String readerMode,
+            @Value("#{stepExecutionContext['" + CommaSeparatedObjectRangePartitioner.START_OFFSET + "']}") Long startOffset,
+            @Value("#{stepExecutionContext['" + CommaSeparatedObjectRangePartitioner.END_OFFSET + "']}") Long endOffset) {
+        return accountingReader(readerMode, startOffset, endOffset, true, 0);
+    }
+
+    @Bean
+    @StepScope
+    public ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> partitionedDeputyDocumentWriter(
+            @Value("#{stepExecutionContext['" + CommaSeparatedObjectRangePartitioner.PARTITION_INDEX + "']}") Integer partitionIndex) {
         return new ChannelLineDelimitedJsonItemWriter<>(
-                new FileSystemResource("batch/build/resources/main/to/channel"),
+                new FileSystemResource(PartitionedOutputMergeTasklet.partPath(Path.of(OUTPUT_PATH), partitionIndex)),
                 new ObjectMapper(),
                 ChannelSystemDocument.class);
     }
+
+    @Bean
+    @StepScope
+    public SkippedRecordWriter partitionedSkippedRecordWriter(
+            MeterRegistry meterRegistry,
+            @Value("#{stepExecutionContext['" + CommaSeparatedObjectRangePartitioner.PARTITION_INDEX + "']}") Integer partitionIndex) {
+        return new SkippedRecordWriter(
+                new FileSystemResource(PartitionedOutputMergeTasklet.partPath(Path.of(FAILED_PATH), partitionIndex)),
+                new ObjectMapper(),
+                meterRegistry);
+    }
+
+    @Bean
+    public Step deputyDocumentMergeStep(JobRepository jobRepository, PlatformTransactionManager txManager,
+                                        @Value("${deputy.batch.partition.grid-size:4}") int gridSize) {
+        return new StepBuilder(MERGE_STEP_NAME, jobRepository)
+                .tasklet(new PartitionedOutputMergeTasklet(Path.of(OUTPUT_PATH), gridSize), txManager)
+                .build();
+    }
+
+    @Bean
+    public Step deputyDocumentFailedMergeStep(JobRepository jobRepository, PlatformTransactionManager txManager,
+                                              @Value("${deputy.batch.partition.grid-size:4}") int gridSize) {
+        return new StepBuilder(FAILED_MERGE_STEP_NAME, jobRepository)
+                .tasklet(new PartitionedOutputMergeTasklet(Path.of(FAILED_PATH), gridSize), txManager)
+                .build();
+    }
+
+    private Step documentStep(StepBuilder stepBuilder,
+                              PlatformTransactionManager txManager,
+                              ItemStreamReader<AccountingSystemDocument> reader,
+                              PdfConvertToImageProcessor processor,
+                              ItemStreamWriter<ChannelSystemDocument> writer,
+                              SkippedRecordWriter skippedWriter,
+                              int window) {
+        if (pipelined) {
+            final PipelinedItemProcessor<AccountingSystemDocument, ChannelSystemDocument> pipelinedProcessor = new PipelinedItemProcessor<>(processor::processAsync);
+            final PipelinedItemWriter<ChannelSystemDocument> pipelinedWriter = new PipelinedItemWriter<>(writer, pipelineOrdered);
+            if (!faultTolerant) {
+                return stepBuilder
+                        .<AccountingSystemDocument, Future<ChannelSystemDocument>>chunk(window, txManager)
+                        .reader(reader)
+                        .processor(pipelinedProcessor)
+                        .writer(pipelinedWriter)
+                        .build();
+            }
+            // 청크 롤백/스캔 없이 레코드 단위로 재시도하고, 실패한 레코드만 빼고 쓴다
+            pipelinedProcessor.setRetry(maxAttempts, retryBackoff, TransientDocumentException.class::isInstance);
+            pipelinedWriter.setSkipPolicy(DocumentConversionException.class::isInstance, skipLimit, skippedWriter::onSkip);
+            return stepBuilder
+                    .<AccountingSystemDocument, Future<ChannelSystemDocument>>chunk(window, txManager)
+                    .reader(reader)
+                    .processor(pipelinedProcessor)
+                    .writer(pipelinedWriter)
+                    .stream(skippedWriter)
+                    .build();
+        }
+        if (!faultTolerant) {
+            return stepBuilder
+                    .<AccountingSystemDocument, ChannelSystemDocument>chunk(chunkSize, txManager)
+                    .reader(reader)
+                    .processor(processor)
+                    .writer(writer)
+                    .build();
+        }
+        final ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(Math.max(1, retryBackoff.toMillis()));
+        return stepBuilder
+                .<AccountingSystemDocument, ChannelSystemDocument>chunk(chunkSize, txManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(writer)
+                .faultTolerant()
+                .retry(TransientDocumentException.class)
+                .retryLimit(maxAttempts)
+                .backOffPolicy(backOffPolicy)
+                .skip(DocumentConversionException.class)
+                .skipLimit(skipLimit)
+                .listener(skippedWriter)
+                .stream(skippedWriter)
+                .build();
+    }
+
+    private static CircuitBreaker circuitBreaker(boolean enabled, double failureRateThreshold, int windowSize,
+                                                 int minimumCalls, Duration openDuration, int halfOpenCalls) {
+        if (!enabled) {
+            return CircuitBreaker.disabled();
+        }
+        return new CircuitBreaker(failureRateThreshold, windowSize, minimumCalls, openDuration, halfOpenCalls);
+    }
+
+    private static ItemStreamReader<AccountingSystemDocument> accountingReader(String readerMode,
+                                                                              long startOffset,
+                                                                              long endOffset,
+                                                                              boolean saveState,
+                                                                              int indexInterval) {
+        if (CHANNEL_READER_MODE.equalsIgnoreCase(readerMode)) {
+            final CommaSeparatedObjectChannelItemReader<AccountingSystemDocument> reader = new CommaSeparatedObjectChannelItemReader<>(
+                    new FileSystemResource(INPUT_PATH),
+                    new ObjectMapper(),
+                    AccountingSystemDocument.class
+            );
+            reader.setStartOffset(startOffset);
+            reader.setEndOffset(endOffset);
+            reader.setSaveState(saveState);
+            reader.setIndexInterval(indexInterval);
+            return reader;
+        }
+        final CommaSeparatedObjectStreamItemReader<AccountingSystemDocument> reader = new CommaSeparatedObjectStreamItemReader<>(
+                new FileSystemResource(INPUT_PATH),
+                new ObjectMapper(),
+                AccountingSystemDocument.class
+        );
+        reader.setStartOffset(startOffset);
+        reader.setEndOffset(endOffset);
+        reader.setSaveState(saveState);
+        return reader;
+    }
 }
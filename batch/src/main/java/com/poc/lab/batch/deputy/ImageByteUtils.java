@@ -2,12 +2,25 @@ package com.poc.lab.batch.deputy;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class ImageByteUtils {
 
     private static final String PNG = "png";
 
+    // 인코딩 출력 버퍼 풀(스트리밍 업로드용). 풀이 비면 새로 만들고, 가득 차면 버린다
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(64);
+
+    static {
+        // 기본값(true)이면 ImageIO 가 인코딩 중간 결과를 임시 파일에 캐시한다
+        ImageIO.setUseCache(false);
+    }
+
     private ImageByteUtils() {
     }
 
@@ -17,4 +30,84 @@ public class ImageByteUtils {
             return bos.toByteArray();
         }
     }
+
+    /**
+     * 전체 결과를 byte[] 로 모으지 않고 out 으로 바로 PNG 인코딩. out 은 닫지 않는다
+     */
+    public static void writePng(BufferedImage img, OutputStream out) throws IOException {
+        try (OutputStream buffered = pooledBuffer(out)) {
+            if (!ImageIO.write(img, PNG, buffered)) {
+                throw new IOException("No PNG writer for image type " + img.getType());
+            }
+        }
+    }
+
+    /**
+     * 풀에서 빌린 배열로 버퍼링하는 출력 스트림. close 하면 flush 후 배열을 반납하고, out 은 닫지 않는다
+     */
+    public static OutputStream pooledBuffer(OutputStream out) {
+        final byte[] buffer = BUFFERS.poll();
+        return new PooledBufferOutputStream(out, buffer != null ? buffer : new byte[BUFFER_SIZE]);
+    }
+
+    // 빌린 배열을 버퍼로 쓰는 출력 스트림. close 해도 대상 스트림은 닫지 않는다
+    private static final class PooledBufferOutputStream extends FilterOutputStream {
+
+        private final byte[] buffer;
+        private int count = 0;
+        private boolean closed = false;
+
+        private PooledBufferOutputStream(final OutputStream out, final byte[] buffer) {
+            super(out);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (count == buffer.length) {
+                drain();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len >= buffer.length) {
+                drain();
+                out.write(b, off, len);
+                return;
+            }
+            if (len > buffer.length - count) {
+                drain();
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flush();
+            } finally {
+                BUFFERS.offer(buffer);
+            }
+        }
+
+        private void drain() throws IOException {
+            if (count > 0) {
+                out.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+    }
 }
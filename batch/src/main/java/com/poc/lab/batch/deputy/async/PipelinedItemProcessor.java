@@ -0,0 +1,70 @@
+package com.poc.lab.batch.deputy.async;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 레코드 처리를 시작만 하고 future 를 바로 돌려주는 processor (AsyncItemProcessor 방식)
+ * - 청크 크기만큼의 레코드가 동시에 진행되고, {@link PipelinedItemWriter} 가 결과를 기다려 기록한다
+ * - 재시도를 지정하면 retryable 예외로 실패한 레코드를 (jitter 백오프 후) 비동기로 다시 처리한다.
+ *   청크 전체를 롤백/재처리하는 faultTolerant 재시도와 달리 실패한 레코드만 다시 돈다
+ */
+public class PipelinedItemProcessor<I, O> implements ItemProcessor<I, Future<O>> {
+
+    private final Function<I, CompletableFuture<O>> delegate;
+
+    private int maxAttempts = 1;
+    private long backoffNanos;
+    private Predicate<Throwable> retryable = it -> false;
+
+    public PipelinedItemProcessor(final Function<I, CompletableFuture<O>> delegate) {
+        Assert.notNull(delegate, "delegate must not be null");
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param maxAttempts 첫 시도를 포함한 최대 시도 수
+     * @param backoff     n 번째 재시도 전 [0, backoff * n) 중 임의 시간 대기
+     */
+    public void setRetry(final int maxAttempts, final Duration backoff, final Predicate<Throwable> retryable) {
+        Assert.isTrue(maxAttempts > 0, "maxAttempts must be positive");
+        Assert.isTrue(backoff != null && !backoff.isNegative(), "backoff must not be negative");
+        Assert.notNull(retryable, "retryable must not be null");
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.retryable = retryable;
+    }
+
+    @Override
+    public Future<O> process(@Nonnull final I item) {
+        return attempt(item, 1);
+    }
+
+    private CompletableFuture<O> attempt(final I item, final int attempt) {
+        return delegate.apply(item)
+                .handle((result, throwable) -> {
+                    if (throwable == null) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause() : throwable;
+                    if (attempt >= maxAttempts || !retryable.test(cause)) {
+                        return CompletableFuture.<O>failedFuture(cause);
+                    }
+                    final long delay = backoffNanos == 0 ? 0 : ThreadLocalRandom.current().nextLong(backoffNanos * attempt);
+                    return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS))
+                            .thenCompose(ignored -> attempt(item, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+}
@@ -0,0 +1,158 @@
+package com.poc.lab.batch.deputy.async;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@link PipelinedItemProcessor} 결과 future 를 기다려 delegate writer 로 기록 (AsyncItemWriter 방식)
+ * - ordered: 입력 순서대로 기록
+ * - unordered: 완료되는 순서대로 하나씩 바로 기록(느린 레코드를 기다리는 동안 앞선 결과를 직렬화)
+ * - 처리 중 발생한 예외는 ExecutionException 을 벗겨 원래 예외로 던진다
+ * - skip 정책을 지정하면 skippable 예외로 실패한 레코드는 onSkip 으로 넘기고 나머지만 기록한다.
+ *   faultTolerant 의 쓰기 skip 처럼 청크를 한 건씩 다시 처리(scan)하지 않는다. skipLimit 을 넘으면 스텝 실패
+ * - skip 건수는 StepExecution 의 processSkipCount 로 보고하고, 재시작해도 skipLimit 이 이어지도록 스텝 ExecutionContext 에 저장한다.
+ *   (파티션 워커 스텝들이 이 writer 하나를 함께 쓰므로 건수는 각 스텝 실행에 둔다)
+ * - skip 된 레코드는 청크에서 빼므로 writeCount 에 들어가지 않는다
+ */
+public class PipelinedItemWriter<T> implements ItemStreamWriter<Future<T>> {
+
+    private static final String SKIP_COUNT_KEY = "pipelinedItemWriter.skipCount";
+
+    private final ItemStreamWriter<T> delegate;
+    private final boolean ordered;
+
+    private Predicate<Throwable> skippable = it -> false;
+    private int skipLimit;
+    private Consumer<Throwable> onSkip = it -> {
+    };
+
+    public PipelinedItemWriter(final ItemStreamWriter<T> delegate, final boolean ordered) {
+        Assert.notNull(delegate, "delegate must not be null");
+        this.delegate = delegate;
+        this.ordered = ordered;
+    }
+
+    public void setSkipPolicy(final Predicate<Throwable> skippable, final int skipLimit, final Consumer<Throwable> onSkip) {
+        Assert.notNull(skippable, "skippable must not be null");
+        Assert.isTrue(skipLimit >= 0, "skipLimit must not be negative");
+        Assert.notNull(onSkip, "onSkip must not be null");
+        this.skippable = skippable;
+        this.skipLimit = skipLimit;
+        this.onSkip = onSkip;
+    }
+
+    @Override
+    public void write(Chunk<? extends Future<T>> chunk) throws Exception {
+        final Set<Future<T>> skipped = new HashSet<>();
+        if (ordered) {
+            final List<T> items = new ArrayList<>(chunk.size());
+            for (Future<T> future : chunk) {
+                final T item = unwrap(future, skipped);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            delegate.write(new Chunk<>(items));
+        } else {
+            final BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+            for (Future<T> future : chunk) {
+                if (future instanceof CompletableFuture<T> completable) {
+                    completable.whenComplete((item, throwable) -> completed.add(completable));
+                } else {
+                    completed.add(future);
+                }
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                final T item = unwrap(completed.take(), skipped);
+                if (item != null) {
+                    delegate.write(Chunk.of(item));
+                }
+            }
+        }
+        if (!skipped.isEmpty()) {
+            skip(chunk, skipped);
+        }
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        delegate.close();
+    }
+
+    // 청크에서 빼서 writeCount 에서 제외하고, 건수는 StepContribution 으로 스텝 실행에 반영
+    private void skip(final Chunk<? extends Future<T>> chunk, final Set<Future<T>> skipped) {
+        for (Iterator<? extends Future<T>> iterator = chunk.iterator(); iterator.hasNext(); ) {
+            if (skipped.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        final StepExecution stepExecution = currentStep();
+        final ExecutionContext executionContext = stepExecution.getExecutionContext();
+        executionContext.putInt(SKIP_COUNT_KEY, executionContext.getInt(SKIP_COUNT_KEY, 0) + skipped.size());
+        final StepContribution contribution = stepExecution.createStepContribution();
+        for (int i = 0; i < skipped.size(); i++) {
+            contribution.incrementProcessSkipCount();
+        }
+        stepExecution.apply(contribution);
+    }
+
+    // skip 된 레코드는 skipped 에 넣고 null
+    private T unwrap(final Future<T> future, final Set<Future<T>> skipped) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (skippable.test(cause)) {
+                // 이전 청크(재시작 전 포함)까지의 건수 + 이 청크에서 지금까지 skip 한 건수
+                final int skipCount = currentStep().getExecutionContext().getInt(SKIP_COUNT_KEY, 0) + skipped.size() + 1;
+                if (skipCount > skipLimit) {
+                    throw new SkipLimitExceededException(skipLimit, cause);
+                }
+                onSkip.accept(cause);
+                skipped.add(future);
+                return null;
+            }
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+
+    private static StepExecution currentStep() {
+        final StepContext context = StepSynchronizationManager.getContext();
+        Assert.state(context != null, "skip requires a running step");
+        return context.getStepExecution();
+    }
+}
@@ -0,0 +1,181 @@
+package com.poc.lab.batch.deputy.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.util.Assert;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 이미 업로드한 문서의 EDMS id 캐시
+ * - 문서 식별자(userId, docId, docType) 기준: 적중하면 Court 조회부터 생략
+ * - PDF 내용 해시(SHA-256)와 변환 설정 기준: 다른 식별자라도 같은 PDF 면 렌더링/업로드 생략
+ * - 같은 키의 동시 요청은 진행 중인 future 하나를 공유
+ * - 실패(예외/null)는 캐시에 남지 않는다
+ * - 공유된 id 는 보상 삭제하면 안 되므로 참조 수를 세어 마지막 참조만 삭제 허용
+ * - id 별 참조 수와 그 id 를 값으로 가진 캐시 키는 한 항목(references)에 두고, 참조/해제를 id 단위 compute 로 원자적으로 처리.
+ *   해제된 id 는 released 에 남겨, 해제 직전에 캐시에서 꺼낸 요청이 다시 참조하지 못하고 새로 조회하게 한다
+ */
+public class DocumentImageCache {
+
+    private final boolean enabled;
+    private final AsyncCache<DocumentKey, String> byDocument;
+    private final AsyncCache<String, String> byContent;
+    private final Cache<String, References> references;
+    private final Cache<String, Boolean> released;
+
+    private DocumentImageCache(final boolean enabled, final long maximumSize, final Duration ttl) {
+        this.enabled = enabled;
+        this.byDocument = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.byContent = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.references = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.released = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public static DocumentImageCache of(final long maximumSize, final Duration ttl) {
+        Assert.isTrue(maximumSize > 0, "maximumSize must be positive");
+        Assert.notNull(ttl, "ttl must not be null");
+        return new DocumentImageCache(true, maximumSize, ttl);
+    }
+
+    /**
+     * 캐시 없이 매번 loader 를 호출
+     */
+    public static DocumentImageCache disabled() {
+        return new DocumentImageCache(false, 1, Duration.ZERO);
+    }
+
+    public CompletableFuture<String> byDocument(final String userId, final String docId, final String docType,
+                                                final Supplier<CompletableFuture<String>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        final DocumentKey key = new DocumentKey(userId, docId, docType);
+        final CompletableFuture<String> edmsId = byDocument.get(key, (ignored, executor) -> loader.get());
+        return edmsId.thenCompose(it -> acquire(key, it, true)
+                ? CompletableFuture.completedFuture(it)
+                : reload(byDocument, key, edmsId, () -> byDocument(userId, docId, docType, loader)));
+    }
+
+    /**
+     * @param variant 같은 PDF 라도 결과가 달라지는 변환 설정(인코더 등). 키에 함께 넣는다
+     */
+    public CompletableFuture<String> byContent(final byte[] pdf, final String variant,
+                                               final Supplier<CompletableFuture<String>> loader) {
+        if (!enabled || pdf == null) {
+            return loader.get();
+        }
+        final String key = variant + ":" + sha256(pdf);
+        final CompletableFuture<String> edmsId = byContent.get(key, (ignored, executor) -> loader.get());
+        return edmsId.thenCompose(it -> acquire(key, it, false)
+                ? CompletableFuture.completedFuture(it)
+                : reload(byContent, key, edmsId, () -> byContent(pdf, variant, loader)));
+    }
+
+    /**
+     * 보상 삭제 전 호출. 이 id 를 다른 레코드가 공유하지 않을 때만 true(캐시에서도 제거)
+     */
+    public boolean release(final String edmsId) {
+        if (!enabled) {
+            return true;
+        }
+        final boolean[] last = {false};
+        // 참조 정보가 만료됐으면 공유 여부를 알 수 없으므로 삭제하지 않는다
+        references.asMap().computeIfPresent(edmsId, (id, refs) -> {
+            if (--refs.count > 0) {
+                return refs;
+            }
+            last[0] = true;
+            released.put(id, Boolean.TRUE);
+            refs.documentKeys.forEach(key -> byDocument.synchronous().asMap().remove(key, id));
+            refs.contentKeys.forEach(key -> byContent.synchronous().asMap().remove(key, id));
+            return null;
+        });
+        return last[0];
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(registry, byDocument.synchronous(), "deputy.image.byDocument");
+        CaffeineCacheMetrics.monitor(registry, byContent.synchronous(), "deputy.image.byContent");
+    }
+
+    // id 를 값으로 가진 키를 기록하고, 문서 기준 조회면 참조 수도 올린다. 이미 해제된 id 면 false
+    private boolean acquire(final Object key, final String edmsId, final boolean reference) {
+        if (edmsId == null) {
+            return true;
+        }
+        final boolean[] live = {true};
+        references.asMap().compute(edmsId, (id, refs) -> {
+            if (released.getIfPresent(id) != null) {
+                live[0] = false;
+                return refs;
+            }
+            final References current = refs == null ? new References() : refs;
+            if (reference) {
+                current.count++;
+                current.documentKeys.add((DocumentKey) key);
+            } else {
+                current.contentKeys.add((String) key);
+            }
+            return current;
+        });
+        return live[0];
+    }
+
+    // 해제된 id 를 받은 요청: 그 future 가 아직 키에 남아 있으면 빼고 다시 조회
+    private static <K> CompletableFuture<String> reload(final AsyncCache<K, String> cache, final K key,
+                                                        final CompletableFuture<String> stale,
+                                                        final Supplier<CompletableFuture<String>> retry) {
+        cache.asMap().remove(key, stale);
+        return retry.get();
+    }
+
+    private static String sha256(final byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record DocumentKey(
+            String userId,
+            String docId,
+            String docType
+    ) {
+    }
+
+    // 한 id 의 참조 수와 그 id 를 값으로 가진 캐시 키. references 의 compute 안에서만 바꾼다
+    private static final class References {
+        private int count;
+        private final Set<DocumentKey> documentKeys = new HashSet<>();
+        private final Set<String> contentKeys = new HashSet<>();
+    }
+}
@@ -0,0 +1,244 @@
+package com.poc.lab.batch.deputy.compensation;
+
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 삭제 대기 EDMS id 의 추가/완료를 한 줄씩 덧붙여 기록하는 파일
+ * - "+ {등록 시각 epoch ms} {id}" 추가, "- {id}" 삭제 완료
+ * - 재시작 시 replay 해 완료되지 않은 id 를 돌려준다(중간에 끊긴 마지막 줄은 버린다)
+ * - sync 면 추가 기록이 force 로 디스크까지 내려간 뒤 돌아간다(프로세스뿐 아니라 OS 가 죽어도 남도록).
+ *   force 는 group commit: 한 스레드만 force 하고, 그동안 다른 스레드가 덧붙인 줄도 같은 force 로 함께 내린다
+ * - 완료 줄이 쌓이면 {@link #compact(Map)} 으로 남은 항목만 다시 쓴다(임시 파일 + 이름 바꾸기)
+ */
+public class DeletionJournal {
+
+    private static final char ADDED = '+';
+    private static final char REMOVED = '-';
+
+    private final Path path;
+    private final boolean sync;
+
+    private FileChannel channel;
+    private long records;
+    // 지금까지 덧붙인 byte 수(파일을 다시 써도 줄지 않는다)
+    private long appended;
+
+    // appended 기준 어디까지 force 됐는지와 force 중인 스레드가 있는지
+    private final Object forceLock = new Object();
+    private long forced;
+    private boolean forcing;
+
+    public DeletionJournal(final Path path, final boolean sync) {
+        Assert.notNull(path, "path must not be null");
+        this.path = path;
+        this.sync = sync;
+    }
+
+    /**
+     * 기록을 replay 해 남은 항목만으로 다시 쓰고 덧붙이기용으로 연다
+     *
+     * @return 완료되지 않은 id -> 등록 시각(epoch ms), 등록 순서
+     */
+    public synchronized Map<String, Long> open() {
+        Assert.state(channel == null, "journal is already open");
+        try {
+            final Map<String, Long> pending = replay();
+            final Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            rewrite(pending);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return pending;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open deletion journal " + path, e);
+        }
+    }
+
+    public void added(final String id, final long enqueuedAtMillis) {
+        final long end;
+        synchronized (this) {
+            append(ADDED + " " + enqueuedAtMillis + " " + id + "\n");
+            end = appended;
+        }
+        if (sync) {
+            awaitForced(end);
+        }
+    }
+
+    // 완료 줄은 잃어도 다시 지우면 되므로 force 를 기다리지 않는다
+    public synchronized void removed(final Collection<String> ids) {
+        final StringBuilder lines = new StringBuilder(ids.size() * 40);
+        for (String id : ids) {
+            lines.append(REMOVED).append(' ').append(id).append('\n');
+        }
+        append(lines.toString());
+    }
+
+    /**
+     * 지금까지 쓴 줄 수. 남은 항목 수보다 훨씬 많으면 compact 시점
+     */
+    public synchronized long records() {
+        return records;
+    }
+
+    public void compact(final Map<String, Long> pending) {
+        compact(() -> pending);
+    }
+
+    /**
+     * 남은 항목만으로 다시 쓴다. pending 은 기록을 막은 채 불러, 그 사이 덧붙는 줄이 빠지지 않게 한다
+     */
+    public synchronized void compact(final Supplier<Map<String, Long>> pending) {
+        Assert.state(channel != null, "journal is not open");
+        try {
+            channel.close();
+            rewrite(pending.get());
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact deletion journal " + path, e);
+        }
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close deletion journal " + path, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void append(final String lines) {
+        Assert.state(channel != null, "journal is not open");
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            appended += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            records += lines.chars().filter(it -> it == '\n').count();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append deletion journal " + path, e);
+        }
+    }
+
+    // end 까지 force 될 때까지 기다린다. force 중인 스레드가 없으면 직접 force 하고, 그때까지 덧붙은 줄을 모두 내린다
+    // 기록 잠금(this)은 잡지 않으므로 force 하는 동안에도 다른 스레드가 덧붙일 수 있다
+    private void awaitForced(final long end) {
+        boolean interrupted = false;
+        try {
+            synchronized (forceLock) {
+                while (forcing && forced < end) {
+                    try {
+                        forceLock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (forced >= end) {
+                    return;
+                }
+                forcing = true;
+            }
+            final FileChannel current;
+            final long target;
+            synchronized (this) {
+                current = channel;
+                target = appended;
+            }
+            boolean done = false;
+            try {
+                if (current != null) {
+                    current.force(false);
+                }
+                done = true;
+            } catch (ClosedChannelException e) {
+                // compact/close 가 채널을 닫았다. 둘 다 닫기 전에 파일 전체를 force 한다
+                done = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to force deletion journal " + path, e);
+            } finally {
+                synchronized (forceLock) {
+                    if (done) {
+                        forced = Math.max(forced, target);
+                    }
+                    forcing = false;
+                    forceLock.notifyAll();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Map<String, Long> replay() throws IOException {
+        final Map<String, Long> pending = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return pending;
+        }
+        final String[] lines = Files.readString(path, StandardCharsets.UTF_8).split("\n", -1);
+        // 마지막 원소는 줄바꿈 뒤의 빈 문자열이거나 기록 중 끊긴 줄
+        for (int i = 0; i < lines.length - 1; i++) {
+            final String[] fields = lines[i].split(" ");
+            if (fields.length == 3 && fields[0].length() == 1 && fields[0].charAt(0) == ADDED) {
+                final Long enqueuedAt = parseLong(fields[1]);
+                if (enqueuedAt != null) {
+                    pending.putIfAbsent(fields[2], enqueuedAt);
+                }
+            } else if (fields.length == 2 && fields[0].length() == 1 && fields[0].charAt(0) == REMOVED) {
+                pending.remove(fields[1]);
+            }
+        }
+        return pending;
+    }
+
+    private void rewrite(final Map<String, Long> pending) throws IOException {
+        final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final StringBuilder lines = new StringBuilder(pending.size() * 56);
+                pending.forEach((id, enqueuedAt) -> lines.append(ADDED).append(' ').append(enqueuedAt).append(' ').append(id).append('\n'));
+                final ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records = pending.size();
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Long parseLong(final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.poc.lab.batch.deputy.compensation;
+
+import com.poc.lab.batch.deputy.execution.Bulkhead;
+import com.poc.lab.batch.deputy.service.EdmsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 한쪽 문서만 성공한 레코드가 남긴 EDMS 이미지(고아)를 모아 일괄 삭제하는 보상 큐
+ * - 레코드 처리 스레드는 id 를 기록만 하고 바로 돌아간다
+ * - maxBatchSize 만큼 모이거나 flushInterval 마다 EDMS 일괄 삭제(/files/delete)로 보낸다
+ * - 보내기는 EDMS {@link Bulkhead} 를 거친다(업로드와 같은 한도/서킷). 실패하면 남겨 두고 다음 주기에 다시 보낸다
+ * - 대기 id 는 {@link DeletionJournal} 에 남아 중간에 죽어도 다음 실행이 이어서 지운다.
+ *   기록 파일 쓰기/force 는 pending 잠금 밖에서 하므로 force 를 기다리는 동안 다른 스레드의 등록/조회를 막지 않는다
+ * - 지표: deputy.edms.deletion.pending(대기 수), deputy.edms.deletion.oldest.age(가장 오래 기다린 id 의 대기 초),
+ *         deputy.edms.deletion.lag(등록부터 삭제 확인까지), deputy.edms.deletion.batches{result=success|failure},
+ *         deputy.edms.deletion.deleted(EDMS 가 실제로 지운 파일 수)
+ */
+public class EdmsDeletionQueue {
+
+    // 완료 줄이 남은 항목보다 이만큼 많아지면 기록 파일을 다시 쓴다
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final EdmsService edmsService;
+    private final Bulkhead bulkhead;
+    private final DeletionJournal journal;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("edms-deletion").daemon().factory());
+
+    // id -> 등록 시각(epoch ms), 등록 순서
+    private final Map<String, Long> pending = new LinkedHashMap<>();
+    private boolean flushRequested;
+
+    private Timer lag;
+    private Counter succeededBatches;
+    private Counter failedBatches;
+    private Counter deleted;
+
+    public EdmsDeletionQueue(final EdmsService edmsService, final Bulkhead bulkhead, final DeletionJournal journal,
+                             final int maxBatchSize, final Duration flushInterval) {
+        Assert.notNull(edmsService, "edmsService must not be null");
+        Assert.notNull(bulkhead, "bulkhead must not be null");
+        Assert.notNull(journal, "journal must not be null");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+        Assert.isTrue(flushInterval != null && flushInterval.toNanos() > 0, "flushInterval must be positive");
+        this.edmsService = edmsService;
+        this.bulkhead = bulkhead;
+        this.journal = journal;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+    }
+
+    /**
+     * 기록 파일에 남은 id 를 불러오고 주기 삭제를 시작
+     */
+    public void start() {
+        final Map<String, Long> recovered = journal.open();
+        synchronized (pending) {
+            pending.putAll(recovered);
+        }
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalNanos, flushIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 삭제 대상으로 등록. 기록 파일에 남긴 뒤 돌아간다
+     * 기록(force)은 pending 잠금 밖에서 한다. 그 사이 flush 가 먼저 지우면 완료 줄이 추가 줄보다 앞설 수 있는데,
+     * 그러면 다음 실행이 한 번 더 지울 뿐이다(일괄 삭제는 없는 id 를 건너뛴다)
+     */
+    public void enqueue(final String edmsId) {
+        Assert.hasText(edmsId, "edmsId must not be empty");
+        final long now = System.currentTimeMillis();
+        final boolean full;
+        synchronized (pending) {
+            if (pending.putIfAbsent(edmsId, now) != null) {
+                return;
+            }
+            full = pending.size() >= maxBatchSize && !flushRequested;
+            flushRequested |= full;
+        }
+        try {
+            journal.added(edmsId, now);
+        } catch (RuntimeException e) {
+            synchronized (pending) {
+                pending.remove(edmsId, now);
+            }
+            throw e;
+        }
+        if (full) {
+            scheduler.execute(this::flush);
+        }
+    }
+
+    public int pending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 가장 오래 기다린 id 의 대기 시간(초). 없으면 0
+     */
+    public double oldestAgeSeconds() {
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            return (System.currentTimeMillis() - pending.values().iterator().next()) / 1000.0;
+        }
+    }
+
+    // 대기 id 를 모두 보내 본다. 실패한 묶음이 있으면 나머지는 다음 주기로 미룬다
+    // scheduler 스레드에서만 실행(같은 id 를 동시에 두 번 보내지 않도록)
+    private void flush() {
+        synchronized (pending) {
+            flushRequested = false;
+        }
+        try {
+            List<String> batch;
+            while (!(batch = nextBatch()).isEmpty()) {
+                if (!send(batch)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // 기록 파일 오류 등으로 주기 작업이 멈추지 않도록 다음 주기에 다시 시도
+            if (failedBatches != null) {
+                failedBatches.increment();
+            }
+        }
+    }
+
+    /**
+     * 남은 id 를 한 번 더 보내고 멈춘다. 지우지 못한 id 는 기록 파일에 남아 다음 실행에서 지운다
+     */
+    public void shutdown() {
+        try {
+            scheduler.submit(this::flush).get(flushIntervalNanos * 10, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // 남은 id 는 다음 실행에서 지운다
+        } finally {
+            scheduler.shutdownNow();
+            journal.close();
+        }
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("deputy.edms.deletion.pending", this, EdmsDeletionQueue::pending)
+                .register(registry);
+        Gauge.builder("deputy.edms.deletion.oldest.age", this, EdmsDeletionQueue::oldestAgeSeconds)
+                .baseUnit("seconds")
+                .register(registry);
+        this.lag = Timer.builder("deputy.edms.deletion.lag")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.succeededBatches = Counter.builder("deputy.edms.deletion.batches").tag("result", "success").register(registry);
+        this.failedBatches = Counter.builder("deputy.edms.deletion.batches").tag("result", "failure").register(registry);
+        this.deleted = Counter.builder("deputy.edms.deletion.deleted").register(registry);
+    }
+
+    private List<String> nextBatch() {
+        synchronized (pending) {
+            final List<String> batch = new ArrayList<>(Math.min(maxBatchSize, pending.size()));
+            for (String id : pending.keySet()) {
+                if (batch.size() >= maxBatchSize) {
+                    break;
+                }
+                batch.add(id);
+            }
+            return batch;
+        }
+    }
+
+    private boolean send(final List<String> batch) {
+        final int count;
+        try {
+            count = bulkhead.call(() -> edmsService.deleteAll(batch));
+        } catch (RuntimeException e) {
+            // 서킷 거부, 타임아웃, 5xx 모두 다음 주기에 같은 묶음을 다시 보낸다
+            if (failedBatches != null) {
+                failedBatches.increment();
+            }
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        final int remaining;
+        synchronized (pending) {
+            for (String id : batch) {
+                final Long enqueuedAt = pending.remove(id);
+                if (enqueuedAt != null && lag != null) {
+                    lag.record(Math.max(0, now - enqueuedAt), TimeUnit.MILLISECONDS);
+                }
+            }
+            remaining = pending.size();
+        }
+        // 기록 파일은 pending 잠금 밖에서 쓴다. compact 는 기록을 막은 채 남은 항목을 복사해 다시 쓴다
+        journal.removed(batch);
+        if (journal.records() > COMPACT_THRESHOLD + 2L * remaining) {
+            journal.compact(() -> {
+                synchronized (pending) {
+                    return new LinkedHashMap<>(pending);
+                }
+            });
+        }
+        if (succeededBatches != null) {
+            succeededBatches.increment();
+            deleted.increment(count);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.poc.lab.batch.deputy.dto;
+
+/**
+ * BT 일괄 조회 응답의 한 건. index 는 요청 목록에서의 위치, 실패하면 pdf 대신 error
+ * - NDJSON: 한 줄에 Base64 pdf 가 들어 있고 읽으면서 바로 byte 로 디코딩된다
+ * - PDF 프레임: 헤더 줄에는 pdf 없이 length 만 있고, 뒤따르는 length byte 를 읽어 {@link #withPdf} 로 채운다
+ */
+public record DeputyDocumentResult(
+        int index,
+        String docId,
+        String docType,
+        String userId,
+        byte[] pdf,
+        int length,
+        String error
+) {
+    public DeputyDocumentResult withPdf(final byte[] pdf) {
+        return new DeputyDocumentResult(index, docId, docType, userId, pdf, length, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.poc.lab.batch.deputy.dto;
+
+import com.poc.lab.batch.deputy.encode.ImageEncoder;
+
+import java.awt.image.BufferedImage;
+
+public record EdmsUploadRequest(
+        BufferedImage image,
+        ImageEncoder encoder,
+        String userId,
+        String docId,
+        String docType
+) {
+}
@@ -1,9 +1,12 @@
 package com.poc.lab.batch.deputy.dto;
 
+/**
+ * pdf 는 JSON 의 Base64 문자열을 읽으면서 바로 byte 로 디코딩한다
+ */
 public record GetDeputyDocumentResponse(
         String docId,
         String docType,
         String userId,
-        String pdf
+        byte[] pdf
 ) {
 }
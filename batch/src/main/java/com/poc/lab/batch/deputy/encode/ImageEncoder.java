@@ -0,0 +1,28 @@
+package com.poc.lab.batch.deputy.encode;
+
+import org.apache.pdfbox.rendering.ImageType;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 렌더링 결과를 EDMS 업로드 형식으로 인코딩
+ * - imageType: 이 인코더에 맞는 렌더링 색 공간(흑백 인코더는 처음부터 GRAY/BINARY 로 렌더링해 변환 비용을 없앤다)
+ */
+public interface ImageEncoder {
+
+    /**
+     * 설정에서 쓰는 코덱 이름(예: png, png-gray, jpeg, tiff-g4)
+     */
+    String name();
+
+    ImageType imageType();
+
+    String contentType();
+
+    /**
+     * out 으로 바로 인코딩. out 은 닫지 않는다
+     */
+    void encode(BufferedImage image, OutputStream out) throws IOException;
+}
@@ -0,0 +1,70 @@
+package com.poc.lab.batch.deputy.encode;
+
+import org.apache.pdfbox.rendering.ImageType;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * docType 별 인코더 선택
+ * - 매핑 형식: "family:tiff-g4,basic:png-gray" (대소문자 무시), 없는 docType 은 기본 인코더
+ * 코덱: png, png-gray, png-bilevel, jpeg, jpeg-gray, tiff-g4
+ */
+public class ImageEncoders {
+
+    private final ImageEncoder defaultEncoder;
+    private final Map<String, ImageEncoder> byDocType;
+
+    public ImageEncoders(final ImageEncoder defaultEncoder, final Map<String, ImageEncoder> byDocType) {
+        Assert.notNull(defaultEncoder, "defaultEncoder must not be null");
+        Assert.notNull(byDocType, "byDocType must not be null");
+        this.defaultEncoder = defaultEncoder;
+        this.byDocType = Map.copyOf(byDocType);
+    }
+
+    /**
+     * 기존 동작(RGB, 기본 압축 PNG)
+     */
+    public static ImageEncoders png() {
+        return new ImageEncoders(new PngImageEncoder("png", ImageType.RGB, PngImageEncoder.DEFAULT_LEVEL), Map.of());
+    }
+
+    public static ImageEncoders of(final String defaultCodec, final String docTypeCodecs,
+                                   final int pngDeflateLevel, final float jpegQuality) {
+        final Map<String, ImageEncoder> encoders = new HashMap<>();
+        final Map<String, ImageEncoder> byDocType = new HashMap<>();
+        if (StringUtils.hasText(docTypeCodecs)) {
+            for (String mapping : StringUtils.commaDelimitedListToStringArray(docTypeCodecs)) {
+                final String[] pair = mapping.split(":", 2);
+                Assert.isTrue(pair.length == 2, () -> "docType codec mapping must be docType:codec: " + mapping);
+                final String codec = pair[1].trim().toLowerCase(Locale.ROOT);
+                byDocType.put(pair[0].trim().toLowerCase(Locale.ROOT),
+                        encoders.computeIfAbsent(codec, it -> encoder(it, pngDeflateLevel, jpegQuality)));
+            }
+        }
+        final String codec = defaultCodec.trim().toLowerCase(Locale.ROOT);
+        return new ImageEncoders(encoders.computeIfAbsent(codec, it -> encoder(it, pngDeflateLevel, jpegQuality)), byDocType);
+    }
+
+    public static ImageEncoder encoder(final String codec, final int pngDeflateLevel, final float jpegQuality) {
+        return switch (codec) {
+            case "png" -> new PngImageEncoder(codec, ImageType.RGB, pngDeflateLevel);
+            case "png-gray" -> new PngImageEncoder(codec, ImageType.GRAY, pngDeflateLevel);
+            case "png-bilevel" -> new PngImageEncoder(codec, ImageType.BINARY, pngDeflateLevel);
+            case "jpeg" -> new JpegImageEncoder(codec, ImageType.RGB, jpegQuality);
+            case "jpeg-gray" -> new JpegImageEncoder(codec, ImageType.GRAY, jpegQuality);
+            case "tiff-g4" -> new TiffG4ImageEncoder(codec);
+            default -> throw new IllegalArgumentException("Unknown image codec: " + codec);
+        };
+    }
+
+    public ImageEncoder forDocType(final String docType) {
+        if (docType == null) {
+            return defaultEncoder;
+        }
+        return byDocType.getOrDefault(docType.toLowerCase(Locale.ROOT), defaultEncoder);
+    }
+}
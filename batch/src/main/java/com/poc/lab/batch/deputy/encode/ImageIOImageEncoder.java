@@ -0,0 +1,73 @@
+package com.poc.lab.batch.deputy.encode;
+
+import com.poc.lab.batch.deputy.ImageByteUtils;
+import org.apache.pdfbox.rendering.ImageType;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * ImageIO ImageWriter 기반 인코더 공통 처리. 하위 클래스는 압축 파라미터만 정한다
+ */
+abstract class ImageIOImageEncoder implements ImageEncoder {
+
+    private final String name;
+    private final String formatName;
+    private final ImageType imageType;
+    private final String contentType;
+
+    ImageIOImageEncoder(final String name, final String formatName, final ImageType imageType, final String contentType) {
+        this.name = name;
+        this.formatName = formatName;
+        this.imageType = imageType;
+        this.contentType = contentType;
+        // 설정 오류를 첫 업로드가 아니라 기동 시점에 드러낸다
+        writer().dispose();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public ImageType imageType() {
+        return imageType;
+    }
+
+    @Override
+    public String contentType() {
+        return contentType;
+    }
+
+    @Override
+    public void encode(final BufferedImage image, final OutputStream out) throws IOException {
+        final ImageWriter writer = writer();
+        try (OutputStream buffered = ImageByteUtils.pooledBuffer(out);
+             ImageOutputStream stream = ImageIO.createImageOutputStream(buffered)) {
+            writer.setOutput(stream);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            configure(param);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    abstract void configure(ImageWriteParam param);
+
+    private ImageWriter writer() {
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+        if (!writers.hasNext()) {
+            throw new IllegalStateException("No ImageIO writer for " + formatName);
+        }
+        return writers.next();
+    }
+}
@@ -0,0 +1,27 @@
+package com.poc.lab.batch.deputy.encode;
+
+import org.apache.pdfbox.rendering.ImageType;
+import org.springframework.util.Assert;
+
+import javax.imageio.ImageWriteParam;
+
+/**
+ * 품질을 지정하는 JPEG 인코더. RGB 또는 GRAY 렌더링 결과만 지원
+ */
+public class JpegImageEncoder extends ImageIOImageEncoder {
+
+    private final float quality;
+
+    public JpegImageEncoder(final String name, final ImageType imageType, final float quality) {
+        super(name, "jpeg", imageType, "image/jpeg");
+        Assert.isTrue(imageType == ImageType.RGB || imageType == ImageType.GRAY, "JPEG supports RGB or GRAY only");
+        Assert.isTrue(quality > 0 && quality <= 1, "quality must be in (0, 1]");
+        this.quality = quality;
+    }
+
+    @Override
+    void configure(final ImageWriteParam param) {
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+    }
+}
@@ -0,0 +1,37 @@
+package com.poc.lab.batch.deputy.encode;
+
+import org.apache.pdfbox.rendering.ImageType;
+import org.springframework.util.Assert;
+
+import javax.imageio.ImageWriteParam;
+
+/**
+ * deflate 레벨을 지정하는 PNG 인코더. RGB(24bit), GRAY(8bit), BINARY(1bit) 렌더링 결과를 그대로 기록
+ * - 행 필터는 JDK PNG writer 가 행마다 적응형으로 고른다(외부에서 지정 불가)
+ */
+public class PngImageEncoder extends ImageIOImageEncoder {
+
+    public static final int DEFAULT_LEVEL = -1;
+
+    private final int deflateLevel;
+
+    /**
+     * @param deflateLevel 0(무압축, 가장 빠름) ~ 9(최대 압축). {@link #DEFAULT_LEVEL} 이면 writer 기본값
+     */
+    public PngImageEncoder(final String name, final ImageType imageType, final int deflateLevel) {
+        super(name, "png", imageType, "image/png");
+        Assert.isTrue(deflateLevel == DEFAULT_LEVEL || (deflateLevel >= 0 && deflateLevel <= 9),
+                "deflateLevel must be between 0 and 9");
+        this.deflateLevel = deflateLevel;
+    }
+
+    @Override
+    void configure(final ImageWriteParam param) {
+        if (deflateLevel == DEFAULT_LEVEL) {
+            return;
+        }
+        // JDK PNG writer 는 level = (int) (9 * (1 - quality)) 로 환산한다. 부동소수 오차로 한 단계 내려가지 않도록 살짝 올려 준다
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(Math.max(0f, 1f - (deflateLevel + 0.01f) / 9f));
+    }
+}
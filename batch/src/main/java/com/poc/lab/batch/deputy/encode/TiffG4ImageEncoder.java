@@ -0,0 +1,23 @@
+package com.poc.lab.batch.deputy.encode;
+
+import org.apache.pdfbox.rendering.ImageType;
+
+import javax.imageio.ImageWriteParam;
+
+/**
+ * CCITT T.6(G4) 압축 TIFF 인코더. 흑백 문서 전용으로 1bit(BINARY) 렌더링 결과를 기록
+ */
+public class TiffG4ImageEncoder extends ImageIOImageEncoder {
+
+    private static final String CCITT_T6 = "CCITT T.6";
+
+    public TiffG4ImageEncoder(final String name) {
+        super(name, "tiff", ImageType.BINARY, "image/tiff");
+    }
+
+    @Override
+    void configure(final ImageWriteParam param) {
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType(CCITT_T6);
+    }
+}
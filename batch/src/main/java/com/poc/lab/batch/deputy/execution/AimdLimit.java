@@ -0,0 +1,66 @@
+package com.poc.lab.batch.deputy.execution;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * AIMD(additive increase, multiplicative decrease) 동시 호출 한도
+ * - 한도의 절반 이상을 쓰고 있을 때 응답이 latencyThreshold 안에 오면 1/limit 씩 증가(대략 RTT 마다 +1)
+ * - 응답이 느리거나 과부하 신호(타임아웃, 429/503)면 backoffRatio 배로 감소
+ * - 감소 직전에 시작된 호출의 신호는 무시해 한 번의 과부하로 여러 번 줄이지 않는다
+ */
+public class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    public AimdLimit(final int initialLimit, final int minLimit, final int maxLimit,
+                     final Duration latencyThreshold, final double backoffRatio) {
+        Assert.isTrue(minLimit > 0, "minLimit must be positive");
+        Assert.isTrue(maxLimit >= minLimit, "maxLimit must not be less than minLimit");
+        Assert.isTrue(initialLimit >= minLimit && initialLimit <= maxLimit, "initialLimit must be within [minLimit, maxLimit]");
+        Assert.isTrue(latencyThreshold != null && latencyThreshold.isPositive(), "latencyThreshold must be positive");
+        Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "backoffRatio must be in (0, 1)");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * 조정하지 않는 고정 한도
+     */
+    public static AimdLimit fixed(final int limit) {
+        return new AimdLimit(limit, limit, limit, Duration.ofNanos(Long.MAX_VALUE), 0.5);
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * @param startNanos 호출 시작 시각(System.nanoTime)
+     * @param inFlight   호출 시작 시점의 동시 호출 수(자신 포함)
+     * @param overloaded 과부하 신호로 실패했는지
+     */
+    public synchronized void onSample(final long startNanos, final int inFlight, final boolean overloaded) {
+        final long now = System.nanoTime();
+        if (overloaded || now - startNanos > latencyThresholdNanos) {
+            if (startNanos - lastDecreaseNanos >= 0) {
+                limit = Math.max(minLimit, Math.floor(limit * backoffRatio));
+                lastDecreaseNanos = now;
+            }
+            return;
+        }
+        if (inFlight * 2 >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.poc.lab.batch.deputy.execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.Assert;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 하위 시스템(BT, EDMS)별 동시 호출 수 제한
+ * - 호출은 executor(가상 스레드 권장) 위에서 실행되고, 한도를 넘으면 대기
+ * - 가상 스레드는 대기 비용이 작아 큐 거부 없이 한도만큼만 하위 시스템으로 나간다
+ * - 한도는 {@link AimdLimit} 이 응답 시간과 과부하 신호로 조정(기본은 고정)
+ * - {@link CircuitBreaker} 가 OPEN 이거나 maxWait 안에 자리가 나지 않으면 {@link DownstreamRejectedException}
+ * - 4xx(429 제외)는 하위 시스템 장애로 보지 않는다
+ */
+public class Bulkhead {
+
+    public static final String REJECTED_CIRCUIT_OPEN = "circuit_open";
+    public static final String REJECTED_WAIT_TIMEOUT = "wait_timeout";
+
+    private final String name;
+    private final Executor executor;
+    private final AimdLimit limit;
+    private final CircuitBreaker circuitBreaker;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+    private int inFlight;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private Counter circuitOpenRejections;
+    private Counter waitTimeoutRejections;
+
+    public Bulkhead(final String name, final Executor executor, final int maxConcurrency) {
+        this(name, executor, AimdLimit.fixed(maxConcurrency), CircuitBreaker.disabled(), null);
+    }
+
+    /**
+     * @param maxWait 한도 대기 시간 상한. null 이면 제한 없이 대기
+     */
+    public Bulkhead(final String name, final Executor executor, final AimdLimit limit,
+                    final CircuitBreaker circuitBreaker, final Duration maxWait) {
+        Assert.hasText(name, "name must not be empty");
+        Assert.notNull(executor, "executor must not be null");
+        Assert.notNull(limit, "limit must not be null");
+        Assert.notNull(circuitBreaker, "circuitBreaker must not be null");
+        Assert.isTrue(maxWait == null || !maxWait.isNegative(), "maxWait must not be negative");
+        this.name = name;
+        this.executor = executor;
+        this.limit = limit;
+        this.circuitBreaker = circuitBreaker;
+        this.maxWaitNanos = maxWait == null ? -1 : maxWait.toNanos();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(final Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> call(supplier), executor);
+    }
+
+    /**
+     * 호출 스레드에서 한도 안에서 실행
+     */
+    public <T> T call(final Supplier<T> supplier) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw reject(REJECTED_CIRCUIT_OPEN);
+        }
+        final int inFlightAtStart;
+        try {
+            inFlightAtStart = acquire();
+        } catch (RuntimeException e) {
+            circuitBreaker.onCancelled();
+            throw e;
+        }
+        final long startNanos = System.nanoTime();
+        try {
+            final T result = supplier.get();
+            limit.onSample(startNanos, inFlightAtStart, false);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            limit.onSample(startNanos, inFlightAtStart, isOverload(e));
+            if (isFailure(e)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } finally {
+            release();
+        }
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int active() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    public double failureRate() {
+        return circuitBreaker.failureRate();
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("deputy.bulkhead.active", this, Bulkhead::active)
+                .tag("downstream", name)
+                .register(registry);
+        Gauge.builder("deputy.bulkhead.waiting", this, Bulkhead::waiting)
+                .tag("downstream", name)
+                .register(registry);
+        Gauge.builder("deputy.bulkhead.limit", this, Bulkhead::limit)
+                .tag("downstream", name)
+                .register(registry);
+        Gauge.builder("deputy.circuit.state", this, it -> it.circuitState().ordinal())
+                .description("0: closed, 1: open, 2: half-open")
+                .tag("downstream", name)
+                .register(registry);
+        Gauge.builder("deputy.circuit.failure.rate", this, Bulkhead::failureRate)
+                .tag("downstream", name)
+                .register(registry);
+        this.circuitOpenRejections = Counter.builder("deputy.bulkhead.rejected")
+                .tag("downstream", name)
+                .tag("reason", REJECTED_CIRCUIT_OPEN)
+                .register(registry);
+        this.waitTimeoutRejections = Counter.builder("deputy.bulkhead.rejected")
+                .tag("downstream", name)
+                .tag("reason", REJECTED_WAIT_TIMEOUT)
+                .register(registry);
+    }
+
+    // 자리가 날 때까지(최대 maxWait) 기다린 뒤 자신을 포함한 동시 호출 수 반환
+    private int acquire() {
+        waiting.incrementAndGet();
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (inFlight >= limit.limit()) {
+                if (maxWaitNanos < 0) {
+                    available.await();
+                } else if (remaining <= 0) {
+                    throw reject(REJECTED_WAIT_TIMEOUT);
+                } else {
+                    remaining = available.awaitNanos(remaining);
+                }
+            }
+            return ++inFlight;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            // 한도가 늘었을 수 있으므로 빈 자리만큼 깨운다
+            for (int free = limit.limit() - inFlight; free > 0 && lock.hasWaiters(available); free--) {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DownstreamRejectedException reject(final String reason) {
+        rejected.increment();
+        final Counter counter = REJECTED_CIRCUIT_OPEN.equals(reason) ? circuitOpenRejections : waitTimeoutRejections;
+        if (counter != null) {
+            counter.increment();
+        }
+        return new DownstreamRejectedException(name, reason);
+    }
+
+    // 타임아웃/연결 실패, 429, 503 은 한도를 줄이는 과부하 신호
+    private static boolean isOverload(final RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpClientErrorException.TooManyRequests
+                || e instanceof HttpServerErrorException.ServiceUnavailable;
+    }
+
+    // 요청 자체가 잘못된 4xx(429 제외)는 하위 시스템 장애로 세지 않는다
+    private static boolean isFailure(final RuntimeException e) {
+        return !(e instanceof HttpClientErrorException) || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+}
@@ -0,0 +1,156 @@
+package com.poc.lab.batch.deputy.execution;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 호출 수 기반 서킷 브레이커
+ * - CLOSED: 최근 windowSize 건 중 실패율이 failureRateThreshold 이상이면(최소 minimumCalls 건) OPEN
+ * - OPEN: openDuration 동안 호출을 바로 거부, 지나면 HALF_OPEN
+ * - HALF_OPEN: halfOpenCalls 건만 통과시켜 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    // 최근 결과 ring buffer(true: 실패)
+    private final boolean[] outcomes;
+    private int recorded;
+    private int failures;
+    private int next;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(final double failureRateThreshold, final int windowSize, final int minimumCalls,
+                          final Duration openDuration, final int halfOpenCalls) {
+        this(true, failureRateThreshold, windowSize, minimumCalls, openDuration, halfOpenCalls);
+    }
+
+    private CircuitBreaker(final boolean enabled, final double failureRateThreshold, final int windowSize,
+                           final int minimumCalls, final Duration openDuration, final int halfOpenCalls) {
+        Assert.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 1, "failureRateThreshold must be in (0, 1]");
+        Assert.isTrue(windowSize > 0, "windowSize must be positive");
+        Assert.isTrue(minimumCalls > 0 && minimumCalls <= windowSize, "minimumCalls must be within [1, windowSize]");
+        Assert.isTrue(openDuration != null && openDuration.isPositive(), "openDuration must be positive");
+        Assert.isTrue(halfOpenCalls > 0, "halfOpenCalls must be positive");
+        this.enabled = enabled;
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = minimumCalls;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * 항상 통과
+     */
+    public static CircuitBreaker disabled() {
+        return new CircuitBreaker(false, 1, 1, 1, Duration.ofSeconds(1), 1);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                state = State.CLOSED;
+                reset();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * tryAcquire 로 통과했지만 호출하지 않음(한도 대기 시간 초과 등). HALF_OPEN 시험 호출 자리를 돌려준다
+     */
+    public synchronized void onCancelled() {
+        if (enabled && state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized State state() {
+        // OPEN 유지 시간이 지났으면 다음 호출에서 HALF_OPEN 으로 바뀐다
+        return state;
+    }
+
+    public synchronized double failureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    private void record(final boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        reset();
+    }
+
+    private void reset() {
+        recorded = 0;
+        failures = 0;
+        next = 0;
+    }
+}
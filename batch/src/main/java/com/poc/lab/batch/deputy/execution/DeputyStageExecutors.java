@@ -0,0 +1,108 @@
+package com.poc.lab.batch.deputy.execution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PdfConvertToImageProcessor 단계별 실행기
+ * - platform: 기존과 같이 모든 단계를 하나의 플랫폼 스레드 풀에서 실행
+ * - virtual: 네트워크 단계(BT 조회, EDMS 업로드/삭제)는 가상 스레드 + 하위 시스템별 동시성 한도(고정 또는 AIMD)와 서킷 브레이커,
+ *            CPU 단계(렌더링)는 코어 수 크기의 별도 풀
+ */
+public class DeputyStageExecutors {
+
+    public static final String PLATFORM = "platform";
+    public static final String VIRTUAL = "virtual";
+
+    private final Bulkhead bt;
+    private final Bulkhead edms;
+    private final ExecutorService render;
+    private final ExecutorService io;
+
+    private DeputyStageExecutors(final Bulkhead bt, final Bulkhead edms, final ExecutorService render, final ExecutorService io) {
+        this.bt = bt;
+        this.edms = edms;
+        this.render = render;
+        this.io = io;
+    }
+
+    public static DeputyStageExecutors platform(final MeterRegistry registry) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("batch-io-");
+        executor.initialize();
+        final ExecutorService io = ExecutorServiceMetrics.monitor(registry, executor.getThreadPoolExecutor(), "deputy.io");
+        return new DeputyStageExecutors(
+                bound(new Bulkhead("bt", io, Integer.MAX_VALUE), registry),
+                bound(new Bulkhead("edms", io, Integer.MAX_VALUE), registry),
+                io,
+                io);
+    }
+
+    public static DeputyStageExecutors virtual(final MeterRegistry registry,
+                                               final int btMaxConcurrency,
+                                               final int edmsMaxConcurrency,
+                                               final int renderThreads) {
+        return virtual(registry,
+                AimdLimit.fixed(btMaxConcurrency), CircuitBreaker.disabled(),
+                AimdLimit.fixed(edmsMaxConcurrency), CircuitBreaker.disabled(),
+                null, renderThreads);
+    }
+
+    /**
+     * 하위 시스템별 적응형 한도와 서킷 브레이커 지정
+     *
+     * @param maxWait 한도 대기 시간 상한. null 이면 제한 없이 대기
+     */
+    public static DeputyStageExecutors virtual(final MeterRegistry registry,
+                                               final AimdLimit btLimit,
+                                               final CircuitBreaker btCircuitBreaker,
+                                               final AimdLimit edmsLimit,
+                                               final CircuitBreaker edmsCircuitBreaker,
+                                               final Duration maxWait,
+                                               final int renderThreads) {
+        final int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        final ExecutorService io = ExecutorServiceMetrics.monitor(registry,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("batch-io-", 0).factory()), "deputy.io");
+        final ExecutorService render = ExecutorServiceMetrics.monitor(registry,
+                Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("batch-render-")), "deputy.render");
+        return new DeputyStageExecutors(
+                bound(new Bulkhead("bt", io, btLimit, btCircuitBreaker, maxWait), registry),
+                bound(new Bulkhead("edms", io, edmsLimit, edmsCircuitBreaker, maxWait), registry),
+                render,
+                io);
+    }
+
+    private static Bulkhead bound(final Bulkhead bulkhead, final MeterRegistry registry) {
+        bulkhead.bindTo(registry);
+        return bulkhead;
+    }
+
+    public Bulkhead bt() {
+        return bt;
+    }
+
+    public Bulkhead edms() {
+        return edms;
+    }
+
+    public ExecutorService render() {
+        return render;
+    }
+
+    public void shutdown() throws InterruptedException {
+        render.shutdown();
+        io.shutdown();
+        render.awaitTermination(30, TimeUnit.SECONDS);
+        io.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
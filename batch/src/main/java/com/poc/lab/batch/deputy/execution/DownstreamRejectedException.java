@@ -0,0 +1,24 @@
+package com.poc.lab.batch.deputy.execution;
+
+/**
+ * 하위 시스템 호출 전에 거부됨(서킷 OPEN 또는 한도 대기 시간 초과). 하위 시스템으로는 나가지 않았다
+ */
+public class DownstreamRejectedException extends RuntimeException {
+
+    private final String downstream;
+    private final String reason;
+
+    public DownstreamRejectedException(final String downstream, final String reason) {
+        super(downstream + " call rejected: " + reason);
+        this.downstream = downstream;
+        this.reason = reason;
+    }
+
+    public String downstream() {
+        return downstream;
+    }
+
+    public String reason() {
+        return reason;
+    }
+}
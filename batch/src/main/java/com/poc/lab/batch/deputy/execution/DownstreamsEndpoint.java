@@ -0,0 +1,46 @@
+package com.poc.lab.batch.deputy.execution;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/downstreams: 하위 시스템별 현재 한도, 동시 호출/대기 수, 거부 수, 서킷 상태
+ */
+@Endpoint(id = "downstreams")
+public class DownstreamsEndpoint {
+
+    private final List<Bulkhead> bulkheads;
+
+    public DownstreamsEndpoint(final List<Bulkhead> bulkheads) {
+        this.bulkheads = List.copyOf(bulkheads);
+    }
+
+    @ReadOperation
+    public Map<String, Downstream> downstreams() {
+        final Map<String, Downstream> downstreams = new LinkedHashMap<>();
+        for (Bulkhead bulkhead : bulkheads) {
+            downstreams.put(bulkhead.name(), new Downstream(
+                    bulkhead.limit(),
+                    bulkhead.active(),
+                    bulkhead.waiting(),
+                    bulkhead.rejected(),
+                    bulkhead.circuitState().name(),
+                    bulkhead.failureRate()));
+        }
+        return downstreams;
+    }
+
+    public record Downstream(
+            int limit,
+            int active,
+            int waiting,
+            long rejected,
+            String circuitState,
+            double failureRate
+    ) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.poc.lab.batch.deputy.fault;
+
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import com.poc.lab.batch.deputy.execution.DownstreamRejectedException;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * 레코드 변환 실패(skip 대상). 실패한 입력 레코드를 함께 들고 있어 실패 파일에 그대로 남길 수 있다
+ * - 일시적 실패(하위 시스템 거부/타임아웃/연결 실패, 5xx, 429)는 {@link TransientDocumentException} 으로 재시도 대상
+ * - 나머지(문서 없음, 4xx, 렌더링/인코딩 오류 등)는 재시도하지 않는다
+ */
+public class DocumentConversionException extends RuntimeException {
+
+    private final transient AccountingSystemDocument item;
+
+    public DocumentConversionException(final AccountingSystemDocument item, final Throwable cause) {
+        super("Failed to convert documents of user " + item.userId() + " (" + item.docId1() + ", " + item.docId2() + ")", cause);
+        this.item = item;
+    }
+
+    public static DocumentConversionException of(final AccountingSystemDocument item, final Throwable failure) {
+        final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof DocumentConversionException conversion) {
+            return conversion;
+        }
+        return isTransient(cause) ? new TransientDocumentException(item, cause) : new DocumentConversionException(item, cause);
+    }
+
+    public AccountingSystemDocument item() {
+        return item;
+    }
+
+    private static boolean isTransient(final Throwable cause) {
+        return cause instanceof DownstreamRejectedException
+                || cause instanceof ResourceAccessException
+                || cause instanceof HttpServerErrorException
+                || cause instanceof HttpClientErrorException.TooManyRequests;
+    }
+}
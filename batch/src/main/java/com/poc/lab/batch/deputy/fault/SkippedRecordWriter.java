@@ -0,0 +1,72 @@
+package com.poc.lab.batch.deputy.fault;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import com.poc.lab.batch.deputy.writer.ChannelLineDelimitedJsonItemWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.WritableResource;
+
+/**
+ * skip 된 입력 레코드를 입력과 같은 형식({..}, {..})의 실패 파일로 기록
+ * - CommaSeparatedObjectStreamItemReader 로 그대로 다시 읽어 실패한 레코드만 재처리할 수 있다
+ * - 스텝의 stream 으로 등록해야 커밋 위치 저장/롤백 시 되돌리기가 본 출력과 같이 동작한다
+ * - 처리 단계 skip 만 기록(쓰기 단계 skip 은 이미 변환된 출력 레코드라 입력으로 되돌리지 않는다)
+ * - 건수는 deputy.batch.skipped{reason=transient|permanent} 로 기록
+ */
+public class SkippedRecordWriter implements SkipListener<AccountingSystemDocument, Object>, ItemStream {
+
+    private final ChannelLineDelimitedJsonItemWriter<AccountingSystemDocument> delegate;
+    private final Counter transientSkips;
+    private final Counter permanentSkips;
+
+    public SkippedRecordWriter(final WritableResource resource, final ObjectMapper mapper, final MeterRegistry registry) {
+        this.delegate = new ChannelLineDelimitedJsonItemWriter<>(resource, mapper, AccountingSystemDocument.class);
+        this.delegate.setName("skippedRecordWriter");
+        this.transientSkips = Counter.builder("deputy.batch.skipped").tag("reason", "transient").register(registry);
+        this.permanentSkips = Counter.builder("deputy.batch.skipped").tag("reason", "permanent").register(registry);
+    }
+
+    @Override
+    public void onSkipInProcess(final AccountingSystemDocument item, final Throwable t) {
+        if (t instanceof TransientDocumentException) {
+            transientSkips.increment();
+        } else {
+            permanentSkips.increment();
+        }
+        try {
+            delegate.write(Chunk.of(item));
+        } catch (Exception e) {
+            throw new ItemStreamException("Failed to write skipped record of user " + item.userId(), e);
+        }
+    }
+
+    /**
+     * 파이프라인 writer 의 skip 처리용. 예외가 들고 있는 입력 레코드를 기록
+     */
+    public void onSkip(final Throwable t) {
+        if (t instanceof DocumentConversionException conversion) {
+            onSkipInProcess(conversion.item(), conversion);
+        }
+    }
+
+    @Override
+    public void open(final ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public void update(final ExecutionContext executionContext) throws ItemStreamException {
+        delegate.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        delegate.close();
+    }
+}
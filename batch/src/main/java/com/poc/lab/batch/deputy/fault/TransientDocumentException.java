@@ -0,0 +1,13 @@
+package com.poc.lab.batch.deputy.fault;
+
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+
+/**
+ * 다시 시도하면 성공할 수 있는 변환 실패(재시도 후에도 실패하면 skip)
+ */
+public class TransientDocumentException extends DocumentConversionException {
+
+    public TransientDocumentException(final AccountingSystemDocument item, final Throwable cause) {
+        super(item, cause);
+    }
+}
@@ -0,0 +1,95 @@
+package com.poc.lab.batch.deputy.partition;
+
+import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectScanner;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 쉼표 구분 객체 파일을 최상위 '}' 경계에 맞춘 byte 구간으로 분할
+ * - 파티션 i 는 [startOffset, endOffset) 구간을 읽는다
+ * - 같은 입력이면 항상 같은 구간/이름을 만들어 재시작 시 실패한 파티션만 다시 실행된다
+ */
+public class CommaSeparatedObjectRangePartitioner implements Partitioner {
+
+    public static final String PARTITION_INDEX = "partitionIndex";
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+
+    private static final String PARTITION_PREFIX = "partition";
+    private static final int READ_CHUNK = 64 * 1024;
+
+    private final Resource resource;
+
+    public CommaSeparatedObjectRangePartitioner(final Resource resource) {
+        Assert.notNull(resource, "resource must not be null");
+        this.resource = resource;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(final int gridSize) {
+        Assert.isTrue(gridSize > 0, "gridSize must be positive");
+        final List<Long> cuts;
+        try {
+            cuts = cuts(gridSize);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to partition " + resource, e);
+        }
+        final Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0; i + 1 < cuts.size(); i++) {
+            final ExecutionContext context = new ExecutionContext();
+            context.putInt(PARTITION_INDEX, i);
+            context.putLong(START_OFFSET, cuts.get(i));
+            context.putLong(END_OFFSET, cuts.get(i + 1));
+            partitions.put(PARTITION_PREFIX + i, context);
+        }
+        return partitions;
+    }
+
+    // 목표 분할 지점(size * i / gridSize)을 처음 넘는 객체 끝에서 자른다
+    private List<Long> cuts(final int gridSize) throws IOException {
+        final List<Long> cuts = new ArrayList<>(gridSize + 1);
+        cuts.add(0L);
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final CommaSeparatedObjectScanner scanner = new CommaSeparatedObjectScanner();
+            final ByteBuffer buf = ByteBuffer.allocate(READ_CHUNK);
+            int next = 1;
+            long position = 0;
+            while (next < gridSize && channel.read(buf) != -1) {
+                buf.flip();
+                while (buf.hasRemaining() && next < gridSize) {
+                    final byte b = buf.get();
+                    position++;
+                    if (scanner.accept(b) && position >= target(size, gridSize, next)) {
+                        cuts.add(position);
+                        // 객체 하나가 여러 목표 지점을 넘었으면 그만큼 파티션 수가 줄어든다
+                        while (next < gridSize && position >= target(size, gridSize, next)) {
+                            next++;
+                        }
+                    }
+                }
+                buf.clear();
+            }
+            if (cuts.get(cuts.size() - 1) < size) {
+                cuts.add(size);
+            }
+        }
+        return cuts;
+    }
+
+    private static long target(final long size, final int gridSize, final int index) {
+        return size * index / gridSize;
+    }
+}
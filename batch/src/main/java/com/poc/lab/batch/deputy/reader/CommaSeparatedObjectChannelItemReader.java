@@ -0,0 +1,301 @@
+package com.poc.lab.batch.deputy.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.poc.lab.batch.deputy.reader.CommaSeparatedObjectScanner.isSeparator;
+import static com.poc.lab.batch.deputy.reader.CommaSeparatedObjectScanner.isWhitespace;
+
+/**
+ * {@link CommaSeparatedObjectStreamItemReader} 의 byte 단위 버전 (UTF-8 파일 전용)
+ * - FileChannel 로 재사용 버퍼에 읽고, 문자 디코딩 없이 byte 에서 객체 경계를 찾는다
+ * - 찾은 구간을 그대로 {@link ObjectReader#readValue(byte[], int, int)} 에 넘겨 레코드당 String 을 만들지 않음
+ * - 버퍼보다 큰 객체를 만나면 버퍼를 늘린다
+ * - 커밋 시점의 byte offset 과 파일 앞부분 체크섬을 ExecutionContext 에 저장해 재시작 시 바로 seek
+ * - 저장된 offset 이 없으면 sidecar 희소 인덱스(입력파일.idx)가 있을 때 가장 가까운 지점부터 스캔
+ */
+public class CommaSeparatedObjectChannelItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final String OFFSET_KEY = "read.offset";
+    private static final String HEAD_CHECKSUM_KEY = "head.checksum";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final Resource resource;
+    private final ObjectReader reader;
+    private final int initialBufferSize;
+
+    private final CommaSeparatedObjectScanner scanner = new CommaSeparatedObjectScanner();
+
+    // 파티션 처리 시 읽을 byte 구간 [startOffset, endOffset)
+    private long startOffset = 0;
+    private long endOffset = -1;
+
+    // 희소 인덱스 간격(건), 0 이면 sidecar 를 만들지 않음
+    private int indexInterval = 0;
+
+    private FileChannel channel;
+    private long readLimit;
+    private long headChecksum;
+
+    // 재시작 상태
+    private long restartOffset = -1;
+    private long restartHeadChecksum;
+    private CommaSeparatedObjectIndex index;
+
+    // 버퍼 관련: buf[pos, limit) 가 아직 소비하지 않은 데이터, bufferOffset 은 buf[0] 의 파일 위치
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private long bufferOffset;
+    private boolean eof = false;
+
+    public CommaSeparatedObjectChannelItemReader(Resource resource,
+                                                 ObjectMapper objectMapper,
+                                                 Class<T> type) {
+        this(resource, objectMapper, type, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CommaSeparatedObjectChannelItemReader(Resource resource,
+                                                 ObjectMapper objectMapper,
+                                                 Class<T> type,
+                                                 int bufferSize) {
+        setName("commaSeparatedObjectChannelItemReader");
+        Assert.notNull(resource, "resource must not be null");
+        Assert.notNull(objectMapper, "objectMapper must not be null");
+        Assert.notNull(type, "type must not be null");
+        Assert.isTrue(bufferSize > 0, "bufferSize must be positive");
+        this.resource = resource;
+        this.reader = objectMapper.readerFor(type);
+        this.initialBufferSize = bufferSize;
+    }
+
+    /**
+     * 읽기 시작 byte 위치. 최상위 객체 경계(또는 파일 시작)여야 한다.
+     */
+    public void setStartOffset(final long startOffset) {
+        Assert.isTrue(startOffset >= 0, "startOffset must not be negative");
+        this.startOffset = startOffset;
+    }
+
+    /**
+     * 읽기 종료 byte 위치(미포함). 음수면 파일 끝까지 읽는다.
+     */
+    public void setEndOffset(final long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    /**
+     * 처음부터 파일 전체를 읽을 때 interval 건마다 offset 을 sidecar 인덱스에 기록한다.
+     */
+    public void setIndexInterval(final int indexInterval) {
+        Assert.isTrue(indexInterval >= 0, "indexInterval must not be negative");
+        this.indexInterval = indexInterval;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        this.restartOffset = -1;
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(OFFSET_KEY))) {
+            this.restartOffset = executionContext.getLong(getExecutionContextKey(OFFSET_KEY));
+            this.restartHeadChecksum = executionContext.getLong(getExecutionContextKey(HEAD_CHECKSUM_KEY));
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState() && this.channel != null) {
+            executionContext.putLong(getExecutionContextKey(OFFSET_KEY), position());
+            executionContext.putLong(getExecutionContextKey(HEAD_CHECKSUM_KEY), headChecksum);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        try {
+            this.channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            final long size = channel.size();
+            this.readLimit = endOffset < 0 ? size : Math.min(endOffset, size);
+            Assert.isTrue(readLimit >= startOffset, "endOffset must not be less than startOffset");
+            this.headChecksum = CommaSeparatedObjectIndex.headChecksum(channel);
+            if (restartOffset >= 0 && restartHeadChecksum != headChecksum) {
+                throw new ItemStreamException("Input changed since last execution: " + resource);
+            }
+            this.buf = new byte[initialBufferSize];
+            seek(startOffset);
+            // 처음부터 전체를 읽는 경우에만 인덱스를 새로 만든다
+            this.index = indexInterval > 0 && restartOffset < 0 && isWholeFile()
+                    ? new CommaSeparatedObjectIndex(indexInterval, headChecksum)
+                    : null;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open channel: " + resource, e);
+        }
+    }
+
+    @Nullable
+    @Override
+    protected T doRead() throws Exception {
+        if (this.channel == null) return null;
+        if (index != null) {
+            // read() 가 카운트를 먼저 올리므로 지금 읽을 레코드 번호는 count - 1
+            index.add(getCurrentItemCount() - 1, position());
+        }
+        final int start = nextCompleteObject();
+        if (start < 0) {
+            return null;
+        }
+        return this.reader.readValue(buf, start, pos - start);
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        try {
+            if (this.index != null) this.index.write(indexPath());
+            if (this.channel != null) this.channel.close();
+        } finally {
+            this.channel = null;
+            this.buf = null;
+            this.index = null;
+        }
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        // 재시작이면 인덱스를 다시 만들지 않는다(기존 sidecar 보존)
+        this.index = null;
+        if (restartOffset >= 0) {
+            seek(restartOffset);
+            return;
+        }
+        int skip = itemIndex;
+        final CommaSeparatedObjectIndex sidecar = isWholeFile() ? readIndex() : null;
+        if (sidecar != null && sidecar.floorOffset(itemIndex) >= 0) {
+            seek(sidecar.floorOffset(itemIndex));
+            skip -= sidecar.floorRecord(itemIndex);
+        }
+        // 바인딩 없이 경계만 스캔
+        for (int i = 0; i < skip; i++) {
+            if (nextCompleteObject() < 0) break;
+        }
+    }
+
+    @Nullable
+    private CommaSeparatedObjectIndex readIndex() throws IOException {
+        final Path path = indexPath();
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        final CommaSeparatedObjectIndex sidecar = CommaSeparatedObjectIndex.read(path);
+        return sidecar.headChecksum() == headChecksum ? sidecar : null;
+    }
+
+    private Path indexPath() throws IOException {
+        final Path input = resource.getFile().toPath();
+        return input.resolveSibling(input.getFileName() + INDEX_SUFFIX);
+    }
+
+    private boolean isWholeFile() {
+        return startOffset == 0 && endOffset < 0;
+    }
+
+    /**
+     * 다음에 읽을 위치의 파일 byte offset
+     */
+    protected long position() {
+        return bufferOffset + pos;
+    }
+
+    /**
+     * 지정 byte offset 으로 이동. 최상위 객체 경계여야 한다.
+     */
+    protected void seek(final long offset) throws IOException {
+        channel.position(offset);
+        this.bufferOffset = offset;
+        this.pos = 0;
+        this.limit = 0;
+        this.eof = false;
+        this.scanner.reset();
+    }
+
+    /**
+     * 다음 객체를 buf[start, pos) 로 만든다.
+     *
+     * @return 객체 시작 인덱스, 더 이상 객체가 없으면 -1
+     */
+    private int nextCompleteObject() throws IOException {
+        // 객체 시작 전 구분자 skip
+        while (true) {
+            while (pos < limit && isSeparator(buf[pos])) {
+                pos++;
+            }
+            if (pos < limit) break;
+            if (!fill(pos)) return -1;
+        }
+
+        int start = pos;
+        while (true) {
+            while (pos < limit) {
+                if (scanner.accept(buf[pos++])) {
+                    return start;
+                }
+            }
+            final boolean more = fill(start);
+            start = 0; // fill 이 객체 시작 이전 데이터를 버리고 앞으로 당김
+            if (!more) {
+                // EOF: 시작이 '{' 가 아닌 잔여 데이터는 바인딩 시 예외 유도
+                if (scanner.isOutside()) {
+                    int end = limit;
+                    while (end > start && isWhitespace(buf[end - 1])) end--;
+                    pos = end;
+                    return end > start ? start : -1;
+                }
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * buf[keepFrom, limit) 를 항상 앞으로 당긴 뒤 이어서 읽는다. 공간이 없으면 버퍼를 늘린다.
+     */
+    private boolean fill(final int keepFrom) throws IOException {
+        if (keepFrom > 0) {
+            System.arraycopy(buf, keepFrom, buf, 0, limit - keepFrom);
+            bufferOffset += keepFrom;
+            pos -= keepFrom;
+            limit -= keepFrom;
+        }
+        if (eof) return false;
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        final long remaining = readLimit - (bufferOffset + limit);
+        if (remaining <= 0) {
+            eof = true;
+            return false;
+        }
+        final ByteBuffer target = ByteBuffer.wrap(buf, limit, (int) Math.min(buf.length - limit, remaining));
+        final int n = channel.read(target);
+        if (n <= 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+package com.poc.lab.batch.deputy.reader;
+
+import org.springframework.util.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * 입력 파일 옆에 두는 희소 인덱스(sidecar)
+ * - N 건마다 다음 레코드가 시작하는 byte offset 을 기록
+ * - 파일 앞부분 체크섬을 함께 저장해 다른 입력에 잘못 쓰이지 않도록 한다
+ * 포맷: interval(int), headChecksum(long), count(int), offset(long) * count
+ */
+public final class CommaSeparatedObjectIndex {
+
+    private static final int HEAD_BYTES = 4096;
+
+    private final int interval;
+    private final long headChecksum;
+    private long[] offsets;
+    private int size;
+
+    public CommaSeparatedObjectIndex(final int interval, final long headChecksum) {
+        this(interval, headChecksum, new long[16], 0);
+    }
+
+    private CommaSeparatedObjectIndex(final int interval, final long headChecksum, final long[] offsets, final int size) {
+        Assert.isTrue(interval > 0, "interval must be positive");
+        this.interval = interval;
+        this.headChecksum = headChecksum;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    public int interval() {
+        return interval;
+    }
+
+    public long headChecksum() {
+        return headChecksum;
+    }
+
+    /**
+     * {@code recordIndex} 번째(0부터) 레코드 시작 위치를 기록. interval 배수 순서대로만 호출한다.
+     */
+    void add(final int recordIndex, final long offset) {
+        if (recordIndex != (size + 1) * interval) {
+            return;
+        }
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size++] = offset;
+    }
+
+    /**
+     * itemIndex 이하에서 가장 가까운 인덱스 지점의 레코드 번호. 없으면 0
+     */
+    public int floorRecord(final int itemIndex) {
+        return Math.min(itemIndex / interval, size) * interval;
+    }
+
+    /**
+     * {@link #floorRecord(int)} 레코드의 시작 offset. floorRecord 가 0 이면 -1
+     */
+    public long floorOffset(final int itemIndex) {
+        final int entry = Math.min(itemIndex / interval, size);
+        return entry == 0 ? -1 : offsets[entry - 1];
+    }
+
+    public static CommaSeparatedObjectIndex read(final Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            final int interval = in.readInt();
+            final long headChecksum = in.readLong();
+            final int count = in.readInt();
+            final long[] offsets = new long[Math.max(count, 16)];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = in.readLong();
+            }
+            return new CommaSeparatedObjectIndex(interval, headChecksum, offsets, count);
+        }
+    }
+
+    /**
+     * 임시 파일에 쓴 뒤 교체해 중간에 실패해도 깨진 인덱스가 남지 않게 한다.
+     */
+    public void write(final Path path) throws IOException {
+        final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(interval);
+            out.writeLong(headChecksum);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(offsets[i]);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 파일 앞 {@value #HEAD_BYTES} byte 의 CRC32. 채널 위치는 바꾸지 않는다.
+     */
+    public static long headChecksum(final FileChannel channel) throws IOException {
+        final ByteBuffer head = ByteBuffer.allocate((int) Math.min(HEAD_BYTES, channel.size()));
+        long position = 0;
+        while (head.hasRemaining()) {
+            final int n = channel.read(head, position);
+            if (n < 0) break;
+            position += n;
+        }
+        head.flip();
+        final CRC32 crc = new CRC32();
+        crc.update(head);
+        return crc.getValue();
+    }
+}
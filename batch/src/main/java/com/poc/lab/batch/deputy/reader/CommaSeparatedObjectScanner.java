@@ -0,0 +1,62 @@
+package com.poc.lab.batch.deputy.reader;
+
+/**
+ * 쉼표 구분 객체 스트림({..}, {..}, ...)의 최상위 객체 경계를 찾는 상태 기계
+ * - 문자열 내부의 중괄호/이스케이프는 무시
+ * - 구조 문자({, }, ", \)는 모두 ASCII 이므로 char 단위와 UTF-8 byte 단위 입력 모두 사용 가능
+ */
+public final class CommaSeparatedObjectScanner {
+
+    private int depth = 0;              // { ... } 깊이
+    private boolean inString = false;   // 문자열 내부 여부
+    private boolean escaped = false;    // 이전 문자가 백슬래시인지
+
+    public void reset() {
+        this.depth = 0;
+        this.inString = false;
+        this.escaped = false;
+    }
+
+    /**
+     * 객체 바깥(깊이 0, 문자열 밖)에 있는지 여부
+     */
+    public boolean isOutside() {
+        return depth == 0 && !inString;
+    }
+
+    /**
+     * 문자 하나를 소비한다.
+     *
+     * @return 최상위 객체가 이 문자({@code }})로 닫혔으면 true
+     */
+    public boolean accept(final int c) {
+        if (inString) {
+            if (escaped) {
+                escaped = false; // 이스케이프된 문자 소비
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            // 문자열 중에는 depth 변경 없음
+            return false;
+        }
+        if (c == '"') {
+            inString = true;
+        } else if (c == '{') {
+            depth++;
+        } else if (c == '}') {
+            depth--;
+            return depth == 0;
+        }
+        return false;
+    }
+
+    public static boolean isSeparator(final int c) {
+        return isWhitespace(c) || c == ',';
+    }
+
+    public static boolean isWhitespace(final int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+}
@@ -9,11 +9,14 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 
+import static com.poc.lab.batch.deputy.reader.CommaSeparatedObjectScanner.isSeparator;
+
 public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
 
     private final Resource resource;
@@ -28,9 +31,11 @@ public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountin
     private boolean eof = false;
 
     // 스캐너 상태
-    private int depth = 0;              // { ... } 깊이
-    private boolean inString = false;   // 문자열 내부 여부
-    private boolean escaped = false;    // 이전 문자가 백슬래시인지
+    private final CommaSeparatedObjectScanner scanner = new CommaSeparatedObjectScanner();
+
+    // 파티션 처리 시 읽을 byte 구간 [startOffset, endOffset)
+    private long startOffset = 0;
+    private long endOffset = -1;
 
     // 성능/안전: 한 번에 읽어올 크기
     private static final int READ_CHUNK = 8192;
@@ -55,10 +60,25 @@ public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountin
         this.charset = charset;
     }
 
+    /**
+     * 읽기 시작 byte 위치. 최상위 객체 경계(또는 파일 시작)여야 한다.
+     */
+    public void setStartOffset(final long startOffset) {
+        Assert.isTrue(startOffset >= 0, "startOffset must not be negative");
+        this.startOffset = startOffset;
+    }
+
+    /**
+     * 읽기 종료 byte 위치(미포함). 음수면 파일 끝까지 읽는다.
+     */
+    public void setEndOffset(final long endOffset) {
+        this.endOffset = endOffset;
+    }
+
     @Override
     protected void doOpen() throws Exception {
         try {
-            this.input = resource.getInputStream();
+            this.input = openRange(resource.getInputStream());
             this.br = new BufferedReader(new InputStreamReader(this.input, this.charset), READ_CHUNK);
             resetState();
             // 객체 시작 전까지 구분자/공백 소비
@@ -107,12 +127,21 @@ public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountin
         }
     }
 
+    private InputStream openRange(final InputStream in) throws IOException {
+        if (startOffset > 0) {
+            in.skipNBytes(startOffset);
+        }
+        if (endOffset < 0) {
+            return in;
+        }
+        Assert.isTrue(endOffset >= startOffset, "endOffset must not be less than startOffset");
+        return new RangeInputStream(in, endOffset - startOffset);
+    }
+
     private void resetState() {
         this.carry.setLength(0);
         this.eof = false;
-        this.depth = 0;
-        this.inString = false;
-        this.escaped = false;
+        this.scanner.reset();
     }
 
     private void skipSeparators() throws IOException {
@@ -123,7 +152,7 @@ public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountin
             int i = 0;
             while (i < carry.length()) {
                 char c = carry.charAt(i);
-                if (isWhitespace(c) || c == ',') {
+                if (isSeparator(c)) {
                     i++;
                     continue;
                 }
@@ -153,7 +182,7 @@ public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountin
             if (carry.length() == 0) {
                 if (!fillCarry()) {
                     // EOF
-                    if (started && depth == 0 && !inString) {
+                    if (started && scanner.isOutside()) {
                         String s = obj.toString().trim();
                         return s.isEmpty() ? null : s;
                     }
@@ -164,52 +193,26 @@ public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountin
                 char c = carry.charAt(i);
 
                 if (!started) {
-                    if (isWhitespace(c) || c == ',') {
+                    if (isSeparator(c)) {
                         // 객체 시작 전 구분자 skip
                         continue;
                     }
-                    if (c == '{') {
-                        started = true;
-                        depth = 1;
-                        obj.append(c);
-                        continue;
-                    }
-                    // 시작이 다른 문자면 에러 유도: 누적하고 즉시 실패하지 않고 다음 루프에서 바인딩 시 예외
+                    // 시작이 '{' 가 아니면 누적만 하고 바인딩 시 예외 유도
                     started = true;
-                    obj.append(c);
-                    continue;
                 }
 
                 obj.append(c);
 
-                if (inString) {
-                    if (escaped) {
-                        escaped = false; // 이스케이프된 문자 소비
-                    } else if (c == '\\') {
-                        escaped = true;
-                    } else if (c == '"') {
-                        inString = false;
-                    }
-                    // 문자열 중에는 depth 변경 없음
-                } else {
-                    if (c == '"') {
-                        inString = true;
-                    } else if (c == '{') {
-                        depth++;
-                    } else if (c == '}') {
-                        depth--;
-                        if (depth == 0) {
-                            // 객체 하나 완료
-                            // 남은 캐리는 다음 읽기용으로 보존
-                            // i 이후에 쉼표/공백이 남아있을 수 있음
-                            String result = obj.toString();
-                            // carry 에서 i+1 이후를 남기고 앞은 버림
-                            carry.delete(0, i + 1);
-                            // 객체 종료 후 구분자 소비
-                            skipSeparators();
-                            return result;
-                        }
-                    }
+                if (scanner.accept(c)) {
+                    // 객체 하나 완료
+                    // 남은 캐리는 다음 읽기용으로 보존
+                    // i 이후에 쉼표/공백이 남아있을 수 있음
+                    String result = obj.toString();
+                    // carry 에서 i+1 이후를 남기고 앞은 버림
+                    carry.delete(0, i + 1);
+                    // 객체 종료 후 구분자 소비
+                    skipSeparators();
+                    return result;
                 }
             }
             // carry 모두 소비 -> 비움
@@ -229,7 +232,44 @@ public class CommaSeparatedObjectStreamItemReader<T> extends AbstractItemCountin
         return true;
     }
 
-    private static boolean isWhitespace(char c) {
-        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    /**
+     * 지정한 byte 수까지만 읽히도록 제한하는 스트림
+     */
+    private static final class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private RangeInputStream(final InputStream in, final long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b != -1) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
     }
 }
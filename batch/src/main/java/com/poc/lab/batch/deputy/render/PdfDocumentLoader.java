@@ -0,0 +1,88 @@
+package com.poc.lab.batch.deputy.render;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 렌더링용 PDF 로더
+ * - 스트림 캐시: 작은 문서 기준으로 기본은 메모리 전용(scratch file 없음), maxMainMemoryBytes 를 주면 초과분만 임시 파일
+ * - 폰트: 임베드되지 않은 표준 폰트는 문서 간(스레드별) 공유해 문서마다 다시 매핑하지 않는다
+ * - warmUp: 폰트 매퍼(시스템 폰트 목록/대체 폰트) 초기화를 첫 렌더링 전에 끝낸다
+ */
+public class PdfDocumentLoader {
+
+    private static final int MAX_SHARED_FONTS_PER_THREAD = 64;
+
+    private final StreamCacheCreateFunction streamCache;
+    private final boolean shareFonts;
+    private final ThreadLocal<Map<String, PDFont>> sharedFonts = ThreadLocal.withInitial(PdfDocumentLoader::fontMap);
+
+    /**
+     * @param maxMainMemoryBytes 0 이하면 메모리 전용
+     */
+    public PdfDocumentLoader(final long maxMainMemoryBytes, final boolean shareFonts) {
+        this.streamCache = maxMainMemoryBytes > 0
+                ? MemoryUsageSetting.setupMixed(maxMainMemoryBytes).streamCache
+                : IOUtils.createMemoryOnlyStreamCache();
+        this.shareFonts = shareFonts;
+    }
+
+    /**
+     * 기존 동작(Loader 기본 설정)
+     */
+    public static PdfDocumentLoader defaults() {
+        return new PdfDocumentLoader(0, false);
+    }
+
+    public PDDocument load(final byte[] pdf) throws IOException {
+        final PDDocument doc = open(pdf);
+        shareFonts(doc);
+        return doc;
+    }
+
+    // 폰트 공유 없이 연다. 페이지 수/MediaBox 만 볼 때(렌더 스레드 밖)
+    PDDocument open(final byte[] pdf) throws IOException {
+        return Loader.loadPDF(new RandomAccessReadBuffer(pdf), "", null, null, streamCache);
+    }
+
+    // 호출 스레드의 공유 폰트 맵을 붙인다. 렌더링할 스레드에서 불러야 문서 간 공유가 된다
+    void shareFonts(final PDDocument doc) {
+        if (shareFonts) {
+            doc.setResourceCache(new SharedFontResourceCache(sharedFonts.get()));
+        }
+    }
+
+    /**
+     * 표준 14 폰트와 지정 폰트의 매핑을 미리 해 둔다
+     */
+    public void warmUp(final String... fontNames) {
+        for (Standard14Fonts.FontName fontName : Standard14Fonts.FontName.values()) {
+            new PDType1Font(fontName);
+        }
+        for (String fontName : fontNames) {
+            FontMappers.instance().getFontBoxFont(fontName, null);
+        }
+    }
+
+    // 렌더 스레드 하나가 들고 있는 공유 폰트 수 제한(LRU)
+    private static Map<String, PDFont> fontMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, PDFont> eldest) {
+                return size() > MAX_SHARED_FONTS_PER_THREAD;
+            }
+        };
+    }
+}
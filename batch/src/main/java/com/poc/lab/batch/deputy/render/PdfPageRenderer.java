@@ -0,0 +1,338 @@
+package com.poc.lab.batch.deputy.render;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.util.Assert;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * PDF 의 지정 구간(기본: 전체) 페이지를 렌더링해 세로로 이어 붙인 이미지 하나로 반환
+ * - 페이지가 여러 장이면 pagesPerTask 장씩 나눠 render 실행기에서 병렬 렌더링
+ * - PDDocument 는 스레드 안전하지 않으므로 작업마다 같은 byte[] 에서 문서를 따로 연다
+ * - 작업 간 대기(join) 없이 future 조합만 한다
+ * - 페이지별 렌더링 시간은 deputy.render.page, 문서 전체는 deputy.render.document 타이머로 기록
+ * - 페이지는 {@link RasterPool} 에서 빌린 이미지에 그리고, use 가 끝나면 반납
+ * - 렌더링 전에 {@link RenderMemoryBudget} 에서 추정 래스터 크기만큼 예약(부족하면 대기 또는 dpi 하향)
+ *   예약 대기는 render 풀이 아닌 가상 스레드에서 한다. render 스레드가 예약을 기다리며 막히면
+ *   예약을 가진 문서의 나머지 페이지 작업이 실행되지 못해 예약이 풀리지 않는다
+ * - 문서 로딩(스트림 캐시, 문서 간 폰트 공유)은 {@link PdfDocumentLoader} 설정을 따른다
+ *   예약 단계에서는 페이지 수와 MediaBox 만 읽고, 공유 폰트(스레드별)는 render 스레드에서 붙인다
+ */
+public class PdfPageRenderer {
+
+    private final Executor executor;
+    // 문서를 열어 예약 크기를 정하고 예약을 기다리는 곳(render 풀 밖)
+    private final Executor admission = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("render-admission-", 0).factory());
+    private final int dpi;
+    private final int firstPage;
+    private final int lastPage;
+    private final int pagesPerTask;
+    private final Timer pageTimer;
+    private final Timer singleTaskTimer;
+    private final Timer parallelTimer;
+    private RenderMemoryBudget memoryBudget = RenderMemoryBudget.unlimited();
+    private RasterPool rasterPool = RasterPool.unpooled();
+    private PdfDocumentLoader documentLoader = PdfDocumentLoader.defaults();
+
+    /**
+     * @param firstPage 1부터 시작하는 첫 페이지
+     * @param lastPage  마지막 페이지(포함). 0 이하면 문서 끝까지
+     */
+    public PdfPageRenderer(final Executor executor, final MeterRegistry registry, final int dpi,
+                           final int firstPage, final int lastPage, final int pagesPerTask) {
+        Assert.notNull(executor, "executor must not be null");
+        Assert.notNull(registry, "registry must not be null");
+        Assert.isTrue(dpi > 0, "dpi must be positive");
+        Assert.isTrue(firstPage > 0, "firstPage must be positive");
+        Assert.isTrue(lastPage <= 0 || lastPage >= firstPage, "lastPage must not be before firstPage");
+        Assert.isTrue(pagesPerTask > 0, "pagesPerTask must be positive");
+        this.executor = executor;
+        this.dpi = dpi;
+        this.firstPage = firstPage;
+        this.lastPage = lastPage;
+        this.pagesPerTask = pagesPerTask;
+        this.pageTimer = Timer.builder("deputy.render.page").register(registry);
+        this.singleTaskTimer = Timer.builder("deputy.render.document").tag("parallel", "false").register(registry);
+        this.parallelTimer = Timer.builder("deputy.render.document").tag("parallel", "true").register(registry);
+    }
+
+    /**
+     * 렌더링 전 래스터 메모리 예산. 기본은 제한 없음
+     */
+    public void setMemoryBudget(final RenderMemoryBudget memoryBudget) {
+        Assert.notNull(memoryBudget, "memoryBudget must not be null");
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * 렌더링 이미지 재사용 풀. 기본은 풀 없이 매번 할당
+     */
+    public void setRasterPool(final RasterPool rasterPool) {
+        Assert.notNull(rasterPool, "rasterPool must not be null");
+        this.rasterPool = rasterPool;
+    }
+
+    /**
+     * PDF 로더. 기본은 메모리 전용 스트림 캐시, 폰트 공유 없음
+     */
+    public void setDocumentLoader(final PdfDocumentLoader documentLoader) {
+        Assert.notNull(documentLoader, "documentLoader must not be null");
+        this.documentLoader = documentLoader;
+    }
+
+    /**
+     * RGB 로 렌더링
+     */
+    public <T> CompletableFuture<T> render(final byte[] pdf, final Function<BufferedImage, CompletableFuture<T>> use) {
+        return render(pdf, ImageType.RGB, use);
+    }
+
+    /**
+     * imageType 으로 렌더링한 이미지(페이지가 없으면 null)를 use 에 넘기고, use 가 끝날 때까지 메모리 예약을 유지한다
+     */
+    public <T> CompletableFuture<T> render(final byte[] pdf, final ImageType imageType,
+                                           final Function<BufferedImage, CompletableFuture<T>> use) {
+        final long started = System.nanoTime();
+        return CompletableFuture
+                .supplyAsync(() -> admit(pdf, imageType), admission)
+                .thenApplyAsync(admitted -> firstTask(admitted, imageType), executor)
+                .thenCompose(first -> rendered(pdf, imageType, first, started)
+                        .thenCompose(lease -> use.apply(lease == null ? null : lease.image())
+                                // use 가 끝나면 이미지를 풀에 반납
+                                .whenComplete((result, throwable) -> close(lease)))
+                        .whenComplete((result, throwable) -> first.close()));
+    }
+
+    private CompletableFuture<RasterPool.Lease> rendered(final byte[] pdf, final ImageType imageType,
+                                                         final FirstTask first, final long started) {
+        if (first.image != null || first.pages == 0) {
+            record(singleTaskTimer, started, first.image);
+            return CompletableFuture.completedFuture(first.image);
+        }
+        return fanOut(pdf, first.from, first.to, first.reservation.dpi(), imageType)
+                .whenComplete((image, throwable) -> record(parallelTimer, started, image));
+    }
+
+    private static void record(final Timer timer, final long started, final RasterPool.Lease image) {
+        if (image != null) {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void close(final RasterPool.Lease lease) {
+        if (lease != null) {
+            lease.close();
+        }
+    }
+
+    // 문서를 한 번 열어 페이지 수/MediaBox 로 구간과 예약 크기를 정하고 예약을 기다린다(admission 스레드)
+    // 문서는 폰트 공유 없이 열어 둔 채 넘긴다
+    private Admitted admit(final byte[] pdf, final ImageType imageType) {
+        PDDocument doc = null;
+        try {
+            doc = documentLoader.open(pdf);
+            final int from = firstPage - 1;
+            final int to = Math.min(doc.getNumberOfPages(), lastPage <= 0 ? Integer.MAX_VALUE : lastPage);
+            if (to <= from) {
+                doc.close();
+                return new Admitted(null, from, to, null);
+            }
+            return new Admitted(doc, from, to, memoryBudget.acquire(estimate(doc, from, to, imageType), dpi));
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(doc, e);
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+    }
+
+    // 한 작업 분량이면 열어 둔 문서에 render 스레드의 공유 폰트를 붙여 바로 렌더링
+    private FirstTask firstTask(final Admitted admitted, final ImageType imageType) {
+        final int pages = admitted.to() - admitted.from();
+        if (admitted.doc() == null) {
+            return new FirstTask(0, admitted.from(), admitted.to(), null, null);
+        }
+        final RenderMemoryBudget.Reservation reservation = admitted.reservation();
+        try (PDDocument doc = admitted.doc()) {
+            if (pages <= pagesPerTask) {
+                documentLoader.shareFonts(doc);
+                return new FirstTask(pages, admitted.from(), admitted.to(),
+                        stitch(renderPages(doc, admitted.from(), admitted.to(), reservation.dpi(), imageType)), reservation);
+            }
+            return new FirstTask(pages, admitted.from(), admitted.to(), null, reservation);
+        } catch (IOException | RuntimeException e) {
+            reservation.close();
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+    }
+
+    private static void closeQuietly(final PDDocument doc, final Exception cause) {
+        if (doc == null) {
+            return;
+        }
+        try {
+            doc.close();
+        } catch (IOException suppressed) {
+            cause.addSuppressed(suppressed);
+        }
+    }
+
+    // 페이지 래스터 합계. 여러 장이면 이어 붙인 이미지가 같은 크기로 한 벌 더 생긴다
+    private long estimate(final PDDocument doc, final int from, final int to, final ImageType imageType) {
+        long bytes = 0;
+        for (int page = from; page < to; page++) {
+            bytes += RenderMemoryBudget.estimatePage(doc.getPage(page), dpi, imageType);
+        }
+        return to - from > 1 ? bytes * 2 : bytes;
+    }
+
+    private CompletableFuture<RasterPool.Lease> fanOut(final byte[] pdf, final int from, final int to,
+                                                       final int dpi, final ImageType imageType) {
+        final List<CompletableFuture<List<RasterPool.Lease>>> tasks = new ArrayList<>();
+        for (int start = from; start < to; start += pagesPerTask) {
+            final int taskFrom = start;
+            final int taskTo = Math.min(to, start + pagesPerTask);
+            tasks.add(CompletableFuture.supplyAsync(() -> renderPages(pdf, taskFrom, taskTo, dpi, imageType), executor));
+        }
+        return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        // 성공한 작업의 이미지는 반납
+                        tasks.stream()
+                                .filter(it -> !it.isCompletedExceptionally())
+                                .forEach(it -> it.join().forEach(RasterPool.Lease::close));
+                    }
+                })
+                .thenApply(ignored -> stitch(tasks.stream().flatMap(it -> it.join().stream()).toList()));
+    }
+
+    private List<RasterPool.Lease> renderPages(final byte[] pdf, final int from, final int to,
+                                               final int dpi, final ImageType imageType) {
+        try (PDDocument doc = load(pdf)) {
+            return renderPages(doc, from, to, dpi, imageType);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<RasterPool.Lease> renderPages(final PDDocument doc, final int from, final int to,
+                                               final int dpi, final ImageType imageType) throws IOException {
+        final PDFRenderer renderer = new PDFRenderer(doc);
+        final List<RasterPool.Lease> pages = new ArrayList<>(to - from);
+        try {
+            for (int page = from; page < to; page++) {
+                final long started = System.nanoTime();
+                pages.add(renderPage(renderer, doc.getPage(page), page, dpi, imageType));
+                pageTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            return pages;
+        } catch (IOException | RuntimeException e) {
+            pages.forEach(RasterPool.Lease::close);
+            throw e;
+        }
+    }
+
+    // renderImageWithDPI 와 같은 크기의 풀 이미지에 그린다(회전은 renderPageToGraphics 가 처리)
+    private RasterPool.Lease renderPage(final PDFRenderer renderer, final PDPage page, final int pageIndex,
+                                        final int dpi, final ImageType imageType) throws IOException {
+        final float scale = dpi / 72f;
+        final PDRectangle cropBox = page.getCropBox();
+        final int widthPx = (int) Math.max(Math.floor(cropBox.getWidth() * scale), 1);
+        final int heightPx = (int) Math.max(Math.floor(cropBox.getHeight() * scale), 1);
+        final boolean rotated = page.getRotation() == 90 || page.getRotation() == 270;
+        final RasterPool.Lease lease = rasterPool.acquire(rotated ? heightPx : widthPx, rotated ? widthPx : heightPx,
+                bufferedImageType(imageType));
+        final Graphics2D graphics = lease.image().createGraphics();
+        try {
+            graphics.setBackground(Color.WHITE);
+            renderer.renderPageToGraphics(pageIndex, graphics, scale);
+            return lease;
+        } catch (IOException | RuntimeException e) {
+            lease.close();
+            throw e;
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    private static int bufferedImageType(final ImageType imageType) {
+        return switch (imageType) {
+            case BINARY -> BufferedImage.TYPE_BYTE_BINARY;
+            case GRAY -> BufferedImage.TYPE_BYTE_GRAY;
+            case ARGB -> BufferedImage.TYPE_INT_ARGB;
+            case BGR -> BufferedImage.TYPE_3BYTE_BGR;
+            default -> BufferedImage.TYPE_INT_RGB;
+        };
+    }
+
+    private PDDocument load(final byte[] pdf) throws IOException {
+        return documentLoader.load(pdf);
+    }
+
+    // 페이지들을 같은 이미지 형식으로 세로로 이어 붙이고 페이지 이미지는 반납한다. 한 장이면 그대로 반환
+    private RasterPool.Lease stitch(final List<RasterPool.Lease> pages) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+        try {
+            int width = 0;
+            int height = 0;
+            for (RasterPool.Lease page : pages) {
+                width = Math.max(width, page.image().getWidth());
+                height += page.image().getHeight();
+            }
+            final RasterPool.Lease stitched = rasterPool.acquire(width, height, pages.get(0).image().getType());
+            final Graphics2D graphics = stitched.image().createGraphics();
+            try {
+                int y = 0;
+                for (RasterPool.Lease page : pages) {
+                    graphics.drawImage(page.image(), 0, y, null);
+                    y += page.image().getHeight();
+                }
+            } finally {
+                graphics.dispose();
+            }
+            return stitched;
+        } finally {
+            pages.forEach(RasterPool.Lease::close);
+        }
+    }
+
+    private record Admitted(
+            PDDocument doc,
+            int from,
+            int to,
+            RenderMemoryBudget.Reservation reservation
+    ) {
+    }
+
+    private record FirstTask(
+            int pages,
+            int from,
+            int to,
+            RasterPool.Lease image,
+            RenderMemoryBudget.Reservation reservation
+    ) {
+        void close() {
+            if (reservation != null) {
+                reservation.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.poc.lab.batch.deputy.render;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.Assert;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.Cleaner;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 렌더링용 BufferedImage 재사용 풀. (width, height, type) 별로 반납된 이미지를 보관
+ * - 빌린 이미지는 흰색으로 지운 상태로 준다
+ * - 보관 총량(maxIdleBytes)과 키별 보관 수(maxIdlePerKey)를 넘는 반납분은 버린다(GC 대상)
+ * - 반납(close) 없이 GC 된 Lease 는 누수로 집계(deputy.raster.leaked)
+ */
+public class RasterPool {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final long maxIdleBytes;
+    private final int maxIdlePerKey;
+    private final Map<Key, Deque<BufferedImage>> idle = new HashMap<>();
+    private long idleBytes = 0;
+
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicLong leaked = new AtomicLong();
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    public RasterPool(final long maxIdleBytes, final int maxIdlePerKey) {
+        Assert.isTrue(maxIdleBytes >= 0, "maxIdleBytes must not be negative");
+        Assert.isTrue(maxIdlePerKey >= 0, "maxIdlePerKey must not be negative");
+        this.maxIdleBytes = maxIdleBytes;
+        this.maxIdlePerKey = maxIdlePerKey;
+    }
+
+    /**
+     * 보관하지 않고 매번 새로 만든다(기존 동작)
+     */
+    public static RasterPool unpooled() {
+        return new RasterPool(0, 0);
+    }
+
+    public Lease acquire(final int width, final int height, final int type) {
+        final Key key = new Key(width, height, type);
+        BufferedImage image;
+        synchronized (this) {
+            final Deque<BufferedImage> images = idle.get(key);
+            image = images == null ? null : images.pollFirst();
+            if (image != null) {
+                idleBytes -= bytes(image);
+            }
+        }
+        if (image == null) {
+            increment(missCounter);
+            image = new BufferedImage(width, height, type);
+        } else {
+            increment(hitCounter);
+        }
+        clear(image);
+        leased.incrementAndGet();
+        return new Lease(image, key);
+    }
+
+    public synchronized long idleBytes() {
+        return idleBytes;
+    }
+
+    public int leased() {
+        return leased.get();
+    }
+
+    public long leaked() {
+        return leaked.get();
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("deputy.raster.idle", this, RasterPool::idleBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("deputy.raster.leased", this, RasterPool::leased)
+                .register(registry);
+        Gauge.builder("deputy.raster.leaked", this, RasterPool::leaked)
+                .register(registry);
+        this.hitCounter = Counter.builder("deputy.raster.acquire").tag("result", "hit").register(registry);
+        this.missCounter = Counter.builder("deputy.raster.acquire").tag("result", "miss").register(registry);
+    }
+
+    private void release(final BufferedImage image, final Key key) {
+        leased.decrementAndGet();
+        final long bytes = bytes(image);
+        synchronized (this) {
+            final Deque<BufferedImage> images = idle.computeIfAbsent(key, it -> new ArrayDeque<>());
+            if (images.size() >= maxIdlePerKey || idleBytes + bytes > maxIdleBytes) {
+                return;
+            }
+            images.addFirst(image);
+            idleBytes += bytes;
+        }
+    }
+
+    private static void increment(final Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static void clear(final BufferedImage image) {
+        final Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setBackground(Color.WHITE);
+            graphics.clearRect(0, 0, image.getWidth(), image.getHeight());
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    static long bytes(final BufferedImage image) {
+        final DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    /**
+     * 빌린 이미지. close 하면 풀에 반납하며, 반납 후에는 image 를 쓰면 안 된다
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final BufferedImage image;
+        private final Key key;
+        private final LeakState state;
+        private final Cleaner.Cleanable cleanable;
+
+        private Lease(final BufferedImage image, final Key key) {
+            this.image = image;
+            this.key = key;
+            this.state = new LeakState(leased, leaked);
+            this.cleanable = CLEANER.register(this, state);
+        }
+
+        public BufferedImage image() {
+            return image;
+        }
+
+        @Override
+        public void close() {
+            synchronized (state) {
+                if (state.closed) {
+                    return;
+                }
+                state.closed = true;
+            }
+            cleanable.clean();
+            release(image, key);
+        }
+    }
+
+    // Cleaner 동작은 Lease 를 참조하면 안 되므로 상태를 따로 둔다
+    private static final class LeakState implements Runnable {
+
+        private final AtomicInteger leased;
+        private final AtomicLong leaked;
+        private boolean closed = false;
+
+        private LeakState(final AtomicInteger leased, final AtomicLong leaked) {
+            this.leased = leased;
+            this.leaked = leaked;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            leased.decrementAndGet();
+            leaked.incrementAndGet();
+        }
+    }
+
+    private record Key(
+            int width,
+            int height,
+            int type
+    ) {
+    }
+}
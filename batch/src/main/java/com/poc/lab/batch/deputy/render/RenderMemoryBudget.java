@@ -0,0 +1,201 @@
+package com.poc.lab.batch.deputy.render;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 렌더링 래스터 메모리 예산(admission control)
+ * - 렌더링 전에 MediaBox 와 dpi 로 래스터 byte 를 추정해 예산 안에서만 시작을 허용
+ * - 예산이 부족하면 대기하고, downgradeAfter 가 지나도 부족하면 dpi 를 낮춰(최소 minDpi) 다시 요청
+ * - 예약은 렌더링 결과를 다 쓴 뒤(업로드 완료) 반환한다
+ */
+public class RenderMemoryBudget {
+
+    private final long limitBytes;
+    private final int minDpi;
+    private final long downgradeAfterNanos;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    private long usedBytes = 0;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private Timer waitTimer;
+    private Counter downgradedCounter;
+
+    public RenderMemoryBudget(final long limitBytes, final int minDpi, final Duration downgradeAfter) {
+        Assert.isTrue(limitBytes > 0, "limitBytes must be positive");
+        Assert.isTrue(minDpi > 0, "minDpi must be positive");
+        Assert.isTrue(downgradeAfter != null && !downgradeAfter.isNegative(), "downgradeAfter must not be negative");
+        this.limitBytes = limitBytes;
+        this.minDpi = minDpi;
+        this.downgradeAfterNanos = downgradeAfter.toNanos();
+    }
+
+    /**
+     * 예산 제한 없음
+     */
+    public static RenderMemoryBudget unlimited() {
+        return new RenderMemoryBudget(Long.MAX_VALUE, 1, Duration.ZERO);
+    }
+
+    /**
+     * 최대 힙의 ratio 만큼을 예산으로 사용
+     */
+    public static RenderMemoryBudget ofHeapRatio(final double ratio, final int minDpi, final Duration downgradeAfter) {
+        Assert.isTrue(ratio > 0 && ratio <= 1, "ratio must be in (0, 1]");
+        return new RenderMemoryBudget((long) (Runtime.getRuntime().maxMemory() * ratio), minDpi, downgradeAfter);
+    }
+
+    /**
+     * 한 페이지 래스터 byte 추정(회전 무관, MediaBox 기준)
+     */
+    public static long estimatePage(final PDPage page, final int dpi, final ImageType imageType) {
+        final PDRectangle box = page.getMediaBox();
+        final long width = (long) Math.ceil(box.getWidth() / 72f * dpi);
+        final long height = (long) Math.ceil(box.getHeight() / 72f * dpi);
+        return switch (imageType) {
+            // TYPE_BYTE_BINARY: 행마다 byte 단위로 맞춘 1bit
+            case BINARY -> (width + 7) / 8 * height;
+            // TYPE_BYTE_GRAY
+            case GRAY -> width * height;
+            // TYPE_INT_RGB / TYPE_INT_ARGB
+            default -> width * height * 4;
+        };
+    }
+
+    /**
+     * dpi 에서 bytes 가 드는 작업을 예산 안에서 시작할 수 있을 때까지 대기 후 예약.
+     * 부족한 상태가 downgradeAfter 이상 이어지면 dpi 를 낮춘다. 반환한 예약의 dpi 로 렌더링한다.
+     *
+     * @param bytesAtDpi dpi 기준 추정 byte (dpi 제곱에 비례한다고 보고 낮춘 dpi 의 추정치를 계산)
+     */
+    public Reservation acquire(final long bytesAtDpi, final int dpi) {
+        final long started = System.nanoTime();
+        waiting.incrementAndGet();
+        lock.lock();
+        try {
+            int admittedDpi = dpi;
+            // 예산보다 큰 작업은 혼자 실행되도록 예산 크기로 맞춘다
+            long bytes = Math.min(bytesAtDpi, limitBytes);
+            boolean downgraded = false;
+            while (bytes > limitBytes - usedBytes) {
+                if (!downgraded) {
+                    final long remaining = started + downgradeAfterNanos - System.nanoTime();
+                    if (remaining > 0) {
+                        released.awaitNanos(remaining);
+                        continue;
+                    }
+                    // 한 번만 낮춘다: 지금 남은 예산에 맞는 dpi(최소 minDpi)
+                    downgraded = true;
+                    if (dpi > minDpi) {
+                        final long available = Math.max(limitBytes - usedBytes, 1);
+                        admittedDpi = Math.max(minDpi, (int) (dpi * Math.sqrt((double) available / bytesAtDpi)));
+                        bytes = Math.min(scale(bytesAtDpi, dpi, admittedDpi), limitBytes);
+                        continue;
+                    }
+                }
+                released.await();
+            }
+            usedBytes += bytes;
+            if (admittedDpi < dpi && downgradedCounter != null) {
+                downgradedCounter.increment();
+            }
+            return new Reservation(bytes, admittedDpi);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+            if (waitTimer != null) {
+                waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public long limitBytes() {
+        return limitBytes;
+    }
+
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("deputy.render.budget.limit", this, it -> it.limitBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("deputy.render.budget.used", this, RenderMemoryBudget::usedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("deputy.render.budget.waiting", this, RenderMemoryBudget::waiting)
+                .register(registry);
+        this.waitTimer = Timer.builder("deputy.render.budget.wait").register(registry);
+        this.downgradedCounter = Counter.builder("deputy.render.dpi.downgraded").register(registry);
+    }
+
+    private static long scale(final long bytesAtDpi, final int dpi, final int targetDpi) {
+        final double ratio = (double) targetDpi / dpi;
+        return (long) Math.ceil(bytesAtDpi * ratio * ratio);
+    }
+
+    private void release(final long bytes) {
+        lock.lock();
+        try {
+            usedBytes -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 예약 하나. close 는 한 번만 반환한다.
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private final long bytes;
+        private final int dpi;
+        private boolean closed = false;
+
+        private Reservation(final long bytes, final int dpi) {
+            this.bytes = bytes;
+            this.dpi = dpi;
+        }
+
+        public int dpi() {
+            return dpi;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.poc.lab.batch.deputy.render;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+import java.util.Map;
+
+/**
+ * 문서 간 폰트 공유 ResourceCache
+ * - 임베드되지 않은 단순 폰트(Type1/TrueType, FontDescriptor 의 FontFile 없음, Widths/ToUnicode/Differences 없음)는
+ *   Subtype + BaseFont + Encoding 이름만으로 결정되므로 같은 키면 이전 문서의 PDFont 를 재사용
+ * - PDFont 는 내부 캐시를 가진 비스레드안전 객체라 shared 맵은 스레드마다 따로 둔다
+ */
+class SharedFontResourceCache extends DefaultResourceCache {
+
+    private final Map<String, PDFont> shared;
+
+    SharedFontResourceCache(final Map<String, PDFont> shared) {
+        this.shared = shared;
+    }
+
+    @Override
+    public PDFont getFont(final COSObject indirect) {
+        final PDFont font = super.getFont(indirect);
+        if (font != null) {
+            return font;
+        }
+        final String key = key(indirect);
+        return key == null ? null : shared.get(key);
+    }
+
+    @Override
+    public void put(final COSObject indirect, final PDFont font) {
+        super.put(indirect, font);
+        final String key = key(indirect);
+        if (key != null) {
+            shared.putIfAbsent(key, font);
+        }
+    }
+
+    private static String key(final COSObject indirect) {
+        if (indirect == null || !(indirect.getObject() instanceof COSDictionary dict)) {
+            return null;
+        }
+        final COSName subtype = dict.getCOSName(COSName.SUBTYPE);
+        if (!COSName.TYPE1.equals(subtype) && !COSName.TRUE_TYPE.equals(subtype)) {
+            return null;
+        }
+        if (dict.containsKey(COSName.WIDTHS) || dict.containsKey(COSName.TO_UNICODE) || isEmbedded(dict)) {
+            return null;
+        }
+        final COSBase encoding = dict.getDictionaryObject(COSName.ENCODING);
+        if (encoding != null && !(encoding instanceof COSName)) {
+            return null;
+        }
+        final String baseFont = dict.getNameAsString(COSName.BASE_FONT);
+        if (baseFont == null) {
+            return null;
+        }
+        return subtype.getName() + "/" + baseFont + "/" + (encoding == null ? "" : ((COSName) encoding).getName());
+    }
+
+    private static boolean isEmbedded(final COSDictionary dict) {
+        final COSDictionary descriptor = dict.getCOSDictionary(COSName.FONT_DESC);
+        return descriptor != null && (descriptor.containsKey(COSName.FONT_FILE)
+                || descriptor.containsKey(COSName.FONT_FILE2)
+                || descriptor.containsKey(COSName.FONT_FILE3));
+    }
+}
@@ -1,24 +1,194 @@
 package com.poc.lab.batch.deputy.service;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.poc.lab.batch.deputy.dto.DeputyDocumentResult;
 import com.poc.lab.batch.deputy.dto.GetDeputyDocumentRequest;
 import com.poc.lab.batch.deputy.dto.GetDeputyDocumentResponse;
+import com.poc.lab.common.http.HedgedRetry;
+import com.poc.lab.common.http.HttpClientSettings;
+import com.poc.lab.common.http.PooledRestClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class BtService {
 
     private static final String BT_BASE_URL = "http://localhost:8080";
-    private final RestClient btClient = RestClient.builder().baseUrl(BT_BASE_URL).build();
+    private static final MediaType PDF_FRAMES = MediaType.parseMediaType("application/vnd.deputy.pdf-frames");
+    private final RestClient btClient;
+    private final ObjectReader resultReader = new ObjectMapper().readerFor(DeputyDocumentResult.class);
+    private HedgedRetry hedgedRetry;
+    private boolean recordRetry = false;
+
+    public BtService() {
+        this(RestClient.builder().baseUrl(BT_BASE_URL).build());
+    }
+
+    /**
+     * @param btClient base URL 이 BT 로 지정된 클라이언트(연결 풀, 타임아웃 포함)
+     */
+    public BtService(final RestClient btClient) {
+        this.btClient = btClient;
+    }
+
+    public static BtService pooled(final HttpClientSettings settings,
+                                   final MeterRegistry meterRegistry, final ObservationRegistry observationRegistry) {
+        return new BtService(PooledRestClients.create("bt", BT_BASE_URL, settings, meterRegistry, observationRegistry));
+    }
+
+    /**
+     * 건건이 조회(deputyDocument, deputyDocumentPdf)에 재시도와 hedged request 적용. 일괄 조회에는 적용하지 않는다
+     */
+    public void setHedgedRetry(final HedgedRetry hedgedRetry) {
+        this.hedgedRetry = hedgedRetry;
+    }
 
+    /**
+     * 호출 측(스텝)이 레코드를 재시도하면 true. 이 클라이언트는 hedge 만 하고, BT 에도 Court 재시도를 하지 않도록 알린다
+     * 재시도는 한 층에서만: 레코드 재시도 > 이 클라이언트의 재시도(건건이 조회) > BT 의 Court 재시도(일괄 조회)
+     */
+    public void setRecordRetry(final boolean recordRetry) {
+        this.recordRetry = recordRetry;
+    }
 
     public GetDeputyDocumentResponse deputyDocument(final String userId, final String docId, final String docType) {
-        return btClient.post()
+        return resilient(() -> btClient.post()
                 .uri("/api/v1/deputy/document")
                 .contentType(MediaType.APPLICATION_JSON)
+                .headers(this::singleAttempt)
                 .body(new GetDeputyDocumentRequest(docId, docType, userId))
                 .retrieve()
                 .toEntity(GetDeputyDocumentResponse.class)
-                .getBody();
+                .getBody());
+    }
+
+    /**
+     * Accept: application/pdf 로 요청해 Base64/JSON 없이 PDF 원본 byte 를 받는다
+     */
+    public byte[] deputyDocumentPdf(final String userId, final String docId, final String docType) {
+        return resilient(() -> btClient.post()
+                .uri("/api/v1/deputy/document")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_PDF)
+                .headers(this::singleAttempt)
+                .body(new GetDeputyDocumentRequest(docId, docType, userId))
+                .retrieve()
+                .body(byte[].class));
     }
 
+    /**
+     * 여러 문서를 한 번에 요청하고, 응답 줄(NDJSON)이 도착하는 대로 onEach 호출
+     */
+    public void deputyDocuments(final List<GetDeputyDocumentRequest> requests, final Consumer<DeputyDocumentResult> onEach) {
+        documents(requests, MediaType.APPLICATION_NDJSON, body -> {
+            try (MappingIterator<DeputyDocumentResult> results = resultReader.readValues(body)) {
+                while (results.hasNextValue()) {
+                    onEach.accept(results.nextValue());
+                }
+            }
+        });
+    }
+
+    /**
+     * deputyDocuments 와 같지만 Base64 JSON 대신 PDF 원본 byte 를 받는다.
+     * 문서마다 헤더 한 줄(JSON)과 PDF 본문 length byte 가 이어지며, 한 문서를 다 읽을 때마다 onEach 호출
+     */
+    public void deputyDocumentPdfs(final List<GetDeputyDocumentRequest> requests, final Consumer<DeputyDocumentResult> onEach) {
+        documents(requests, PDF_FRAMES, body -> {
+            final InputStream in = new BufferedInputStream(body);
+            byte[] header;
+            while ((header = readLine(in)) != null) {
+                final DeputyDocumentResult result = resultReader.readValue(header);
+                final byte[] pdf = in.readNBytes(result.length());
+                if (pdf.length != result.length()) {
+                    throw new EOFException("BT documents response truncated at index " + result.index());
+                }
+                onEach.accept(result.withPdf(result.length() == 0 ? null : pdf));
+            }
+        });
+    }
+
+    private void documents(final List<GetDeputyDocumentRequest> requests, final MediaType accept, final BodyReader reader) {
+        btClient.post()
+                .uri("/api/v1/deputy/documents")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(accept)
+                .headers(headers -> {
+                    if (recordRetry) {
+                        headers.set(HedgedRetry.ATTEMPTS_HEADER, "1");
+                    }
+                })
+                .body(requests)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw statusException(response);
+                    }
+                    reader.read(response.getBody());
+                    return null;
+                });
+    }
+
+    // retrieve() 와 같은 상태별 예외(5xx/429 는 일시적 실패로, 503/429 는 bulkhead 의 과부하 신호로 분류된다)
+    private static RestClientResponseException statusException(final ClientHttpResponse response) throws IOException {
+        final HttpStatusCode status = response.getStatusCode();
+        final byte[] body = response.getBody().readAllBytes();
+        if (status.is5xxServerError()) {
+            return HttpServerErrorException.create(status, response.getStatusText(), response.getHeaders(), body, null);
+        }
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, response.getStatusText(), response.getHeaders(), body, null);
+        }
+        return new UnknownHttpStatusCodeException(status.value(), response.getStatusText(), response.getHeaders(), body, null);
+    }
+
+    // 헤더 줄('\n' 전까지). 스트림 끝이면 null
+    private static byte[] readLine(final InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        return line.toByteArray();
+    }
+
+    private <T> T resilient(final Supplier<T> request) {
+        if (hedgedRetry == null) {
+            return request.get();
+        }
+        return recordRetry ? hedgedRetry.call(1, request) : hedgedRetry.call(request);
+    }
+
+    // 건건이 조회는 이 클라이언트나 스텝이 재시도하므로 BT 는 Court 를 한 번만 호출
+    private void singleAttempt(final HttpHeaders headers) {
+        if (recordRetry || hedgedRetry != null) {
+            headers.set(HedgedRetry.ATTEMPTS_HEADER, "1");
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyReader {
+        void read(InputStream body) throws IOException;
+    }
 }
@@ -0,0 +1,142 @@
+package com.poc.lab.batch.deputy.service;
+
+import com.poc.lab.batch.deputy.dto.DeputyDocumentResult;
+import com.poc.lab.batch.deputy.dto.GetDeputyDocumentRequest;
+import com.poc.lab.batch.deputy.execution.Bulkhead;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프로세서의 개별 문서 조회 요청을 모아 BT 일괄 조회 한 번으로 보낸다
+ * - maxBatchSize 만큼 모이거나 첫 요청 후 linger 가 지나면 전송
+ * - 응답 줄이 도착하는 대로 해당 요청의 future 를 완료(조회가 빨리 끝난 문서부터 렌더링 시작)
+ * - future 는 PDF 원본 byte 로 완료. binaryTransport 면 BT 가 PDF 프레임으로 보내 Base64 를 거치지 않는다
+ * - 응답에 없는 문서는 null, BT 가 실패로 돌려준 문서는 502 예외로 완료. 호출 자체가 실패하면 남은 future 를 예외로 완료
+ */
+public class DeputyDocumentBatcher {
+
+    private final BtService btService;
+    private final Bulkhead bulkhead;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("bt-batcher").daemon().factory());
+
+    private boolean binaryTransport = false;
+
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> lingerTask;
+
+    public DeputyDocumentBatcher(final BtService btService, final Bulkhead bulkhead,
+                                 final int maxBatchSize, final Duration linger) {
+        Assert.notNull(btService, "btService must not be null");
+        Assert.notNull(bulkhead, "bulkhead must not be null");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+        Assert.isTrue(linger != null && !linger.isNegative(), "linger must not be negative");
+        this.btService = btService;
+        this.bulkhead = bulkhead;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+    }
+
+    /**
+     * 일괄 조회를 NDJSON(Base64) 대신 PDF 원본 byte 프레임으로 받는다
+     */
+    public void setBinaryTransport(final boolean binaryTransport) {
+        this.binaryTransport = binaryTransport;
+    }
+
+    public CompletableFuture<byte[]> submit(final String userId, final String docId, final String docType) {
+        final Pending request = new Pending(new GetDeputyDocumentRequest(docId, docType, userId), new CompletableFuture<>());
+        List<Pending> ready = null;
+        synchronized (lock) {
+            pending.add(request);
+            if (pending.size() >= maxBatchSize) {
+                ready = drain();
+            } else if (lingerTask == null) {
+                lingerTask = scheduler.schedule(this::flush, lingerNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            send(ready);
+        }
+        return request.future();
+    }
+
+    public void flush() {
+        final List<Pending> ready;
+        synchronized (lock) {
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            send(ready);
+        }
+    }
+
+    public void shutdown() {
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    private List<Pending> drain() {
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        final List<Pending> ready = pending;
+        pending = new ArrayList<>();
+        return ready;
+    }
+
+    private void send(final List<Pending> batch) {
+        final List<GetDeputyDocumentRequest> requests = batch.stream().map(Pending::request).toList();
+        bulkhead.supplyAsync(() -> {
+                    if (binaryTransport) {
+                        btService.deputyDocumentPdfs(requests, result -> complete(batch, result));
+                    } else {
+                        btService.deputyDocuments(requests, result -> complete(batch, result));
+                    }
+                    return null;
+                })
+                .whenComplete((ignored, throwable) -> batch.forEach(it -> {
+                    if (throwable != null) {
+                        // 재시도 분류가 원래 예외(HTTP 상태별 예외 등)를 보도록 벗긴다
+                        it.future().completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause() : throwable);
+                    } else {
+                        it.future().complete(null);
+                    }
+                }));
+    }
+
+    private static void complete(final List<Pending> batch, final DeputyDocumentResult result) {
+        if (result.index() < 0 || result.index() >= batch.size()) {
+            return;
+        }
+        final CompletableFuture<byte[]> future = batch.get(result.index()).future();
+        if (result.error() != null) {
+            // BT 가 법원 조회에 실패한 줄. 단건 조회의 5xx 와 같게 일시적 실패로 전달
+            future.completeExceptionally(new HttpServerErrorException(HttpStatus.BAD_GATEWAY, "BT document failed: " + result.error()));
+        } else {
+            future.complete(result.pdf());
+        }
+    }
+
+    private record Pending(
+            GetDeputyDocumentRequest request,
+            CompletableFuture<byte[]> future
+    ) {
+    }
+}
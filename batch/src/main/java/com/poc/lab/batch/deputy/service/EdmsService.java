@@ -1,39 +1,118 @@
 package com.poc.lab.batch.deputy.service;
 
-import com.poc.lab.batch.deputy.ImageByteUtils;
+import com.poc.lab.batch.deputy.dto.EdmsUploadRequest;
+import com.poc.lab.batch.deputy.encode.ImageEncoder;
+import com.poc.lab.batch.deputy.encode.ImageEncoders;
+import com.poc.lab.common.http.HttpClientSettings;
+import com.poc.lab.common.http.PooledRestClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.http.MediaType;
 import org.springframework.web.client.RestClient;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import static com.poc.lab.batch.deputy.CustomStringUtils.stringOrBlank;
 
 public class EdmsService {
 
     private static final String EDMS_BASE_URL = "http://localhost:8082";
-    private final RestClient edmsClient = RestClient.builder().baseUrl(EDMS_BASE_URL).build();
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final ImageEncoder DEFAULT_ENCODER = ImageEncoders.png().forDocType(null);
+
+    private final RestClient edmsClient;
+
+    public EdmsService() {
+        this(RestClient.builder().baseUrl(EDMS_BASE_URL).build());
+    }
+
+    /**
+     * @param edmsClient base URL 이 EDMS 로 지정된 클라이언트(연결 풀, 타임아웃 포함)
+     */
+    public EdmsService(final RestClient edmsClient) {
+        this.edmsClient = edmsClient;
+    }
+
+    public static EdmsService pooled(final HttpClientSettings settings,
+                                     final MeterRegistry meterRegistry, final ObservationRegistry observationRegistry) {
+        return new EdmsService(PooledRestClients.create("edms", EDMS_BASE_URL, settings, meterRegistry, observationRegistry));
+    }
 
     public String upload(final BufferedImage image, final String userId, final String docId, final String docType) {
-        try {
-            final byte[] png = ImageByteUtils.png(image);
-            return edmsClient.post()
-                    .uri("/files")
-                    .contentType(MediaType.IMAGE_PNG)
-                    .header("X-UserId", stringOrBlank(userId))
-                    .header("X-DocId", stringOrBlank(docId))
-                    .header("X-DocType", stringOrBlank(docType))
-                    .body(png)
-                    .retrieve()
-                    .body(String.class);
-        } catch (Exception e) {
-            return null;
+        return upload(image, DEFAULT_ENCODER, userId, docId, docType);
+    }
+
+    public String upload(final BufferedImage image, final ImageEncoder encoder,
+                         final String userId, final String docId, final String docType) {
+        // 인코딩 결과를 byte[] 로 모으지 않고 요청 본문(chunked)에 바로 인코딩
+        // 실패는 예외로 전달해 호출 측 Bulkhead 가 한도/서킷 판단에 쓴다
+        return edmsClient.post()
+                .uri("/files")
+                .contentType(MediaType.parseMediaType(encoder.contentType()))
+                .header("X-UserId", stringOrBlank(userId))
+                .header("X-DocId", stringOrBlank(docId))
+                .header("X-DocType", stringOrBlank(docType))
+                .body(out -> encoder.encode(image, out))
+                .retrieve()
+                .body(String.class);
+    }
+
+    /**
+     * 여러 이미지를 multipart 한 번으로 업로드(/files/batch). 응답은 요청 순서대로 id
+     * part 본문은 byte[] 로 모으지 않고 요청 본문(chunked)에 차례로 바로 인코딩한다
+     * atomic 이면 하나라도 형식이 틀릴 때 아무것도 저장하지 않고 400, 아니면 틀린 자리만 null
+     * 실패는 예외로 전달해 호출 측 Bulkhead 가 한도/서킷 판단에 쓴다
+     */
+    public List<String> uploadAll(final List<EdmsUploadRequest> uploads, final boolean atomic) {
+        final String boundary = UUID.randomUUID().toString();
+        final String[] ids = edmsClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/files/batch").queryParam("atomic", atomic).build())
+                .contentType(new MediaType(MediaType.MULTIPART_FORM_DATA, Map.of("boundary", boundary)))
+                .body(out -> writeMultipart(uploads, boundary, out))
+                .retrieve()
+                .body(String[].class);
+        if (ids == null || ids.length != uploads.size()) {
+            throw new IllegalStateException("EDMS batch upload returned " + (ids == null ? 0 : ids.length) + " ids for " + uploads.size() + " parts");
+        }
+        return Arrays.asList(ids);
+    }
+
+    // part 마다 단건 업로드와 같은 헤더를 붙이고 본문은 인코더가 바로 쓴다
+    static void writeMultipart(final List<EdmsUploadRequest> uploads, final String boundary,
+                               final OutputStream out) throws IOException {
+        for (int i = 0; i < uploads.size(); i++) {
+            final EdmsUploadRequest upload = uploads.get(i);
+            final String head = "--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"file" + i + "\"; filename=\"file" + i + "\"\r\n"
+                    + "Content-Type: " + upload.encoder().contentType() + "\r\n"
+                    + "X-UserId: " + headerValue(upload.userId()) + "\r\n"
+                    + "X-DocId: " + headerValue(upload.docId()) + "\r\n"
+                    + "X-DocType: " + headerValue(upload.docType()) + "\r\n"
+                    + "\r\n";
+            out.write(head.getBytes(StandardCharsets.UTF_8));
+            upload.encoder().encode(upload.image(), out);
+            out.write(CRLF);
         }
+        out.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 헤더 줄을 깨뜨리는 줄바꿈은 뺀다
+    private static String headerValue(final String value) {
+        return stringOrBlank(value).replace("\r", "").replace("\n", "");
     }
 
     public Integer delete(String edmsId) {
         try {
             return edmsClient.post()
-                    .uri("/delete/files/" + edmsId)
+                    .uri("/files/delete/{id}", edmsId)
                     .retrieve()
                     .toEntity(Integer.class)
                     .getBody();
@@ -41,4 +120,20 @@ public class EdmsService {
             return 0;
         }
     }
+
+    /**
+     * 일괄 삭제. 없는 id 는 EDMS 가 건너뛰므로 재전송해도 된다
+     * 실패는 예외로 전달해 호출 측이 다시 보내게 한다
+     *
+     * @return 실제로 삭제된 파일 수
+     */
+    public int deleteAll(final Collection<String> edmsIds) {
+        final Integer deleted = edmsClient.post()
+                .uri("/files/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(edmsIds)
+                .retrieve()
+                .body(Integer.class);
+        return deleted == null ? 0 : deleted;
+    }
 }
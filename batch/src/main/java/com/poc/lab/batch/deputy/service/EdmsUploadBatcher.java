@@ -0,0 +1,118 @@
+package com.poc.lab.batch.deputy.service;
+
+import com.poc.lab.batch.deputy.dto.EdmsUploadRequest;
+import com.poc.lab.batch.deputy.encode.ImageEncoder;
+import com.poc.lab.batch.deputy.execution.Bulkhead;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 레코드의 EDMS 업로드를 모아 일괄 업로드(/files/batch) 한 번으로 보낸다
+ * - 렌더링 이미지를 그대로 모으고 maxBatchSize 만큼 모이거나 첫 요청 후 linger 가 지나면 전송
+ *   인코딩은 전송 시 요청 본문에 바로 한다(이미지 byte[] 사본을 만들지 않는다). 이미지는 future 가 끝날 때까지 쓰지 말아야 한다
+ * - 서로 다른 레코드를 묶으므로 atomic=false 로 보낸다. 형식이 틀려 저장되지 않은 이미지는 400 예외로 완료
+ * - 호출 자체가 실패하면 묶음의 모든 future 를 예외로 완료(EDMS 가 묶음 단위로 저장하므로 일부만 남지 않는다)
+ */
+public class EdmsUploadBatcher {
+
+    private final EdmsService edmsService;
+    private final Bulkhead bulkhead;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("edms-batcher").daemon().factory());
+
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> lingerTask;
+
+    public EdmsUploadBatcher(final EdmsService edmsService, final Bulkhead bulkhead,
+                             final int maxBatchSize, final Duration linger) {
+        Assert.notNull(edmsService, "edmsService must not be null");
+        Assert.notNull(bulkhead, "bulkhead must not be null");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+        Assert.isTrue(linger != null && !linger.isNegative(), "linger must not be negative");
+        this.edmsService = edmsService;
+        this.bulkhead = bulkhead;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+    }
+
+    public CompletableFuture<String> submit(final BufferedImage image, final ImageEncoder encoder,
+                                            final String userId, final String docId, final String docType) {
+        final Pending request = new Pending(new EdmsUploadRequest(image, encoder, userId, docId, docType), new CompletableFuture<>());
+        List<Pending> ready = null;
+        synchronized (lock) {
+            pending.add(request);
+            if (pending.size() >= maxBatchSize) {
+                ready = drain();
+            } else if (lingerTask == null) {
+                lingerTask = scheduler.schedule(this::flush, lingerNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            send(ready);
+        }
+        return request.future();
+    }
+
+    public void flush() {
+        final List<Pending> ready;
+        synchronized (lock) {
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            send(ready);
+        }
+    }
+
+    public void shutdown() {
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    private List<Pending> drain() {
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        final List<Pending> ready = pending;
+        pending = new ArrayList<>();
+        return ready;
+    }
+
+    private void send(final List<Pending> batch) {
+        final List<EdmsUploadRequest> uploads = batch.stream().map(Pending::request).toList();
+        bulkhead.supplyAsync(() -> edmsService.uploadAll(uploads, false))
+                .whenComplete((ids, throwable) -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        final CompletableFuture<String> future = batch.get(i).future();
+                        if (throwable != null) {
+                            future.completeExceptionally(throwable);
+                        } else if (ids.get(i) == null) {
+                            // 단건 업로드의 400 과 같게 영구 실패로 전달
+                            future.completeExceptionally(new HttpClientErrorException(HttpStatus.BAD_REQUEST, "EDMS rejected image"));
+                        } else {
+                            future.complete(ids.get(i));
+                        }
+                    }
+                });
+    }
+
+    private record Pending(
+            EdmsUploadRequest request,
+            CompletableFuture<String> future
+    ) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.poc.lab.batch.deputy.tasklet;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 파티션별 출력 파일(output.part0, output.part1, ...)을 파티션 순서대로 하나의 출력 파일로 병합
+ * - 파일 사이에는 writer 와 같은 구분자(", " + 개행)를 넣는다
+ * - output.tmp 에 병합하고 force 한 뒤 output 으로 원자적으로 옮긴다(중간에 실패해도 output 은 이전 상태)
+ * - 옮긴 뒤 병합 완료를 스텝 컨텍스트에 먼저 커밋하고, 다음 반복에서 파티션 파일을 삭제한다
+ *   재시작 시 완료 표시가 있거나 파티션 파일 없이 output 만 있으면 다시 병합하지 않는다
+ */
+public class PartitionedOutputMergeTasklet implements Tasklet {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String MERGED = "merged";
+
+    private final Path output;
+    private final int gridSize;
+    private final byte[] separator;
+
+    public PartitionedOutputMergeTasklet(final Path output, final int gridSize) {
+        this(output, gridSize, StandardCharsets.UTF_8);
+    }
+
+    public PartitionedOutputMergeTasklet(final Path output, final int gridSize, final Charset charset) {
+        Assert.notNull(output, "output must not be null");
+        Assert.isTrue(gridSize > 0, "gridSize must be positive");
+        Assert.notNull(charset, "charset must not be null");
+        this.output = output;
+        this.gridSize = gridSize;
+        this.separator = (", " + System.lineSeparator()).getBytes(charset);
+    }
+
+    public static Path partPath(final Path output, final int partitionIndex) {
+        return output.resolveSibling(output.getFileName() + PART_SUFFIX + partitionIndex);
+    }
+
+    @Override
+    public RepeatStatus execute(final StepContribution contribution, final ChunkContext chunkContext) throws Exception {
+        final ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        if (context.containsKey(MERGED)) {
+            for (int i = 0; i < gridSize; i++) {
+                Files.deleteIfExists(partPath(output, i));
+            }
+            return RepeatStatus.FINISHED;
+        }
+        final List<Path> parts = new ArrayList<>(gridSize);
+        for (int i = 0; i < gridSize; i++) {
+            final Path part = partPath(output, i);
+            if (Files.exists(part)) {
+                parts.add(part);
+            }
+        }
+        if (parts.isEmpty() && Files.exists(output)) {
+            // 이전 실행이 병합과 정리를 끝냈다
+            return RepeatStatus.FINISHED;
+        }
+        merge(parts);
+        context.putString(MERGED, output.toString());
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    private void merge(final List<Path> parts) throws IOException {
+        final Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                boolean firstWritten = false;
+                for (Path part : parts) {
+                    if (Files.size(part) == 0) {
+                        continue;
+                    }
+                    if (firstWritten) {
+                        writeFully(out, ByteBuffer.wrap(separator));
+                    }
+                    transferFully(part, out);
+                    firstWritten = true;
+                }
+                out.force(true);
+            }
+            Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void transferFully(final Path part, final FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+            final long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static void writeFully(final FileChannel out, final ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+}
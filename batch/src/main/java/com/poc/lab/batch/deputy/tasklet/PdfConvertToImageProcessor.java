@@ -1,24 +1,26 @@
 package com.poc.lab.batch.deputy.tasklet;
 
+import com.poc.lab.batch.deputy.cache.DocumentImageCache;
+import com.poc.lab.batch.deputy.compensation.EdmsDeletionQueue;
 import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
 import com.poc.lab.batch.deputy.dto.ChannelSystemDocument;
-import com.poc.lab.batch.deputy.dto.GetDeputyDocumentResponse;
+import com.poc.lab.batch.deputy.encode.ImageEncoder;
+import com.poc.lab.batch.deputy.encode.ImageEncoders;
+import com.poc.lab.batch.deputy.execution.DeputyStageExecutors;
+import com.poc.lab.batch.deputy.fault.DocumentConversionException;
+import com.poc.lab.batch.deputy.render.PdfPageRenderer;
 import com.poc.lab.batch.deputy.service.BtService;
+import com.poc.lab.batch.deputy.service.DeputyDocumentBatcher;
 import com.poc.lab.batch.deputy.service.EdmsService;
+import com.poc.lab.batch.deputy.service.EdmsUploadBatcher;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Nonnull;
-import jakarta.annotation.PreDestroy;
-import org.apache.logging.log4j.util.Strings;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.rendering.ImageType;
-import org.apache.pdfbox.rendering.PDFRenderer;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.awt.image.BufferedImage;
-import java.util.Base64;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.poc.lab.batch.deputy.CustomStringUtils.isBlank;
 import static org.apache.logging.log4j.util.Strings.isNotBlank;
@@ -27,39 +29,135 @@ public class PdfConvertToImageProcessor implements ItemProcessor<AccountingSyste
 
     private static final int RENDER_DPI = 300;
 
-    private final ThreadPoolTaskExecutor ioPool = ioBoundThreadPool();
-    private final BtService btService = new BtService();
-    private final EdmsService edmsService = new EdmsService();
+    private final DeputyStageExecutors executors;
+    private final DocumentImageCache imageCache;
+    private final BtService btService;
+    private final EdmsService edmsService;
+    private final Timer recordTimer;
+
+    private PdfPageRenderer pageRenderer;
+    private ImageEncoders imageEncoders = ImageEncoders.png();
+    private DeputyDocumentBatcher documentBatcher;
+    private EdmsUploadBatcher uploadBatcher;
+    private boolean binaryTransport = false;
+    private boolean propagateFailures = false;
+    private EdmsDeletionQueue deletionQueue;
+
+    public PdfConvertToImageProcessor(final DeputyStageExecutors executors) {
+        this(executors, DocumentImageCache.disabled());
+    }
+
+    public PdfConvertToImageProcessor(final DeputyStageExecutors executors, final DocumentImageCache imageCache) {
+        this(executors, imageCache, new BtService(), new EdmsService());
+    }
+
+    public PdfConvertToImageProcessor(final DeputyStageExecutors executors,
+                                      final DocumentImageCache imageCache,
+                                      final BtService btService,
+                                      final EdmsService edmsService) {
+        this.executors = executors;
+        this.imageCache = imageCache;
+        this.btService = btService;
+        this.edmsService = edmsService;
+        this.pageRenderer = new PdfPageRenderer(executors.render(), Metrics.globalRegistry, RENDER_DPI, 1, 0, 1);
+        this.recordTimer = Timer.builder("deputy.record.latency")
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * 렌더링 dpi, 페이지 구간, 병렬 분할 단위 지정. 기본은 300dpi 전체 페이지, 한 작업당 한 페이지
+     */
+    public void setPageRenderer(final PdfPageRenderer pageRenderer) {
+        this.pageRenderer = pageRenderer;
+    }
+
+    /**
+     * docType 별 인코더(코덱과 렌더링 색 공간). 기본은 RGB PNG
+     */
+    public void setImageEncoders(final ImageEncoders imageEncoders) {
+        this.imageEncoders = imageEncoders;
+    }
+
+    public void setDeletionQueue(final EdmsDeletionQueue deletionQueue) {
+        this.deletionQueue = deletionQueue;
+    }
+
+    /**
+     * 지정하면 BT 문서 조회를 건건이 보내지 않고 모아서 일괄 조회한다
+     */
+    public void setDocumentBatcher(final DeputyDocumentBatcher documentBatcher) {
+        this.documentBatcher = documentBatcher;
+    }
+
+    /**
+     * 지정하면 EDMS 업로드를 건건이 보내지 않고 여러 레코드를 모아서 일괄 업로드한다
+     */
+    public void setUploadBatcher(final EdmsUploadBatcher uploadBatcher) {
+        this.uploadBatcher = uploadBatcher;
+    }
+
+    /**
+     * 건건이 조회할 때 JSON(Base64) 대신 application/pdf 원본 byte 로 받는다. 일괄 조회는 batcher 의 설정을 따른다
+     */
+    public void setBinaryTransport(final boolean binaryTransport) {
+        this.binaryTransport = binaryTransport;
+    }
+
+    /**
+     * 실패한 문서를 빈 id(기본값 레코드)로 바꾸지 않고 {@link DocumentConversionException} 으로 전달한다.
+     * 일시적 실패는 {@link com.poc.lab.batch.deputy.fault.TransientDocumentException}. 스텝의 재시도/skip 정책과 함께 쓴다
+     */
+    public void setPropagateFailures(final boolean propagateFailures) {
+        this.propagateFailures = propagateFailures;
+    }
 
     @Override
     public ChannelSystemDocument process(@Nonnull final AccountingSystemDocument item) throws Exception {
-        final CompletableFuture<String> firstCertificateImagIdFuture = CompletableFuture
-                .supplyAsync(() -> familyRelationCertificatePdf(item.userId(), item.docId1(), item.docType1()), ioPool)
-                .thenApplyAsync(it -> bufferedImage(it, RENDER_DPI), ioPool)
-                .thenApplyAsync(it -> edmsService.upload(it, item.userId(), item.docId1(), item.docType1()), ioPool)
-                .handle((firstImageId, throwable) -> throwable == null ? firstImageId : "");
+        try {
+            return processAsync(item).join();
+        } catch (CompletionException e) {
+            // 스텝의 재시도/skip 분류가 원래 예외를 보도록 벗긴다
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 레코드 하나의 두 문서 변환을 비동기로 시작하고 결과 future 를 바로 반환
+     */
+    public CompletableFuture<ChannelSystemDocument> processAsync(@Nonnull final AccountingSystemDocument item) {
+        final Timer.Sample sample = Timer.start();
+        final CompletableFuture<String> firstCertificateImagIdFuture =
+                certificateImageId(item.userId(), item.docId1(), item.docType1());
 
-        final CompletableFuture<String> secondCertificateImagIdFuture = CompletableFuture
-                .supplyAsync(() -> familyRelationCertificatePdf(item.userId(), item.docId2(), item.docType2()), ioPool)
-                .thenApplyAsync(it -> bufferedImage(it, RENDER_DPI), ioPool)
-                .thenApplyAsync(it -> edmsService.upload(it, item.userId(), item.docId2(), item.docType2()), ioPool)
-                .handle((firstImageId, throwable) -> throwable == null ? firstImageId : "");
+        final CompletableFuture<String> secondCertificateImagIdFuture =
+                certificateImageId(item.userId(), item.docId2(), item.docType2());
 
-        firstCertificateImagIdFuture.join();
-        secondCertificateImagIdFuture.join();
+        final CompletableFuture<ChannelSystemDocument> channelDocument = propagateFailures
+                ? firstCertificateImagIdFuture.handle(ImageIdOutcome::new).thenCombine(secondCertificateImagIdFuture.handle(ImageIdOutcome::new),
+                        (first, second) -> channelDocumentOrFailure(item, first, second))
+                : firstCertificateImagIdFuture.thenCombine(secondCertificateImagIdFuture,
+                        (firstCertificateImagId, secondCertificateImagId) -> channelDocument(item, firstCertificateImagId, secondCertificateImagId));
 
-        final String firstCertificateImagId = firstCertificateImagIdFuture.get();
-        final String secondCertificateImagId = secondCertificateImagIdFuture.get();
+        // 레코드 하나(두 문서 조회/렌더링/업로드)의 전체 처리 시간
+        return channelDocument.whenComplete((ignored, throwable) -> sample.stop(recordTimer));
+    }
 
+    private ChannelSystemDocument channelDocument(final AccountingSystemDocument item,
+                                                  final String firstCertificateImagId,
+                                                  final String secondCertificateImagId) {
         if (isBlank(firstCertificateImagId) && isBlank(secondCertificateImagId)) {
             return ChannelSystemDocument.defaults(item);
         }
         if (isNotBlank(firstCertificateImagId) && isBlank(secondCertificateImagId)) {
-            edmsService.delete(firstCertificateImagId);
+            delete(firstCertificateImagId);
             return ChannelSystemDocument.defaults(item);
         }
         if (isBlank(firstCertificateImagId) && isNotBlank(secondCertificateImagId)) {
-            edmsService.delete(secondCertificateImagId);
+            delete(secondCertificateImagId);
             return ChannelSystemDocument.defaults(item);
         }
         return new ChannelSystemDocument(
@@ -74,46 +172,92 @@ public class PdfConvertToImageProcessor implements ItemProcessor<AccountingSyste
         );
     }
 
-    private String familyRelationCertificatePdf(String userId, String docId, String docType) {
-        try {
-            return Optional.ofNullable(btService.deputyDocument(userId, docId, docType))
-                    .map(GetDeputyDocumentResponse::pdf)
-                    .filter(Strings::isNotBlank)
-                    .orElse(null);
-        } catch (Exception e) {
-            return null;
+    // 둘 다 성공해야 레코드 성공. 한쪽만 성공했으면 올린 이미지를 지우고 실패로 전달
+    private ChannelSystemDocument channelDocumentOrFailure(final AccountingSystemDocument item,
+                                                           final ImageIdOutcome first,
+                                                           final ImageIdOutcome second) {
+        if (first.succeeded() && second.succeeded()) {
+            return channelDocument(item, first.imageId(), second.imageId());
+        }
+        if (first.succeeded()) {
+            delete(first.imageId());
+        }
+        if (second.succeeded()) {
+            delete(second.imageId());
         }
+        throw DocumentConversionException.of(item, first.succeeded() ? second.cause() : first.cause());
     }
 
-    private BufferedImage bufferedImage(final String pdf, final int dpi) {
-        try {
-            try (var doc = Loader.loadPDF(Base64.getDecoder().decode(pdf))) {
-                if (doc.getNumberOfPages() <= 0) {
-                    return null;
-                }
-                final PDFRenderer renderer = new PDFRenderer(doc);
-                return renderer.renderImageWithDPI(0, dpi, ImageType.RGB);
+    // BT 조회 -> 렌더링 -> EDMS 업로드, 단계마다 해당 실행기에서 실행
+    // 같은 문서(식별자 또는 PDF 내용)는 캐시된 EDMS id 를 재사용
+    private CompletableFuture<String> certificateImageId(final String userId, final String docId, final String docType) {
+        final CompletableFuture<String> imageId = imageCache.byDocument(userId, docId, docType, () -> familyRelationCertificatePdf(userId, docId, docType)
+                .thenCompose(pdf -> {
+                    final ImageEncoder encoder = imageEncoders.forDocType(docType);
+                    return imageCache.byContent(pdf, encoder.name(), () -> uploadedImageId(pdf, encoder, userId, docId, docType));
+                }));
+        return propagateFailures ? imageId : imageId.handle((it, throwable) -> throwable == null ? it : "");
+    }
+
+    private CompletableFuture<String> uploadedImageId(final byte[] pdf, final ImageEncoder encoder,
+                                                      final String userId, final String docId, final String docType) {
+        // 렌더링 메모리 예약은 업로드가 끝날 때까지 유지
+        return pageRenderer.render(pdf, encoder.imageType(), it -> {
+            if (it == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (uploadBatcher != null) {
+                return uploadBatcher.submit(it, encoder, userId, docId, docType);
             }
-        } catch (Exception e) {
-            return null;
+            return executors.edms().supplyAsync(() -> edmsService.upload(it, encoder, userId, docId, docType));
+        });
+    }
+
+    // 다른 레코드와 공유 중인 id 는 삭제하지 않는다
+    // 삭제는 기다리지 않으며, EDMS 서킷이 열려 거부되더라도 레코드 처리는 실패시키지 않는다
+    // 보상 큐가 있으면 기록 후 일괄 삭제에 맡긴다(실패해도 다음 주기/다음 실행에서 다시 지운다)
+    private void delete(final String edmsId) {
+        if (!imageCache.release(edmsId)) {
+            return;
+        }
+        if (deletionQueue != null) {
+            deletionQueue.enqueue(edmsId);
+            return;
         }
+        executors.edms().supplyAsync(() -> edmsService.delete(edmsId));
     }
 
-    public ThreadPoolTaskExecutor ioBoundThreadPool() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(10);
-        executor.setThreadNamePrefix("batch-io-");
-        executor.initialize();
-        return executor;
+    private CompletableFuture<byte[]> familyRelationCertificatePdf(final String userId, final String docId, final String docType) {
+        final CompletableFuture<byte[]> pdf;
+        if (documentBatcher != null) {
+            pdf = documentBatcher.submit(userId, docId, docType);
+        } else if (binaryTransport) {
+            pdf = executors.bt().supplyAsync(() -> btService.deputyDocumentPdf(userId, docId, docType));
+        } else {
+            pdf = executors.bt().supplyAsync(() -> btService.deputyDocument(userId, docId, docType))
+                    .thenApply(it -> it == null ? null : it.pdf());
+        }
+        return pdf.thenApply(it -> requirePdf(it, docId, docType));
     }
 
+    // 빈 응답은 재시도해도 같으므로 일반 실패로 처리
+    private static byte[] requirePdf(final byte[] pdf, final String docId, final String docType) {
+        if (pdf == null || pdf.length == 0) {
+            throw new IllegalStateException("Empty document " + docType + "/" + docId);
+        }
+        return pdf;
+    }
+
+    private record ImageIdOutcome(
+            String imageId,
+            Throwable failure
+    ) {
+        boolean succeeded() {
+            return failure == null && isNotBlank(imageId);
+        }
 
-    @PreDestroy
-    public void cleanup() {
-        if (ioPool != null) {
-            ioPool.shutdown();
+        Throwable cause() {
+            return failure != null ? failure : new IllegalStateException("Empty image id");
         }
     }
 }
@@ -1,34 +1,61 @@
 package com.poc.lab.batch.deputy.writer;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.core.io.WritableResource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.util.concurrent.locks.ReentrantLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * 출력 포맷: {..}\n, {..}\n, {..}
  * - JSON 배열로 감싸지 않음
  * - 아이템 사이에 쉼표와 개행 추가
+ * - 재사용 JsonGenerator 가 direct buffer 에 직렬화하고, 커밋 직전(update)에만 파일로 flush
+ * - 커밋된 byte 위치와 firstWritten 을 ExecutionContext 에 저장, 재시작 시 그 위치로 잘라내고 이어 쓴다
+ * - 트랜잭션 롤백 시에도 마지막 커밋 위치로 되돌린다
  */
 public class ChannelLineDelimitedJsonItemWriter<T> implements ItemStreamWriter<T> {
 
+    private static final String POSITION_KEY = "position";
+    private static final String FIRST_WRITTEN_KEY = "firstWritten";
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
     private final WritableResource resource;
     private final ObjectWriter writer;
+    private final JsonFactory jsonFactory;
     private final Charset charset;
+    private final String separator = ", " + System.lineSeparator();
+
+    private String name = "channelLineDelimitedJsonItemWriter";
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private boolean forceSync = false;
 
-    private BufferedWriter out;
+    private FileChannel channel;
+    private JsonGenerator generator;
     private boolean firstWritten = false;
 
+    // 마지막 커밋 시점 상태(롤백 시 복구용)
+    private long committedPosition = 0;
+    private boolean committedFirstWritten = false;
+
     public ChannelLineDelimitedJsonItemWriter(WritableResource resource, ObjectMapper mapper, Class<T> type) {
         this(resource, mapper, type, Charset.forName("UTF-8"));
     }
@@ -39,19 +66,58 @@ public class ChannelLineDelimitedJsonItemWriter<T> implements ItemStreamWriter<T
         Assert.notNull(type, "type must not be null");
         Assert.notNull(charset, "charset must not be null");
         this.resource = resource;
-        this.writer = mapper.writerFor(type);
+        // 아이템마다 flush 하지 않도록 FLUSH_AFTER_WRITE_VALUE 해제
+        this.writer = mapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.jsonFactory = mapper.getFactory();
         this.charset = charset;
     }
 
+    /**
+     * ExecutionContext 키 접두어. 한 스텝에 writer 가 여럿이면 서로 다르게 지정한다.
+     */
+    public void setName(final String name) {
+        Assert.hasText(name, "name must not be empty");
+        this.name = name;
+    }
+
+    public void setBufferSize(final int bufferSize) {
+        Assert.isTrue(bufferSize > 0, "bufferSize must be positive");
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 커밋마다 디스크 동기화(fsync) 여부
+     */
+    public void setForceSync(final boolean forceSync) {
+        this.forceSync = forceSync;
+    }
+
     @Override
     public void open(ExecutionContext executionContext) throws ItemStreamException {
         try {
-            if (resource.exists()) {
-                resource.getFile().getParentFile().mkdirs();
-                resource.getFile().delete(); // 새로 생성
+            final Path path = resource.getFile().toPath();
+            final Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
             }
-            this.out = new BufferedWriter(new OutputStreamWriter(resource.getOutputStream(), charset));
-            this.firstWritten = false;
+            if (executionContext.containsKey(key(POSITION_KEY))) {
+                // 재시작: 마지막 커밋 위치 이후(커밋되지 않은 출력)를 잘라내고 이어 쓴다
+                final long position = executionContext.getLong(key(POSITION_KEY));
+                this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                if (channel.size() < position) {
+                    throw new ItemStreamException("Output is shorter than committed position " + position + ": " + resource);
+                }
+                channel.truncate(position);
+                channel.position(position);
+                this.firstWritten = Boolean.TRUE.equals(executionContext.get(key(FIRST_WRITTEN_KEY)));
+            } else {
+                this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING); // 새로 생성
+                this.firstWritten = false;
+            }
+            this.committedPosition = channel.position();
+            this.committedFirstWritten = firstWritten;
+            this.generator = createGenerator(new DirectBufferChannelOutputStream(channel, bufferSize));
         } catch (IOException e) {
             throw new ItemStreamException("Failed to open writer for " + resource, e);
         }
@@ -59,34 +125,107 @@ public class ChannelLineDelimitedJsonItemWriter<T> implements ItemStreamWriter<T
 
     @Override
     public void write(Chunk<? extends T> chunk) throws Exception {
+        registerTransactionSynchronization();
         for (T item : chunk) {
-            String json = writer.writeValueAsString(item);
             if (firstWritten) {
-                out.write(", ");
-                out.newLine();
+                generator.writeRaw(separator);
             }
-            out.write(json);
+            writer.writeValue(generator, item);
             firstWritten = true;
         }
-        out.flush();
     }
 
     @Override
     public void update(ExecutionContext executionContext) throws ItemStreamException {
-        // 필요 시 상태 저장 로직 추가 가능(여기서는 생략)
+        if (generator == null) {
+            return;
+        }
+        try {
+            flush();
+            executionContext.putLong(key(POSITION_KEY), channel.position());
+            executionContext.put(key(FIRST_WRITTEN_KEY), firstWritten);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                markCommitted();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to flush writer for " + resource, e);
+        }
     }
 
     @Override
     public void close() throws ItemStreamException {
-        if (out != null) {
-            try {
-                out.flush();
-                out.close();
-            } catch (IOException e) {
-                throw new ItemStreamException("Failed to close writer for " + resource, e);
-            } finally {
-                out = null;
-            }
+        if (channel == null) {
+            return;
+        }
+        try {
+            flush();
+            generator.close();
+            channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close writer for " + resource, e);
+        } finally {
+            generator = null;
+            channel = null;
         }
     }
+
+    private JsonGenerator createGenerator(final DirectBufferChannelOutputStream out) throws IOException {
+        final JsonGenerator jsonGenerator = StandardCharsets.UTF_8.equals(charset)
+                ? jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+                : jsonFactory.createGenerator(new OutputStreamWriter(out, charset));
+        // 루트 값 사이 기본 구분자(공백) 대신 직접 ", \n" 을 쓴다
+        jsonGenerator.setRootValueSeparator(null);
+        jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return jsonGenerator;
+    }
+
+    private void flush() throws IOException {
+        generator.flush();
+        if (forceSync) {
+            channel.force(false);
+        }
+    }
+
+    private void markCommitted() throws IOException {
+        this.committedPosition = channel.position();
+        this.committedFirstWritten = firstWritten;
+    }
+
+    private void rollback() throws IOException {
+        generator.flush();
+        channel.truncate(committedPosition);
+        channel.position(committedPosition);
+        this.firstWritten = committedFirstWritten;
+    }
+
+    // 트랜잭션마다 한 번만 등록: 커밋되면 위치 확정, 롤백되면 마지막 커밋 위치로 되돌림
+    private void registerTransactionSynchronization() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChannelLineDelimitedJsonItemWriter.this);
+                if (channel == null) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        markCommitted();
+                    } else {
+                        rollback();
+                    }
+                } catch (IOException e) {
+                    throw new ItemStreamException("Failed to complete transaction for " + resource, e);
+                }
+            }
+        });
+    }
+
+    private String key(final String key) {
+        return name + "." + key;
+    }
 }
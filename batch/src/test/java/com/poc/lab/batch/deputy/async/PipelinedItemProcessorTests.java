@@ -0,0 +1,62 @@
+package com.poc.lab.batch.deputy.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PipelinedItemProcessorTests {
+
+    @Test
+    void retriesRetryableFailureUntilSuccess() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final PipelinedItemProcessor<String, String> processor = new PipelinedItemProcessor<>(item ->
+                calls.incrementAndGet() < 3
+                        ? CompletableFuture.failedFuture(new IllegalStateException("busy"))
+                        : CompletableFuture.completedFuture(item.toUpperCase()));
+        processor.setRetry(3, Duration.ofMillis(1), IllegalStateException.class::isInstance);
+
+        assertThat(processor.process("a").get(1, TimeUnit.SECONDS)).isEqualTo("A");
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void givesUpAfterMaxAttemptsWithOriginalException() {
+        final AtomicInteger calls = new AtomicInteger();
+        final PipelinedItemProcessor<String, String> processor = new PipelinedItemProcessor<>(item -> {
+            calls.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> {
+                throw new IllegalStateException("busy");
+            });
+        });
+        processor.setRetry(2, Duration.ZERO, IllegalStateException.class::isInstance);
+
+        final Future<String> result = processor.process("a");
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(IllegalStateException.class).hasMessage("busy");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        final AtomicInteger calls = new AtomicInteger();
+        final PipelinedItemProcessor<String, String> processor = new PipelinedItemProcessor<>(item -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalArgumentException("bad"));
+        });
+        processor.setRetry(3, Duration.ZERO, IllegalStateException.class::isInstance);
+
+        assertThatThrownBy(() -> processor.process("a").get(1, TimeUnit.SECONDS))
+                .cause().isInstanceOf(IllegalArgumentException.class);
+        assertThat(calls).hasValue(1);
+    }
+}
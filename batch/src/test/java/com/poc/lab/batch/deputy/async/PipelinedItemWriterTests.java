@@ -0,0 +1,103 @@
+package com.poc.lab.batch.deputy.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PipelinedItemWriterTests {
+
+    private final List<String> written = new ArrayList<>();
+    private final ItemStreamWriter<String> delegate = chunk -> written.addAll(chunk.getItems());
+    private StepExecution stepExecution;
+
+    @BeforeEach
+    void registerStep() {
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        StepSynchronizationManager.register(stepExecution);
+    }
+
+    @AfterEach
+    void releaseStep() {
+        StepSynchronizationManager.close();
+    }
+
+    @Test
+    void orderedWritesInInputOrder() throws Exception {
+        final PipelinedItemWriter<String> writer = new PipelinedItemWriter<>(delegate, true);
+
+        writer.write(Chunk.of(later("a"), CompletableFuture.completedFuture("b")));
+
+        assertThat(written).containsExactly("a", "b");
+    }
+
+    @Test
+    void unorderedWritesInCompletionOrder() throws Exception {
+        final PipelinedItemWriter<String> writer = new PipelinedItemWriter<>(delegate, false);
+
+        writer.write(Chunk.of(later("a"), CompletableFuture.completedFuture("b")));
+
+        assertThat(written).containsExactly("b", "a");
+    }
+
+    @Test
+    void skippedRecordsAreLeftOutAndReportedToStep() throws Exception {
+        final List<Throwable> skipped = new ArrayList<>();
+        final PipelinedItemWriter<String> writer = new PipelinedItemWriter<>(delegate, true);
+        writer.setSkipPolicy(IllegalStateException.class::isInstance, 2, skipped::add);
+        final IllegalStateException failure = new IllegalStateException("broken");
+        final Chunk<Future<String>> chunk = Chunk.of(
+                CompletableFuture.completedFuture("a"), CompletableFuture.failedFuture(failure), CompletableFuture.completedFuture("c"));
+
+        writer.write(chunk);
+
+        assertThat(written).containsExactly("a", "c");
+        assertThat(skipped).containsExactly(failure);
+        // 청크에서 빠지므로 스텝의 writeCount 에 들어가지 않는다
+        assertThat(chunk.size()).isEqualTo(2);
+        assertThat(stepExecution.getProcessSkipCount()).isEqualTo(1);
+        assertThat(stepExecution.getExecutionContext().getInt("pipelinedItemWriter.skipCount")).isEqualTo(1);
+    }
+
+    @Test
+    void skipLimitCountsSkipsBeforeRestart() {
+        final PipelinedItemWriter<String> writer = new PipelinedItemWriter<>(delegate, true);
+        writer.setSkipPolicy(IllegalStateException.class::isInstance, 1, it -> {
+        });
+        // 재시작 전 실행에서 이미 한 건 skip
+        stepExecution.getExecutionContext().putInt("pipelinedItemWriter.skipCount", 1);
+
+        assertThatThrownBy(() -> writer.write(Chunk.of(CompletableFuture.failedFuture(new IllegalStateException("broken")))))
+                .isInstanceOf(SkipLimitExceededException.class);
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    void otherFailuresAreRethrownUnwrapped() {
+        final PipelinedItemWriter<String> writer = new PipelinedItemWriter<>(delegate, true);
+        writer.setSkipPolicy(IllegalStateException.class::isInstance, 10, it -> {
+        });
+
+        assertThatThrownBy(() -> writer.write(Chunk.of(CompletableFuture.failedFuture(new IllegalArgumentException("bad")))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(stepExecution.getProcessSkipCount()).isZero();
+    }
+
+    private static CompletableFuture<String> later(final String item) {
+        return CompletableFuture.supplyAsync(() -> item, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+    }
+}
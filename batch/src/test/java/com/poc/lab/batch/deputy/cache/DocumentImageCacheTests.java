@@ -0,0 +1,53 @@
+package com.poc.lab.batch.deputy.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentImageCacheTests {
+
+    @Test
+    void sharedIdIsReleasedOnlyByLastReference() {
+        final DocumentImageCache cache = DocumentImageCache.of(100, Duration.ofMinutes(1));
+        final AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.byDocument("u-1", "A-001", "basic", () -> upload(loads, "e-1")).join()).isEqualTo("e-1");
+        assertThat(cache.byDocument("u-1", "A-001", "basic", () -> upload(loads, "e-2")).join()).isEqualTo("e-1");
+
+        assertThat(cache.release("e-1")).isFalse();
+        assertThat(cache.release("e-1")).isTrue();
+        // 마지막 참조를 해제하면 캐시에서도 빠져 다시 업로드
+        assertThat(cache.byDocument("u-1", "A-001", "basic", () -> upload(loads, "e-3")).join()).isEqualTo("e-3");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void idReleasedWhileLoadingIsNotReused() {
+        final DocumentImageCache cache = DocumentImageCache.of(100, Duration.ofMinutes(1));
+        final CompletableFuture<String> inFlight = new CompletableFuture<>();
+        final Queue<CompletableFuture<String>> loads = new ArrayDeque<>(List.of(inFlight, CompletableFuture.completedFuture("e-2")));
+
+        assertThat(cache.byDocument("u-1", "A-001", "basic", () -> CompletableFuture.completedFuture("e-1")).join()).isEqualTo("e-1");
+        final CompletableFuture<String> second = cache.byDocument("u-2", "A-002", "basic", loads::poll);
+
+        // 두 번째 레코드가 같은 id 를 받기 직전에 첫 레코드가 id 를 삭제
+        assertThat(cache.release("e-1")).isTrue();
+        inFlight.complete("e-1");
+
+        assertThat(second.join()).isEqualTo("e-2");
+        assertThat(loads).isEmpty();
+        assertThat(cache.release("e-2")).isTrue();
+    }
+
+    private static CompletableFuture<String> upload(final AtomicInteger loads, final String edmsId) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(edmsId);
+    }
+}
@@ -0,0 +1,103 @@
+package com.poc.lab.batch.deputy.compensation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeletionJournalTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reopenReturnsIdsNotYetDeleted() {
+        final Path path = tempDir.resolve("to/edms-deletions.journal");
+        DeletionJournal journal = new DeletionJournal(path, true);
+        assertThat(journal.open()).isEmpty();
+        journal.added("e-1", 1_000L);
+        journal.added("e-2", 2_000L);
+        journal.added("e-3", 3_000L);
+        journal.removed(List.of("e-2"));
+        // close 없이 중단
+        journal = new DeletionJournal(path, true);
+
+        assertThat(journal.open()).containsExactly(Map.entry("e-1", 1_000L), Map.entry("e-3", 3_000L));
+        journal.close();
+    }
+
+    @Test
+    void ignoresTruncatedLastLine() throws Exception {
+        final Path path = tempDir.resolve("edms-deletions.journal");
+        Files.writeString(path, "+ 1000 e-1\n+ 2000 e-", StandardCharsets.UTF_8);
+
+        final DeletionJournal journal = new DeletionJournal(path, false);
+
+        assertThat(journal.open()).containsOnlyKeys("e-1");
+        journal.added("e-2", 3_000L);
+        journal.close();
+        assertThat(Files.readString(path, StandardCharsets.UTF_8)).isEqualTo("+ 1000 e-1\n+ 3000 e-2\n");
+    }
+
+    @Test
+    void compactKeepsOnlyPendingIds() throws Exception {
+        final Path path = tempDir.resolve("edms-deletions.journal");
+        final DeletionJournal journal = new DeletionJournal(path, false);
+        journal.open();
+        journal.added("e-1", 1_000L);
+        journal.added("e-2", 2_000L);
+        journal.removed(List.of("e-1"));
+        assertThat(journal.records()).isEqualTo(3);
+
+        journal.compact(Map.of("e-2", 2_000L));
+        journal.added("e-3", 3_000L);
+        journal.close();
+
+        assertThat(journal.records()).isEqualTo(2);
+        assertThat(Files.readAllLines(path, StandardCharsets.UTF_8)).containsExactly("+ 2000 e-2", "+ 3000 e-3");
+        Files.writeString(path, "- e-2\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertThat(new DeletionJournal(path, false).open()).containsOnlyKeys("e-3");
+    }
+
+    @Test
+    void concurrentSyncedAddsAreAllRecoveredAcrossCompaction() throws Exception {
+        final Path path = tempDir.resolve("edms-deletions.journal");
+        final DeletionJournal journal = new DeletionJournal(path, true);
+        journal.open();
+        // 큐와 같이 등록(pending)을 먼저 하고 기록한다
+        final Map<String, Long> pending = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            final List<Future<?>> adds = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                final String id = "e-" + i;
+                final long enqueuedAt = i;
+                adds.add(executor.submit(() -> {
+                    pending.put(id, enqueuedAt);
+                    journal.added(id, enqueuedAt);
+                    if (enqueuedAt % 100 == 0) {
+                        journal.compact(() -> new LinkedHashMap<>(pending));
+                    }
+                }));
+            }
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        }
+        // close 없이 중단
+
+        assertThat(new DeletionJournal(path, false).open()).hasSize(500);
+    }
+}
@@ -0,0 +1,102 @@
+package com.poc.lab.batch.deputy.execution;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTests {
+
+    @Test
+    void openCircuitRejectsWithoutCallingDownstream() {
+        final Bulkhead bulkhead = new Bulkhead("edms", Runnable::run, AimdLimit.fixed(8),
+                new CircuitBreaker(0.5, 10, 4, Duration.ofMinutes(1), 1), null);
+        final AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> bulkhead.call(() -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            })).isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThat(bulkhead.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> bulkhead.call(calls::incrementAndGet))
+                .isInstanceOf(DownstreamRejectedException.class)
+                .extracting("reason").isEqualTo(Bulkhead.REJECTED_CIRCUIT_OPEN);
+        assertThat(calls).hasValue(4);
+        assertThat(bulkhead.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        final Bulkhead bulkhead = new Bulkhead("bt", Runnable::run, AimdLimit.fixed(8),
+                new CircuitBreaker(0.5, 10, 4, Duration.ofMinutes(1), 1), null);
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> bulkhead.call(() -> {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            })).isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(bulkhead.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void overloadShrinksLimitAndSuccessGrowsItBack() {
+        final Bulkhead bulkhead = new Bulkhead("bt", Runnable::run,
+                new AimdLimit(16, 2, 64, Duration.ofMinutes(1), 0.5), CircuitBreaker.disabled(), null);
+
+        assertThatThrownBy(() -> bulkhead.call(() -> {
+            throw new ResourceAccessException("read timed out");
+        })).isInstanceOf(ResourceAccessException.class);
+        assertThat(bulkhead.limit()).isEqualTo(8);
+
+        // 한도의 절반 이상을 쓰는 동안만 늘어난다
+        final AimdLimit limit = new AimdLimit(8, 2, 64, Duration.ofMinutes(1), 0.5);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(System.nanoTime(), limit.limit(), false);
+        }
+        assertThat(limit.limit()).isGreaterThan(8);
+        final int grown = limit.limit();
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(System.nanoTime(), 1, false);
+        }
+        assertThat(limit.limit()).isEqualTo(grown);
+    }
+
+    @Test
+    void waitingLongerThanMaxWaitIsRejected() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead("edms", Runnable::run, AimdLimit.fixed(1),
+                CircuitBreaker.disabled(), Duration.ofMillis(50));
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> bulkhead.call(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        started.await();
+
+        assertThatThrownBy(() -> bulkhead.call(() -> "late"))
+                .isInstanceOf(DownstreamRejectedException.class)
+                .extracting("reason").isEqualTo(Bulkhead.REJECTED_WAIT_TIMEOUT);
+
+        release.countDown();
+        holder.join();
+        assertThat(bulkhead.call(() -> "next")).isEqualTo("next");
+    }
+}
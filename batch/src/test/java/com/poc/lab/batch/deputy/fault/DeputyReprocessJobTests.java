@@ -0,0 +1,151 @@
+package com.poc.lab.batch.deputy.fault;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.async.PipelinedItemProcessor;
+import com.poc.lab.batch.deputy.async.PipelinedItemWriter;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import com.poc.lab.batch.deputy.dto.ChannelSystemDocument;
+import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectStreamItemReader;
+import com.poc.lab.batch.deputy.writer.ChannelLineDelimitedJsonItemWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 파이프라인 스텝에서 skip 된 레코드가 실패 파일로 남고, deputyReprocessJob 구성(실패 파일 → 재처리 출력)으로 다시 처리되는지
+ */
+class DeputyReprocessJobTests {
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedDatabase database;
+    private JdbcTransactionManager txManager;
+    private JobRepository jobRepository;
+    private TaskExecutorJobLauncher jobLauncher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        txManager = new JdbcTransactionManager(database);
+        final JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(txManager);
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+        jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void skippedRecordsAreReprocessedFromFailedFile() throws Exception {
+        final Path input = tempDir.resolve("accounting");
+        Files.writeString(input, """
+                {"userId":"u-1","docId1":"A-001","docType1":"basic","edmsId1":"","docId2":"B-001","docType2":"family","edmsId2":"","guid":""},
+                {"userId":"u-2","docId1":"A-002","docType1":"basic","edmsId1":"","docId2":"B-002","docType2":"family","edmsId2":"","guid":""},
+                {"userId":"u-3","docId1":"A-003","docType1":"basic","edmsId1":"","docId2":"B-003","docType2":"family","edmsId2":"","guid":""}
+                """, StandardCharsets.UTF_8);
+        final Path output = tempDir.resolve("channel");
+        final Path failed = tempDir.resolve("failed");
+        final Path reprocessed = tempDir.resolve("channel-reprocessed");
+
+        final JobExecution first = run("deputyDocumentJob", step("courtDocumentFileStep", input, output, failed, item -> "u-2".equals(item.userId())
+                ? CompletableFuture.failedFuture(new DocumentConversionException(item, new IllegalStateException("no document")))
+                : CompletableFuture.completedFuture(ChannelSystemDocument.defaults(item))));
+
+        final StepExecution firstStep = first.getStepExecutions().iterator().next();
+        assertThat(first.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(firstStep.getReadCount()).isEqualTo(3);
+        assertThat(firstStep.getWriteCount()).isEqualTo(2);
+        assertThat(firstStep.getProcessSkipCount()).isEqualTo(1);
+        assertThat(firstStep.getSkipCount()).isEqualTo(1);
+        assertThat(readAll(output, ChannelSystemDocument.class)).extracting(ChannelSystemDocument::userId).containsExactly("u-1", "u-3");
+
+        final JobExecution second = run("deputyReprocessJob", step("courtDocumentReprocessStep", failed, reprocessed, tempDir.resolve("failed-reprocessed"),
+                item -> CompletableFuture.completedFuture(ChannelSystemDocument.defaults(item))));
+
+        final StepExecution secondStep = second.getStepExecutions().iterator().next();
+        assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(secondStep.getReadCount()).isEqualTo(1);
+        assertThat(secondStep.getProcessSkipCount()).isZero();
+        assertThat(readAll(reprocessed, ChannelSystemDocument.class)).extracting(ChannelSystemDocument::userId).containsExactly("u-2");
+    }
+
+    // 설정의 파이프라인 + faultTolerant 스텝과 같은 구성
+    private Step step(final String name, final Path input, final Path output, final Path failed,
+                      final Function<AccountingSystemDocument, CompletableFuture<ChannelSystemDocument>> convert) {
+        final PipelinedItemProcessor<AccountingSystemDocument, ChannelSystemDocument> processor = new PipelinedItemProcessor<>(convert);
+        processor.setRetry(2, Duration.ZERO, TransientDocumentException.class::isInstance);
+        final PipelinedItemWriter<ChannelSystemDocument> writer = new PipelinedItemWriter<>(
+                new ChannelLineDelimitedJsonItemWriter<>(new FileSystemResource(output), new ObjectMapper(), ChannelSystemDocument.class), true);
+        final SkippedRecordWriter skippedWriter = new SkippedRecordWriter(new FileSystemResource(failed), new ObjectMapper(), new SimpleMeterRegistry());
+        writer.setSkipPolicy(DocumentConversionException.class::isInstance, 10, skippedWriter::onSkip);
+        return new StepBuilder(name, jobRepository)
+                .<AccountingSystemDocument, Future<ChannelSystemDocument>>chunk(2, txManager)
+                .reader(new CommaSeparatedObjectStreamItemReader<>(new FileSystemResource(input), new ObjectMapper(), AccountingSystemDocument.class))
+                .processor(processor)
+                .writer(writer)
+                .stream(skippedWriter)
+                .build();
+    }
+
+    private JobExecution run(final String jobName, final Step step) throws Exception {
+        return jobLauncher.run(new JobBuilder(jobName, jobRepository).start(step).build(), new JobParameters());
+    }
+
+    private static <T> List<T> readAll(final Path file, final Class<T> type) throws Exception {
+        final CommaSeparatedObjectStreamItemReader<T> reader = new CommaSeparatedObjectStreamItemReader<>(
+                new FileSystemResource(file), new ObjectMapper(), type);
+        final List<T> items = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            T item;
+            while ((item = reader.read()) != null) {
+                items.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+}
@@ -0,0 +1,56 @@
+package com.poc.lab.batch.deputy.fault;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectStreamItemReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkippedRecordWriterTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesSkippedInputRecordsInReadableFormat() throws Exception {
+        final Path failed = tempDir.resolve("failed");
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SkippedRecordWriter writer = new SkippedRecordWriter(new FileSystemResource(failed), new ObjectMapper(), registry);
+        final ExecutionContext executionContext = new ExecutionContext();
+
+        writer.open(executionContext);
+        writer.onSkip(new DocumentConversionException(document("u-1"), new IllegalStateException("no document")));
+        writer.onSkip(new TransientDocumentException(document("u-2"), new IllegalStateException("timeout")));
+        // 입력 레코드를 모르는 실패는 기록하지 않는다
+        writer.onSkip(new IllegalStateException("unknown"));
+        writer.update(executionContext);
+        writer.close();
+
+        final CommaSeparatedObjectStreamItemReader<AccountingSystemDocument> reader = new CommaSeparatedObjectStreamItemReader<>(
+                new FileSystemResource(failed), new ObjectMapper(), AccountingSystemDocument.class);
+        final List<AccountingSystemDocument> records = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        AccountingSystemDocument record;
+        while ((record = reader.read()) != null) {
+            records.add(record);
+        }
+        reader.close();
+
+        assertThat(records).containsExactly(document("u-1"), document("u-2"));
+        assertThat(registry.get("deputy.batch.skipped").tag("reason", "permanent").counter().count()).isEqualTo(1);
+        assertThat(registry.get("deputy.batch.skipped").tag("reason", "transient").counter().count()).isEqualTo(1);
+    }
+
+    private static AccountingSystemDocument document(final String userId) {
+        return new AccountingSystemDocument(userId, "A-001", "basic", "", "B-001", "family", "", "");
+    }
+}
@@ -0,0 +1,116 @@
+package com.poc.lab.batch.deputy.partition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectChannelItemReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommaSeparatedObjectRangePartitionerTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rangesSkipBracesInsideStrings() throws Exception {
+        final List<AccountingSystemDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            // 목표 분할 지점이 문자열 안의 '}' 에 걸리도록 문자열을 길게
+            documents.add(document("u-" + i, "}".repeat(64) + "},{" + i));
+        }
+
+        assertRangesCoverDocuments(write(documents), 4, documents);
+    }
+
+    @Test
+    void rangesSkipEscapedQuotesInsideStrings() throws Exception {
+        final List<AccountingSystemDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            // \" 뒤의 '}' 와 \\ 뒤의 '"' 는 문자열 안/밖 판단을 바꾸지 않는다
+            documents.add(document("u-" + i, "\"}".repeat(32) + "\\\"},{\\" + i));
+        }
+
+        assertRangesCoverDocuments(write(documents), 4, documents);
+    }
+
+    @Test
+    void sameInputGivesSamePartitions() throws Exception {
+        final List<AccountingSystemDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            documents.add(document("u-" + i, "}\"{" + i));
+        }
+        final CommaSeparatedObjectRangePartitioner partitioner = new CommaSeparatedObjectRangePartitioner(
+                new FileSystemResource(write(documents)));
+
+        assertThat(partitioner.partition(4)).isEqualTo(partitioner.partition(4));
+    }
+
+    private static void assertRangesCoverDocuments(final Path file, final int gridSize,
+                                                   final List<AccountingSystemDocument> expected) throws Exception {
+        final byte[] content = Files.readAllBytes(file);
+        final Map<String, ExecutionContext> partitions = new CommaSeparatedObjectRangePartitioner(
+                new FileSystemResource(file)).partition(gridSize);
+        assertThat(partitions).hasSizeGreaterThan(1);
+
+        final List<AccountingSystemDocument> actual = new ArrayList<>();
+        long previousEnd = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            final ExecutionContext partition = partitions.get("partition" + i);
+            final long start = partition.getLong(CommaSeparatedObjectRangePartitioner.START_OFFSET);
+            final long end = partition.getLong(CommaSeparatedObjectRangePartitioner.END_OFFSET);
+            assertThat(partition.getInt(CommaSeparatedObjectRangePartitioner.PARTITION_INDEX)).isEqualTo(i);
+            assertThat(start).isEqualTo(previousEnd);
+            // 구간은 최상위 객체의 '}' 바로 뒤(또는 파일 끝)에서 끝난다
+            assertThat(content[(int) end - 1]).isEqualTo((byte) '}');
+            actual.addAll(read(file, start, end));
+            previousEnd = end;
+        }
+        assertThat(previousEnd).isEqualTo(content.length);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static List<AccountingSystemDocument> read(final Path file, final long start, final long end) throws Exception {
+        final CommaSeparatedObjectChannelItemReader<AccountingSystemDocument> reader = new CommaSeparatedObjectChannelItemReader<>(
+                new FileSystemResource(file), new ObjectMapper(), AccountingSystemDocument.class);
+        reader.setStartOffset(start);
+        reader.setEndOffset(end);
+        reader.setSaveState(false);
+        final List<AccountingSystemDocument> items = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            AccountingSystemDocument item;
+            while ((item = reader.read()) != null) {
+                items.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+
+    private Path write(final List<AccountingSystemDocument> documents) throws Exception {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final List<String> lines = new ArrayList<>();
+        for (AccountingSystemDocument document : documents) {
+            lines.add(objectMapper.writeValueAsString(document));
+        }
+        final Path file = tempDir.resolve("accounting");
+        Files.writeString(file, String.join("," + System.lineSeparator(), lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static AccountingSystemDocument document(final String userId, final String docId) {
+        return new AccountingSystemDocument(userId, docId, "basic", "", "B-001", "family", "", "");
+    }
+}
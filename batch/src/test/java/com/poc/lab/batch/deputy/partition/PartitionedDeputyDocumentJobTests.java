@@ -0,0 +1,242 @@
+package com.poc.lab.batch.deputy.partition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import com.poc.lab.batch.deputy.dto.ChannelSystemDocument;
+import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectChannelItemReader;
+import com.poc.lab.batch.deputy.reader.CommaSeparatedObjectStreamItemReader;
+import com.poc.lab.batch.deputy.tasklet.PartitionedOutputMergeTasklet;
+import com.poc.lab.batch.deputy.writer.ChannelLineDelimitedJsonItemWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 파티션 모드 구성(구간 분할 → 워커 → 병합)에서 재시작하면 실패한 파티션만 다시 실행되고 병합 결과가 입력 순서를 지키는지
+ */
+class PartitionedDeputyDocumentJobTests {
+
+    private static final int GRID_SIZE = 4;
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedDatabase database;
+    private JdbcTransactionManager txManager;
+    private JobRepository jobRepository;
+    private TaskExecutorJobLauncher jobLauncher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("/org/springframework/batch/core/schema-h2.sql")
+                .build();
+        txManager = new JdbcTransactionManager(database);
+        final JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(txManager);
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+        jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void restartRerunsOnlyFailedPartition() throws Exception {
+        final Path input = tempDir.resolve("accounting");
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final List<String> lines = new ArrayList<>();
+        final List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            userIds.add("u-" + i);
+            lines.add(objectMapper.writeValueAsString(new AccountingSystemDocument(
+                    "u-" + i, "A-" + i, "basic", "", "B-" + i, "family", "", "")));
+        }
+        Files.writeString(input, String.join("," + System.lineSeparator(), lines));
+        final Path output = tempDir.resolve("channel");
+        // 첫 실행에서는 u-9 가 들어 있는 파티션만 실패
+        final AtomicBoolean failing = new AtomicBoolean(true);
+        final List<String> processed = new ArrayList<>();
+        final Job job = job(input, output, item -> {
+            if (failing.get() && "u-9".equals(item.userId())) {
+                throw new IllegalStateException("court unavailable");
+            }
+            processed.add(item.userId());
+            return ChannelSystemDocument.defaults(item);
+        });
+
+        final JobExecution first = jobLauncher.run(job, new JobParameters());
+
+        assertThat(first.getStatus()).isEqualTo(BatchStatus.FAILED);
+        final List<String> failedPartitions = workers(first, BatchStatus.FAILED);
+        assertThat(failedPartitions).hasSize(1);
+        assertThat(workers(first, BatchStatus.COMPLETED)).hasSize(GRID_SIZE - 1);
+        assertThat(Files.exists(output)).isFalse();
+
+        failing.set(false);
+        processed.clear();
+        final JobExecution second = jobLauncher.run(job, new JobParameters());
+
+        assertThat(second.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        // 첫 실행에서 완료된 파티션은 건너뛰고 실패한 파티션만 다시 실행
+        assertThat(workers(second, BatchStatus.COMPLETED)).isEqualTo(failedPartitions);
+        assertThat(processed).contains("u-9").doesNotContain("u-0", "u-15");
+        assertThat(readAll(output)).extracting(ChannelSystemDocument::userId).isEqualTo(userIds);
+        for (int i = 0; i < GRID_SIZE; i++) {
+            assertThat(PartitionedOutputMergeTasklet.partPath(output, i)).doesNotExist();
+        }
+    }
+
+    private Job job(final Path input, final Path output,
+                    final Function<AccountingSystemDocument, ChannelSystemDocument> convert) {
+        final Step worker = new StepBuilder("worker", jobRepository)
+                .<AccountingSystemDocument, ChannelSystemDocument>chunk(2, txManager)
+                .reader(new PartitionReader(input))
+                .processor(convert::apply)
+                .writer(new PartitionWriter(output))
+                .build();
+        final Step partitioned = new StepBuilder("partition", jobRepository)
+                .partitioner("worker", new CommaSeparatedObjectRangePartitioner(new FileSystemResource(input)))
+                .step(worker)
+                .gridSize(GRID_SIZE)
+                .build();
+        final Step merge = new StepBuilder("merge", jobRepository)
+                .tasklet(new PartitionedOutputMergeTasklet(output, GRID_SIZE), txManager)
+                .build();
+        return new JobBuilder("partitionedDeputyDocumentJob", jobRepository)
+                .start(partitioned)
+                .next(merge)
+                .build();
+    }
+
+    private static List<String> workers(final JobExecution execution, final BatchStatus status) {
+        return execution.getStepExecutions().stream()
+                .filter(it -> it.getStepName().startsWith("worker:") && it.getStatus() == status)
+                .map(StepExecution::getStepName)
+                .toList();
+    }
+
+    private static List<ChannelSystemDocument> readAll(final Path file) throws Exception {
+        final CommaSeparatedObjectStreamItemReader<ChannelSystemDocument> reader = new CommaSeparatedObjectStreamItemReader<>(
+                new FileSystemResource(file), new ObjectMapper(), ChannelSystemDocument.class);
+        final List<ChannelSystemDocument> items = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            ChannelSystemDocument item;
+            while ((item = reader.read()) != null) {
+                items.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+
+    // 설정의 @StepScope reader 와 같이 파티션 컨텍스트의 구간으로 연다
+    private static final class PartitionReader implements ItemStreamReader<AccountingSystemDocument> {
+
+        private final Path input;
+        private CommaSeparatedObjectChannelItemReader<AccountingSystemDocument> delegate;
+
+        PartitionReader(final Path input) {
+            this.input = input;
+        }
+
+        @Override
+        public void open(final ExecutionContext executionContext) {
+            delegate = new CommaSeparatedObjectChannelItemReader<>(
+                    new FileSystemResource(input), new ObjectMapper(), AccountingSystemDocument.class);
+            delegate.setStartOffset(executionContext.getLong(CommaSeparatedObjectRangePartitioner.START_OFFSET));
+            delegate.setEndOffset(executionContext.getLong(CommaSeparatedObjectRangePartitioner.END_OFFSET));
+            delegate.open(executionContext);
+        }
+
+        @Override
+        public AccountingSystemDocument read() throws Exception {
+            return delegate.read();
+        }
+
+        @Override
+        public void update(final ExecutionContext executionContext) {
+            delegate.update(executionContext);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    // 설정의 @StepScope writer 와 같이 파티션 번호의 part 파일에 쓴다
+    private static final class PartitionWriter implements ItemStreamWriter<ChannelSystemDocument> {
+
+        private final Path output;
+        private ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> delegate;
+
+        PartitionWriter(final Path output) {
+            this.output = output;
+        }
+
+        @Override
+        public void open(final ExecutionContext executionContext) {
+            final int partitionIndex = executionContext.getInt(CommaSeparatedObjectRangePartitioner.PARTITION_INDEX);
+            delegate = new ChannelLineDelimitedJsonItemWriter<>(
+                    new FileSystemResource(PartitionedOutputMergeTasklet.partPath(output, partitionIndex)),
+                    new ObjectMapper(), ChannelSystemDocument.class);
+            delegate.open(executionContext);
+        }
+
+        @Override
+        public void write(final Chunk<? extends ChannelSystemDocument> chunk) throws Exception {
+            delegate.write(chunk);
+        }
+
+        @Override
+        public void update(final ExecutionContext executionContext) {
+            delegate.update(executionContext);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
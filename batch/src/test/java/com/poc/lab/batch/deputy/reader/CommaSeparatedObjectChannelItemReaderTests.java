@@ -0,0 +1,98 @@
+package com.poc.lab.batch.deputy.reader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommaSeparatedObjectChannelItemReaderTests {
+
+    private static final Path SAMPLE = Path.of("src/main/resources/from/accounting");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsSameItemsAsStreamReader() throws Exception {
+        final FileSystemResource resource = new FileSystemResource(SAMPLE);
+        final List<AccountingSystemDocument> expected = readAll(
+                new CommaSeparatedObjectStreamItemReader<>(resource, new ObjectMapper(), AccountingSystemDocument.class));
+        final List<AccountingSystemDocument> actual = readAll(
+                new CommaSeparatedObjectChannelItemReader<>(resource, new ObjectMapper(), AccountingSystemDocument.class));
+
+        assertThat(expected).isNotEmpty();
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void objectsCrossingBufferBoundaryAreReassembled() throws Exception {
+        final Path file = tempDir.resolve("accounting");
+        Files.writeString(file, """
+                {"userId":"u-{1}","docId1":"A-\\"001\\"","docType1":"basic","edmsId1":"","docId2":"가족","docType2":"family","edmsId2":"","guid":""},
+                {"userId":"u-2","docId1":"B-}","docType1":"basic","edmsId1":"","docId2":"B-011","docType2":"family","edmsId2":"","guid":""}
+                """, StandardCharsets.UTF_8);
+
+        final List<AccountingSystemDocument> items = readAll(new CommaSeparatedObjectChannelItemReader<>(
+                new FileSystemResource(file), new ObjectMapper(), AccountingSystemDocument.class, 16));
+
+        assertThat(items).extracting(AccountingSystemDocument::userId).containsExactly("u-{1}", "u-2");
+        assertThat(items.get(0).docId1()).isEqualTo("A-\"001\"");
+        assertThat(items.get(0).docId2()).isEqualTo("가족");
+        assertThat(items.get(1).docId1()).isEqualTo("B-}");
+    }
+
+    @Test
+    void restartResumesFromSavedOffset() throws Exception {
+        final Path file = Files.copy(SAMPLE, tempDir.resolve("accounting"));
+        final FileSystemResource resource = new FileSystemResource(file);
+        final List<AccountingSystemDocument> expected = readAll(
+                new CommaSeparatedObjectChannelItemReader<>(resource, new ObjectMapper(), AccountingSystemDocument.class));
+
+        final ExecutionContext executionContext = new ExecutionContext();
+        final List<AccountingSystemDocument> actual = new ArrayList<>();
+        CommaSeparatedObjectChannelItemReader<AccountingSystemDocument> reader =
+                new CommaSeparatedObjectChannelItemReader<>(resource, new ObjectMapper(), AccountingSystemDocument.class);
+        reader.open(executionContext);
+        for (int i = 0; i < 57; i++) {
+            actual.add(reader.read());
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        reader = new CommaSeparatedObjectChannelItemReader<>(resource, new ObjectMapper(), AccountingSystemDocument.class);
+        reader.open(executionContext);
+        AccountingSystemDocument item;
+        while ((item = reader.read()) != null) {
+            actual.add(item);
+        }
+        reader.close();
+
+        assertThat(executionContext.containsKey("commaSeparatedObjectChannelItemReader.read.offset")).isTrue();
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static <T> List<T> readAll(AbstractItemCountingItemStreamItemReader<T> reader) throws Exception {
+        final List<T> items = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            T item;
+            while ((item = reader.read()) != null) {
+                items.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+}
@@ -0,0 +1,107 @@
+package com.poc.lab.batch.deputy.render;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PdfPageRendererTests {
+
+    @Test
+    void waitingForMemoryDoesNotStarveRenderPool() throws Exception {
+        final byte[] pdf = blankPdf(3);
+        final ExecutorService render = Executors.newFixedThreadPool(1);
+        try {
+            final PdfPageRenderer renderer = new PdfPageRenderer(render, new SimpleMeterRegistry(), 72, 1, 0, 1);
+            // 한 문서만 예약할 수 있는 예산(낮출 dpi 없음)
+            final RenderMemoryBudget budget = new RenderMemoryBudget(1, 72, Duration.ZERO);
+            renderer.setMemoryBudget(budget);
+
+            final List<CompletableFuture<Integer>> results = List.of(
+                    renderer.render(pdf, image -> CompletableFuture.completedFuture(image.getHeight())),
+                    renderer.render(pdf, image -> CompletableFuture.completedFuture(image.getHeight())),
+                    renderer.render(pdf, image -> CompletableFuture.completedFuture(image.getHeight())));
+
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+            assertThat(results).allSatisfy(it -> assertThat(it.join()).isEqualTo(3 * 792));
+            assertThat(budget.usedBytes()).isZero();
+        } finally {
+            render.shutdownNow();
+        }
+    }
+
+    @Test
+    void singleTaskDocumentsShareFontsOnRenderThread() throws Exception {
+        final ExecutorService render = Executors.newFixedThreadPool(1);
+        final List<PDFont> fonts = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        // 공유 폰트를 붙인 직후 문서의 F1 을 꺼내 본다(렌더링도 같은 ResourceCache 를 거친다)
+        final PdfDocumentLoader loader = new PdfDocumentLoader(0, true) {
+            @Override
+            void shareFonts(final PDDocument doc) {
+                super.shareFonts(doc);
+                threads.add(Thread.currentThread());
+                try {
+                    fonts.add(doc.getPage(0).getResources().getFont(COSName.getPDFName("F1")));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        try {
+            final PdfPageRenderer renderer = new PdfPageRenderer(render, new SimpleMeterRegistry(), 72, 1, 0, 1);
+            renderer.setDocumentLoader(loader);
+
+            renderer.render(courtPdf("DOC1"), image -> CompletableFuture.completedFuture(image.getHeight()))
+                    .get(30, TimeUnit.SECONDS);
+            renderer.render(courtPdf("DOC2"), image -> CompletableFuture.completedFuture(image.getHeight()))
+                    .get(30, TimeUnit.SECONDS);
+
+            assertThat(threads).hasSize(2).allSatisfy(it -> assertThat(it.isVirtual()).isFalse());
+            assertThat(fonts).hasSize(2);
+            assertThat(fonts.get(1)).isSameAs(fonts.get(0));
+        } finally {
+            render.shutdownNow();
+        }
+    }
+
+    // Court 모의 API 문서와 같은 형태(임베드하지 않은 Helvetica, Letter 한 페이지)
+    private static byte[] courtPdf(final String docId) {
+        final String content = "BT\n/F1 12 Tf\n100 700 Td\n(Basic Document ID: " + docId + ") Tj\nET";
+        return ("%PDF-1.4\n1 0 obj\n<<\n/Type /Catalog\n/Pages 2 0 R\n>>\nendobj\n"
+                + "2 0 obj\n<<\n/Type /Pages\n/Kids [3 0 R]\n/Count 1\n>>\nendobj\n"
+                + "3 0 obj\n<<\n/Type /Page\n/Parent 2 0 R\n/Resources <<\n/Font <<\n/F1 4 0 R\n>>\n>>\n"
+                + "/MediaBox [0 0 612 792]\n/Contents 5 0 R\n>>\nendobj\n"
+                + "4 0 obj\n<<\n/Type /Font\n/Subtype /Type1\n/BaseFont /Helvetica\n>>\nendobj\n"
+                + "5 0 obj\n<< /Length " + content.length() + " >>\nstream\n" + content + "\nendstream\nendobj\n"
+                + "xref\ntrailer\n<<\n/Size 6\n/Root 1 0 R\n>>\nstartxref\n%%EOF").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] blankPdf(final int pages) throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                doc.addPage(new PDPage(PDRectangle.LETTER));
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            doc.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.poc.lab.batch.deputy.render;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 풀 사용 전후 렌더링 할당량을 JFR 로 측정(기본 비활성, JIT/GC 상태에 따라 결과가 흔들린다)
+ * ./gradlew :batch:test --tests '*RasterPoolAllocationTests' -Pbatch.load-test.allocation=true
+ * - 래스터(수 MB)는 TLAB 밖에서 할당되므로 jdk.ObjectAllocationOutsideTLAB 합계로 비교
+ * - GC 일시 정지(jdk.GCPhasePause) 합계는 실패 메시지에 참고용으로 남긴다
+ */
+@EnabledIfSystemProperty(named = "batch.load-test.allocation", matches = "true")
+class RasterPoolAllocationTests {
+
+    private static final int WARMUP = 3;
+    private static final int RENDERS = 20;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void pooledRenderingAllocatesFewerLargeRasters() throws Exception {
+        final byte[] pdf = certificatePdf();
+
+        final Measurement unpooled = measure(pdf, RasterPool.unpooled(), "unpooled");
+        final RasterPool pool = new RasterPool(256L * 1024 * 1024, 4);
+        final Measurement pooled = measure(pdf, pool, "pooled");
+
+        assertThat(pooled.outsideTlabBytes())
+                .as("unpooled: %s, pooled: %s", unpooled, pooled)
+                .isLessThan(unpooled.outsideTlabBytes() / 2);
+        assertThat(pool.leased()).isZero();
+    }
+
+    private Measurement measure(final byte[] pdf, final RasterPool pool, final String name) throws Exception {
+        final PdfPageRenderer renderer = new PdfPageRenderer(Runnable::run, new SimpleMeterRegistry(), 150, 1, 0, 1);
+        renderer.setRasterPool(pool);
+        for (int i = 0; i < WARMUP; i++) {
+            render(renderer, pdf);
+        }
+        final Path file = tempDir.resolve(name + ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationOutsideTLAB");
+            recording.enable("jdk.GCPhasePause");
+            recording.start();
+            for (int i = 0; i < RENDERS; i++) {
+                render(renderer, pdf);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        long outsideTlabBytes = 0;
+        Duration gcPause = Duration.ZERO;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (Thread.currentThread().getName().equals(threadName(event))
+                    && "jdk.ObjectAllocationOutsideTLAB".equals(event.getEventType().getName())) {
+                outsideTlabBytes += event.getLong("allocationSize");
+            } else if ("jdk.GCPhasePause".equals(event.getEventType().getName())) {
+                gcPause = gcPause.plus(event.getDuration());
+            }
+        }
+        return new Measurement(outsideTlabBytes, gcPause);
+    }
+
+    private static void render(final PdfPageRenderer renderer, final byte[] pdf) {
+        renderer.render(pdf, image -> CompletableFuture.completedFuture(image.getWidth())).join();
+    }
+
+    private static String threadName(final RecordedEvent event) {
+        return event.getThread() == null ? null : event.getThread().getJavaName();
+    }
+
+    private static byte[] certificatePdf() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            final PDPage page = new PDPage(PDRectangle.A4);
+            doc.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 11);
+                content.newLineAtOffset(60, 780);
+                content.showText("Family relation certificate");
+                content.endText();
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            doc.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private record Measurement(
+            long outsideTlabBytes,
+            Duration gcPause
+    ) {
+        @Override
+        public String toString() {
+            return "outside-TLAB allocation " + outsideTlabBytes / (1024 * 1024) + " MB, GC pause " + gcPause.toMillis() + " ms";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.poc.lab.batch.deputy.render;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RasterPoolTests {
+
+    // 10x10 TYPE_INT_RGB
+    private static final long IMAGE_BYTES = 400;
+
+    @Test
+    void reusesReleasedImageClearedToWhite() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RasterPool pool = new RasterPool(IMAGE_BYTES * 4, 4);
+        pool.bindTo(registry);
+
+        final BufferedImage first;
+        try (RasterPool.Lease lease = pool.acquire(10, 10, BufferedImage.TYPE_INT_RGB)) {
+            first = lease.image();
+            final Graphics2D graphics = first.createGraphics();
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(0, 0, 10, 10);
+            graphics.dispose();
+        }
+        assertThat(pool.idleBytes()).isEqualTo(IMAGE_BYTES);
+
+        try (RasterPool.Lease same = pool.acquire(10, 10, BufferedImage.TYPE_INT_RGB);
+             RasterPool.Lease other = pool.acquire(10, 20, BufferedImage.TYPE_INT_RGB)) {
+            assertThat(same.image()).isSameAs(first);
+            assertThat(same.image().getRGB(5, 5)).isEqualTo(Color.WHITE.getRGB());
+            assertThat(other.image()).isNotSameAs(first);
+            assertThat(pool.leased()).isEqualTo(2);
+            assertThat(pool.idleBytes()).isZero();
+        }
+
+        assertThat(acquired(registry, "hit")).isEqualTo(1);
+        assertThat(acquired(registry, "miss")).isEqualTo(2);
+        assertThat(pool.leased()).isZero();
+    }
+
+    @Test
+    void dropsReleasedImagesOverIdleCaps() {
+        final RasterPool pool = new RasterPool(IMAGE_BYTES * 2, 4);
+        final RasterPool.Lease a = pool.acquire(10, 10, BufferedImage.TYPE_INT_RGB);
+        final RasterPool.Lease b = pool.acquire(10, 10, BufferedImage.TYPE_INT_RGB);
+        final RasterPool.Lease c = pool.acquire(10, 10, BufferedImage.TYPE_INT_RGB);
+
+        a.close();
+        b.close();
+        // 보관 총량을 넘으므로 버린다
+        c.close();
+        assertThat(pool.idleBytes()).isEqualTo(IMAGE_BYTES * 2);
+
+        final RasterPool perKey = new RasterPool(IMAGE_BYTES * 4, 1);
+        final RasterPool.Lease d = perKey.acquire(10, 10, BufferedImage.TYPE_INT_RGB);
+        final RasterPool.Lease e = perKey.acquire(10, 10, BufferedImage.TYPE_INT_RGB);
+        d.close();
+        e.close();
+        // 두 번 반납해도 한 번만 반납된다
+        e.close();
+        assertThat(perKey.idleBytes()).isEqualTo(IMAGE_BYTES);
+        assertThat(perKey.leased()).isZero();
+    }
+
+    @Test
+    void countsLeaseCollectedWithoutClose() throws Exception {
+        final RasterPool pool = new RasterPool(IMAGE_BYTES * 4, 4);
+        leak(pool);
+        assertThat(pool.leased()).isEqualTo(1);
+
+        // Cleaner 는 GC 뒤에 돌므로 집계될 때까지 GC 를 요청한다
+        for (int i = 0; i < 100 && pool.leaked() == 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(pool.leaked()).isEqualTo(1);
+        assertThat(pool.leased()).isZero();
+        // 반납되지 않은 이미지는 풀로 돌아오지 않는다
+        assertThat(pool.idleBytes()).isZero();
+    }
+
+    private static void leak(final RasterPool pool) {
+        pool.acquire(10, 10, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static double acquired(final SimpleMeterRegistry registry, final String result) {
+        return registry.get("deputy.raster.acquire").tag("result", result).counter().count();
+    }
+}
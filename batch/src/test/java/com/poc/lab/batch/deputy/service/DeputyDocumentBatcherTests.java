@@ -0,0 +1,275 @@
+package com.poc.lab.batch.deputy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.async.PipelinedItemProcessor;
+import com.poc.lab.batch.deputy.dto.AccountingSystemDocument;
+import com.poc.lab.batch.deputy.execution.AimdLimit;
+import com.poc.lab.batch.deputy.execution.Bulkhead;
+import com.poc.lab.batch.deputy.execution.CircuitBreaker;
+import com.poc.lab.batch.deputy.fault.DocumentConversionException;
+import com.poc.lab.batch.deputy.fault.TransientDocumentException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeputyDocumentBatcherTests {
+
+    private static final byte[] PDF = "%PDF-1.7 test".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String PDF_FRAMES = "application/vnd.deputy.pdf-frames";
+
+    private StubBtServer server;
+    private DeputyDocumentBatcher batcher;
+
+    @AfterEach
+    void stop() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void sendsWhenBatchIsFull() throws Exception {
+        server = StubBtServer.start(new StubResponse(200, NDJSON,
+                concat(line(0, "A-0", pdf(0), null), line(1, "A-1", pdf(1), null))));
+        batcher = new DeputyDocumentBatcher(btService(), bulkhead(), 2, Duration.ofMinutes(1));
+
+        final CompletableFuture<byte[]> first = batcher.submit("u-1", "A-0", "basic");
+        assertThat(first).isNotDone();
+        final CompletableFuture<byte[]> second = batcher.submit("u-1", "A-1", "basic");
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(pdf(0));
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(pdf(1));
+        assertThat(server.requests()).isEqualTo(1);
+        assertThat(requestedDocIds(0)).containsExactly("A-0", "A-1");
+    }
+
+    @Test
+    void sendsPartialBatchAfterLinger() throws Exception {
+        server = StubBtServer.start(new StubResponse(200, NDJSON, line(0, "A-0", pdf(0), null)));
+        batcher = new DeputyDocumentBatcher(btService(), bulkhead(), 100, Duration.ofMillis(20));
+
+        final CompletableFuture<byte[]> future = batcher.submit("u-1", "A-0", "basic");
+
+        assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(pdf(0));
+        assertThat(server.requests()).isEqualTo(1);
+        assertThat(requestedDocIds(0)).containsExactly("A-0");
+    }
+
+    @Test
+    void completesOutOfOrderLinesByIndex() throws Exception {
+        // BT 는 조회가 끝나는 순서대로 내보낸다
+        server = StubBtServer.start(new StubResponse(200, NDJSON,
+                concat(line(2, "A-2", pdf(2), null), line(0, "A-0", pdf(0), null), line(1, "A-1", pdf(1), null))));
+        batcher = new DeputyDocumentBatcher(btService(), bulkhead(), 3, Duration.ofMinutes(1));
+
+        final List<CompletableFuture<byte[]>> futures = List.of(
+                batcher.submit("u-1", "A-0", "basic"),
+                batcher.submit("u-1", "A-1", "basic"),
+                batcher.submit("u-1", "A-2", "basic"));
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(pdf(i));
+        }
+    }
+
+    @Test
+    void errorLineFailsOnlyThatDocumentAsTransient() throws Exception {
+        server = StubBtServer.start(new StubResponse(200, NDJSON,
+                concat(line(0, "A-0", null, "ResourceAccessException: court timeout"), line(1, "A-1", pdf(1), null))));
+        batcher = new DeputyDocumentBatcher(btService(), bulkhead(), 2, Duration.ofMinutes(1));
+
+        final CompletableFuture<byte[]> failed = batcher.submit("u-1", "A-0", "basic");
+        final CompletableFuture<byte[]> succeeded = batcher.submit("u-1", "A-1", "basic");
+
+        assertThat(succeeded.get(5, TimeUnit.SECONDS)).isEqualTo(pdf(1));
+        final Throwable failure = failed.handle((ignored, throwable) -> throwable).get(5, TimeUnit.SECONDS);
+        assertThat(failure).isInstanceOf(HttpServerErrorException.class).hasMessageContaining("court timeout");
+        // 프로세서의 분류로는 레코드 재시도 대상
+        assertThat(DocumentConversionException.of(document("u-1", "A-0"), failure)).isInstanceOf(TransientDocumentException.class);
+    }
+
+    @Test
+    void truncatedFrameFailsRemainingDocuments() throws Exception {
+        final byte[] truncated = Arrays.copyOf(pdf(1), 4);
+        server = StubBtServer.start(new StubResponse(200, PDF_FRAMES,
+                concat(frame(0, "A-0", pdf(0)), frameHeader(1, "A-1", pdf(1).length), truncated)));
+        batcher = new DeputyDocumentBatcher(btService(), bulkhead(), 2, Duration.ofMinutes(1));
+        batcher.setBinaryTransport(true);
+
+        final CompletableFuture<byte[]> first = batcher.submit("u-1", "A-0", "basic");
+        final CompletableFuture<byte[]> second = batcher.submit("u-1", "A-1", "basic");
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(pdf(0));
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .hasRootCauseInstanceOf(EOFException.class)
+                .rootCause().hasMessageContaining("truncated at index 1");
+        assertThat(server.accepts()).containsExactly(PDF_FRAMES);
+    }
+
+    @Test
+    void unavailableBtIsRetriedNotSkipped() throws Exception {
+        server = StubBtServer.start(
+                new StubResponse(503, "text/plain", "busy".getBytes(StandardCharsets.UTF_8)),
+                new StubResponse(200, "application/x-ndjson", line(0, "A-001", PDF, null)));
+        final Bulkhead bulkhead = new Bulkhead("bt", Runnable::run,
+                new AimdLimit(16, 2, 64, Duration.ofMinutes(1), 0.5), CircuitBreaker.disabled(), null);
+        batcher = new DeputyDocumentBatcher(btService(), bulkhead, 1, Duration.ZERO);
+        // 프로세서와 같이 실패를 분류하고, 일시적 실패만 레코드 단위로 재시도
+        final PipelinedItemProcessor<AccountingSystemDocument, byte[]> processor = new PipelinedItemProcessor<>(item ->
+                batcher.submit(item.userId(), item.docId1(), item.docType1())
+                        .exceptionallyCompose(e -> CompletableFuture.failedFuture(DocumentConversionException.of(item, e))));
+        processor.setRetry(2, Duration.ZERO, TransientDocumentException.class::isInstance);
+
+        final byte[] pdf = processor.process(document("u-1", "A-001")).get(5, TimeUnit.SECONDS);
+
+        assertThat(pdf).isEqualTo(PDF);
+        assertThat(server.requests()).isEqualTo(2);
+        // 503 은 bulkhead 의 과부하 신호로도 쓰인다
+        assertThat(bulkhead.limit()).isEqualTo(8);
+    }
+
+    private static Bulkhead bulkhead() {
+        return new Bulkhead("bt", Runnable::run, AimdLimit.fixed(4), CircuitBreaker.disabled(), null);
+    }
+
+    private List<String> requestedDocIds(final int request) throws IOException {
+        final List<Map<String, String>> requests = new ObjectMapper().readerForListOf(Map.class)
+                .readValue(server.requestBodies().get(request));
+        return requests.stream().map(it -> it.get("docId")).toList();
+    }
+
+    private static byte[] pdf(final int index) {
+        return ("%PDF-1.7 document " + index).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] frame(final int index, final String docId, final byte[] pdf) {
+        return concat(frameHeader(index, docId, pdf.length), pdf);
+    }
+
+    private static byte[] frameHeader(final int index, final String docId, final int length) {
+        return ("{\"index\":" + index + ",\"docId\":\"" + docId + "\",\"docType\":\"basic\",\"userId\":\"u-1\",\"length\":"
+                + length + ",\"error\":null}\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(final byte[]... parts) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private BtService btService() {
+        return new BtService(RestClient.builder().baseUrl(server.baseUrl()).build());
+    }
+
+    private static AccountingSystemDocument document(final String userId, final String docId) {
+        return new AccountingSystemDocument(userId, docId, "basic", "", "B-001", "family", "", "");
+    }
+
+    private static byte[] line(final int index, final String docId, final byte[] pdf, final String error) {
+        final String pdfField = pdf == null ? "null" : "\"" + Base64.getEncoder().encodeToString(pdf) + "\"";
+        final String errorField = error == null ? "null" : "\"" + error + "\"";
+        return ("{\"index\":" + index + ",\"docId\":\"" + docId + "\",\"docType\":\"basic\",\"userId\":\"u-1\",\"pdf\":"
+                + pdfField + ",\"error\":" + errorField + "}\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record StubResponse(
+            int status,
+            String contentType,
+            byte[] body
+    ) {
+    }
+
+    // 요청마다 준비한 응답을 순서대로 돌려주는 BT 대역. 다 쓰면 마지막 응답을 반복
+    private static final class StubBtServer implements AutoCloseable {
+
+        private final HttpServer server;
+        private final Queue<StubResponse> responses;
+        private final List<byte[]> requestBodies = new ArrayList<>();
+        private final List<String> accepts = new ArrayList<>();
+        private StubResponse last;
+
+        private StubBtServer(final List<StubResponse> responses) throws IOException {
+            this.responses = new ConcurrentLinkedQueue<>(responses);
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        static StubBtServer start(final StubResponse... responses) throws IOException {
+            return new StubBtServer(List.of(responses));
+        }
+
+        String baseUrl() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        synchronized int requests() {
+            return requestBodies.size();
+        }
+
+        synchronized List<byte[]> requestBodies() {
+            return List.copyOf(requestBodies);
+        }
+
+        synchronized List<String> accepts() {
+            return List.copyOf(accepts);
+        }
+
+        private void handle(final HttpExchange exchange) throws IOException {
+            final StubResponse response;
+            try (InputStream in = exchange.getRequestBody()) {
+                final byte[] body = in.readAllBytes();
+                synchronized (this) {
+                    requestBodies.add(body);
+                    accepts.add(exchange.getRequestHeaders().getFirst("Accept"));
+                    final StubResponse next = responses.poll();
+                    last = next != null ? next : last;
+                    response = last;
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", response.contentType());
+            exchange.sendResponseHeaders(response.status(), response.body().length == 0 ? -1 : response.body().length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body());
+            } finally {
+                exchange.close();
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+}
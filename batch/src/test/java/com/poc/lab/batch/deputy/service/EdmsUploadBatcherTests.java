@@ -0,0 +1,108 @@
+package com.poc.lab.batch.deputy.service;
+
+import com.poc.lab.batch.deputy.dto.EdmsUploadRequest;
+import com.poc.lab.batch.deputy.encode.ImageEncoder;
+import com.poc.lab.batch.deputy.encode.ImageEncoders;
+import com.poc.lab.batch.deputy.execution.AimdLimit;
+import com.poc.lab.batch.deputy.execution.Bulkhead;
+import com.poc.lab.batch.deputy.execution.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EdmsUploadBatcherTests {
+
+    private static final BufferedImage IMAGE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+    private static final ImageEncoder ENCODER = ImageEncoders.png().forDocType(null);
+
+    @Test
+    void completesEachUploadWithIdAtItsPosition() {
+        final StubEdmsService edms = new StubEdmsService(uploads -> uploads.stream().map(it -> "id-" + it.docId()).toList());
+        final EdmsUploadBatcher batcher = batcher(edms, 3);
+
+        final List<CompletableFuture<String>> ids = List.of(submit(batcher, "a"), submit(batcher, "b"), submit(batcher, "c"));
+
+        assertThat(ids).extracting(CompletableFuture::join).containsExactly("id-a", "id-b", "id-c");
+        assertThat(edms.calls).hasSize(1);
+        assertThat(edms.calls.get(0)).extracting(EdmsUploadRequest::docId).containsExactly("a", "b", "c");
+        assertThat(edms.atomic).containsExactly(false);
+    }
+
+    @Test
+    void nullIdFailsOnlyThatUploadAsBadRequest() {
+        final EdmsUploadBatcher batcher = batcher(new StubEdmsService(uploads -> Arrays.asList("id-a", null)), 2);
+
+        final CompletableFuture<String> stored = submit(batcher, "a");
+        final CompletableFuture<String> rejected = submit(batcher, "b");
+
+        assertThat(stored.join()).isEqualTo("id-a");
+        assertThatThrownBy(rejected::join)
+                .hasCauseInstanceOf(HttpClientErrorException.class)
+                .cause().extracting("statusCode").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void failedBatchCallFailsEveryUpload() {
+        final EdmsUploadBatcher batcher = batcher(new StubEdmsService(uploads -> {
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        }), 2);
+
+        final CompletableFuture<String> first = submit(batcher, "a");
+        final CompletableFuture<String> second = submit(batcher, "b");
+
+        assertThatThrownBy(first::join).hasCauseInstanceOf(HttpClientErrorException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(HttpClientErrorException.class);
+    }
+
+    @Test
+    void shutdownSendsPendingUploads() {
+        final StubEdmsService edms = new StubEdmsService(uploads -> uploads.stream().map(it -> "id-" + it.docId()).toList());
+        final EdmsUploadBatcher batcher = batcher(edms, 16);
+
+        final CompletableFuture<String> id = submit(batcher, "a");
+        assertThat(id).isNotDone();
+        batcher.shutdown();
+
+        assertThat(id.join()).isEqualTo("id-a");
+    }
+
+    private static EdmsUploadBatcher batcher(final EdmsService edms, final int maxBatchSize) {
+        final Bulkhead bulkhead = new Bulkhead("edms", Runnable::run, AimdLimit.fixed(8), CircuitBreaker.disabled(), null);
+        return new EdmsUploadBatcher(edms, bulkhead, maxBatchSize, Duration.ofMinutes(1));
+    }
+
+    private static CompletableFuture<String> submit(final EdmsUploadBatcher batcher, final String docId) {
+        return batcher.submit(IMAGE, ENCODER, "u-1", docId, "family");
+    }
+
+    private static final class StubEdmsService extends EdmsService {
+
+        private final Function<List<EdmsUploadRequest>, List<String>> response;
+        private final List<List<EdmsUploadRequest>> calls = new ArrayList<>();
+        private final List<Boolean> atomic = new ArrayList<>();
+
+        private StubEdmsService(final Function<List<EdmsUploadRequest>, List<String>> response) {
+            super(RestClient.create());
+            this.response = response;
+        }
+
+        @Override
+        public List<String> uploadAll(final List<EdmsUploadRequest> uploads, final boolean atomic) {
+            this.calls.add(uploads);
+            this.atomic.add(atomic);
+            return response.apply(uploads);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.poc.lab.batch.deputy.writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.ChannelSystemDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 대용량 출력 처리량과 재시작 시 잘라내기 부하 테스트(기본 비활성)
+ * ./gradlew :batch:test --tests '*ChannelLineDelimitedJsonItemWriterLoadTests' -Pbatch.load-test.bytes=4294967296
+ * - 약 1KB 문서를 1000 건 청크로 지정한 크기까지 커밋하며 쓰고 MB/s 를 출력
+ * - 커밋하지 않은 청크를 남기고 닫은 뒤 다시 열어, 2GB 를 넘는 위치에서도 마지막 커밋 위치로 잘라내고 이어 쓰는지 확인
+ */
+@EnabledIfSystemProperty(named = "batch.load-test.bytes", matches = "\\d+")
+class ChannelLineDelimitedJsonItemWriterLoadTests {
+
+    private static final String SEPARATOR = ", " + System.lineSeparator();
+    private static final int CHUNK_SIZE = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void multiGigabyteThroughputAndRestart() throws Exception {
+        final long target = Long.getLong("batch.load-test.bytes");
+        final Path output = tempDir.resolve("channel");
+        final ExecutionContext executionContext = new ExecutionContext();
+        final Chunk<ChannelSystemDocument> chunk = chunk();
+
+        ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> writer = writer(output);
+        writer.open(executionContext);
+        long chunks = 0;
+        final long start = System.nanoTime();
+        while (executionContext.getLong("channelLineDelimitedJsonItemWriter.position", 0L) < target) {
+            writer.write(chunk);
+            writer.update(executionContext);
+            chunks++;
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        final long committed = executionContext.getLong("channelLineDelimitedJsonItemWriter.position");
+        // 커밋되지 않은 청크 후 실패
+        writer.write(Chunk.of(document("lost")));
+        writer.close();
+        assertThat(Files.size(output)).isGreaterThan(committed);
+
+        System.out.printf("bytes=%d items=%d throughput=%.1f MB/s%n",
+                committed, chunks * CHUNK_SIZE, committed / 1e6 / seconds);
+
+        writer = writer(output);
+        writer.open(executionContext);
+        writer.write(Chunk.of(document("tail")));
+        writer.update(executionContext);
+        writer.close();
+
+        final byte[] expectedTail = (SEPARATOR + json(document("tail"))).getBytes(StandardCharsets.UTF_8);
+        assertThat(Files.size(output)).isEqualTo(committed + expectedTail.length);
+        assertThat(executionContext.getLong("channelLineDelimitedJsonItemWriter.position")).isEqualTo(Files.size(output));
+        assertThat(read(output, committed, expectedTail.length)).isEqualTo(expectedTail);
+    }
+
+    private static byte[] read(final Path file, final long position, final int length) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            return buffer.array();
+        }
+    }
+
+    private static ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> writer(final Path output) {
+        return new ChannelLineDelimitedJsonItemWriter<>(new FileSystemResource(output), new ObjectMapper(), ChannelSystemDocument.class);
+    }
+
+    private static Chunk<ChannelSystemDocument> chunk() {
+        final List<ChannelSystemDocument> documents = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            documents.add(document("u-" + i));
+        }
+        return new Chunk<>(documents);
+    }
+
+    // edmsId 자리에 변환 결과 크기와 비슷한 1KB 문자열
+    private static ChannelSystemDocument document(final String userId) {
+        return new ChannelSystemDocument(userId, "A-001", "basic", "E".repeat(512), "A-002", "family", "E".repeat(512), "g");
+    }
+
+    private static String json(final ChannelSystemDocument document) throws Exception {
+        return new ObjectMapper().writeValueAsString(document);
+    }
+}
@@ -0,0 +1,76 @@
+package com.poc.lab.batch.deputy.writer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.batch.deputy.dto.ChannelSystemDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelLineDelimitedJsonItemWriterTests {
+
+    private static final String SEPARATOR = ", " + System.lineSeparator();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesCommaSeparatedObjects() throws Exception {
+        final Path output = tempDir.resolve("to/channel");
+        final ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> writer = writer(output);
+
+        writer.open(new ExecutionContext());
+        writer.write(Chunk.of(document("u-1"), document("u-2")));
+        writer.update(new ExecutionContext());
+        writer.close();
+
+        assertThat(Files.readString(output, StandardCharsets.UTF_8))
+                .isEqualTo(json("u-1") + SEPARATOR + json("u-2"));
+    }
+
+    @Test
+    void restartTruncatesUncommittedOutputAndAppends() throws Exception {
+        final Path output = tempDir.resolve("channel");
+        final ExecutionContext executionContext = new ExecutionContext();
+
+        ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> writer = writer(output);
+        writer.open(executionContext);
+        writer.write(Chunk.of(document("u-1")));
+        writer.update(executionContext);
+        // 커밋되지 않은 청크 후 실패
+        writer.write(Chunk.of(document("lost")));
+        writer.close();
+
+        writer = writer(output);
+        writer.open(executionContext);
+        writer.write(Chunk.of(document("u-2")));
+        writer.update(executionContext);
+        writer.close();
+
+        assertThat(Files.readString(output, StandardCharsets.UTF_8))
+                .isEqualTo(json("u-1") + SEPARATOR + json("u-2"));
+        assertThat(executionContext.getLong("channelLineDelimitedJsonItemWriter.position")).isEqualTo(Files.size(output));
+    }
+
+    private static ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> writer(Path output) {
+        final ChannelLineDelimitedJsonItemWriter<ChannelSystemDocument> writer = new ChannelLineDelimitedJsonItemWriter<>(
+                new FileSystemResource(output), new ObjectMapper(), ChannelSystemDocument.class);
+        writer.setBufferSize(64);
+        return writer;
+    }
+
+    private static ChannelSystemDocument document(String userId) {
+        return new ChannelSystemDocument(userId, "A-001", "basic", "E-1", "A-002", "family", "E-2", "g");
+    }
+
+    private static String json(String userId) throws Exception {
+        return new ObjectMapper().writeValueAsString(document(userId));
+    }
+}
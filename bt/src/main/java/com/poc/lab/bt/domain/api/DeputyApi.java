@@ -1,36 +1,182 @@
 package com.poc.lab.bt.domain.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.poc.lab.bt.domain.application.DeputyService;
 import com.poc.lab.bt.domain.application.command.GetDeputyDocumentCommand;
+import com.poc.lab.bt.domain.application.result.DeputyDocumentResult;
 import com.poc.lab.bt.domain.domain.DeputyDocument;
+import com.poc.lab.common.http.HedgedRetry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/")
 public class DeputyApi {
 
+    public static final String PDF_FRAMES_VALUE = "application/vnd.deputy.pdf-frames";
+
     private final DeputyService deputyService;
+    private final ObjectWriter resultWriter;
+    private final ObjectWriter frameWriter;
+    private final int maxBatchSize;
 
-    public DeputyApi(final DeputyService deputyService) {
+    public DeputyApi(final DeputyService deputyService,
+                     final ObjectMapper objectMapper,
+                     @Value("${bt.deputy.documents.max-batch-size:500}") final int maxBatchSize) {
         this.deputyService = deputyService;
+        // 줄마다 같은 스트림에 이어 쓰므로 값 하나 쓰고 닫지 않도록
+        this.resultWriter = objectMapper.writerFor(GetDeputyDocumentsLine.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.frameWriter = objectMapper.writerFor(GetDeputyDocumentsFrame.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.maxBatchSize = maxBatchSize;
     }
 
+    /**
+     * Accept 에 application/pdf 가 있으면 Court 의 PDF 응답 본문을 그대로 흘려보내고, 아니면 기존 JSON(Base64) 응답
+     */
     @PostMapping("/deputy/document")
-    public ResponseEntity<DeputyDocument> document(@RequestBody final GetDeputyDocumentRequest request) {
-        final DeputyDocument document = deputyService.document(new GetDeputyDocumentCommand(
-                request.docId, request.docType, request.userId
-        ));
+    public ResponseEntity<?> document(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept,
+                                      @RequestHeader(value = HedgedRetry.ATTEMPTS_HEADER, required = false) final Integer maxAttempts,
+                                      @RequestBody final GetDeputyDocumentRequest request) {
+        final GetDeputyDocumentCommand command = new GetDeputyDocumentCommand(
+                request.docId, request.docType, request.userId, maxAttempts == null ? 0 : maxAttempts
+        );
+        if (acceptsPdf(accept)) {
+            final StreamingResponseBody body = out -> deputyService.documentPdf(command, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(body);
+        }
+        final DeputyDocument document = deputyService.document(command);
         return ResponseEntity.ok(document);
     }
 
+    /**
+     * 여러 문서를 한 번에 조회. 응답은 NDJSON 으로 조회가 끝나는 순서대로 한 줄씩 내보낸다.
+     * 각 줄의 index 는 요청 목록에서의 위치
+     */
+    @PostMapping(value = "/deputy/documents", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> documents(
+            @RequestHeader(value = HedgedRetry.ATTEMPTS_HEADER, required = false) final Integer maxAttempts,
+            @RequestBody final List<GetDeputyDocumentRequest> requests) {
+        return documents(requests, maxAttempts, false, MediaType.APPLICATION_NDJSON, (out, result) -> {
+            resultWriter.writeValue(out, GetDeputyDocumentsLine.of(result));
+            out.write('\n');
+        });
+    }
+
+    /**
+     * documents 와 같지만 Base64 JSON 대신 PDF 원본 byte 를 담는다(Accept: {@value #PDF_FRAMES_VALUE}).
+     * 문서마다 헤더 한 줄(JSON, length 는 뒤따르는 PDF byte 수)과 PDF 본문 length byte 가 이어진다
+     */
+    @PostMapping(value = "/deputy/documents", produces = PDF_FRAMES_VALUE)
+    public ResponseEntity<StreamingResponseBody> documentPdfs(
+            @RequestHeader(value = HedgedRetry.ATTEMPTS_HEADER, required = false) final Integer maxAttempts,
+            @RequestBody final List<GetDeputyDocumentRequest> requests) {
+        return documents(requests, maxAttempts, true, MediaType.parseMediaType(PDF_FRAMES_VALUE), (out, result) -> {
+            final GetDeputyDocumentsFrame frame = GetDeputyDocumentsFrame.of(result);
+            frameWriter.writeValue(out, frame);
+            out.write('\n');
+            if (frame.length() > 0) {
+                out.write(result.pdf());
+            }
+        });
+    }
+
+    private ResponseEntity<StreamingResponseBody> documents(final List<GetDeputyDocumentRequest> requests, final Integer maxAttempts,
+                                                            final boolean pdf, final MediaType contentType,
+                                                            final ResultWriter writer) {
+        if (requests.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        final List<GetDeputyDocumentCommand> commands = requests.stream()
+                .map(it -> new GetDeputyDocumentCommand(it.docId, it.docType, it.userId, maxAttempts == null ? 0 : maxAttempts))
+                .toList();
+        final StreamingResponseBody body = out -> {
+            try {
+                deputyService.documents(commands, pdf, result -> {
+                    try {
+                        writer.write(out, result);
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while streaming documents");
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(body);
+    }
+
+    private static boolean acceptsPdf(final String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_PDF::equalsTypeAndSubtype);
+    }
+
     record GetDeputyDocumentRequest(
             String docId,
             String docType,
             String userId
     ) {
     }
+
+    record GetDeputyDocumentsLine(
+            int index,
+            String docId,
+            String docType,
+            String userId,
+            String pdf,
+            String error
+    ) {
+        static GetDeputyDocumentsLine of(final DeputyDocumentResult result) {
+            final GetDeputyDocumentCommand command = result.command();
+            final String pdf = result.document() == null ? null : result.document().getPdf();
+            return new GetDeputyDocumentsLine(result.index(), command.docId(), command.docType(), command.userId(),
+                    pdf, result.error());
+        }
+    }
+
+    record GetDeputyDocumentsFrame(
+            int index,
+            String docId,
+            String docType,
+            String userId,
+            int length,
+            String error
+    ) {
+        static GetDeputyDocumentsFrame of(final DeputyDocumentResult result) {
+            final GetDeputyDocumentCommand command = result.command();
+            final int length = result.pdf() == null ? 0 : result.pdf().length;
+            return new GetDeputyDocumentsFrame(result.index(), command.docId(), command.docType(), command.userId(),
+                    length, result.error());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultWriter {
+        void write(OutputStream out, DeputyDocumentResult result) throws IOException;
+    }
 }
@@ -3,22 +3,96 @@ package com.poc.lab.bt.domain.application;
 
 
 import com.poc.lab.bt.domain.application.command.GetDeputyDocumentCommand;
+import com.poc.lab.bt.domain.application.result.DeputyDocumentResult;
 import com.poc.lab.bt.domain.domain.Court;
 import com.poc.lab.bt.domain.domain.DeputyDocument;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
 @Service
 public class DeputyService {
 
     private final Court court;
 
-    public DeputyService(final Court court) {
+    // 일괄 조회 요청 전체에서 Court 로 동시에 나가는 호출 수 상한
+    private final Semaphore courtPermits;
+
+    public DeputyService(final Court court,
+                         @Value("${bt.court.max-concurrency:64}") final int courtMaxConcurrency) {
         this.court = court;
+        this.courtPermits = new Semaphore(courtMaxConcurrency, true);
     }
 
     public DeputyDocument document(final GetDeputyDocumentCommand command) {
-        final DeputyDocument document = court.document(command.docId(), command.docType());
+        final DeputyDocument document = court.document(command.docId(), command.docType(), command.maxAttempts());
         document.setUserId(command.userId());
         return document;
     }
+
+    /**
+     * Court 응답 본문(PDF)을 버퍼링 없이 out 으로 전달
+     */
+    public void documentPdf(final GetDeputyDocumentCommand command, final OutputStream out) throws IOException {
+        court.transferPdf(command.docId(), command.docType(), out);
+    }
+
+    /**
+     * 여러 문서를 가상 스레드로 동시에 Court 에서 조회하고, 끝나는 순서대로 호출 스레드에서 onEach 를 호출
+     * - 한 건 실패는 해당 결과에만 기록하고 나머지는 계속 진행
+     * - onEach 가 예외를 던지면(클라이언트 연결 끊김 등) 남은 조회를 중단
+     */
+    public void documents(final List<GetDeputyDocumentCommand> commands,
+                          final Consumer<DeputyDocumentResult> onEach) throws InterruptedException {
+        documents(commands, false, onEach);
+    }
+
+    /**
+     * @param pdf true 면 각 결과에 Base64 JSON 문서 대신 PDF 원본 byte 를 담는다
+     */
+    public void documents(final List<GetDeputyDocumentCommand> commands, final boolean pdf,
+                          final Consumer<DeputyDocumentResult> onEach) throws InterruptedException {
+        final BlockingQueue<DeputyDocumentResult> completed = new LinkedBlockingQueue<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                for (int i = 0; i < commands.size(); i++) {
+                    final int index = i;
+                    final GetDeputyDocumentCommand command = commands.get(i);
+                    executor.execute(() -> completed.add(limitedDocument(index, command, pdf)));
+                }
+                for (int i = 0; i < commands.size(); i++) {
+                    onEach.accept(completed.take());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private DeputyDocumentResult limitedDocument(final int index, final GetDeputyDocumentCommand command, final boolean pdf) {
+        try {
+            courtPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DeputyDocumentResult.failure(index, command, e);
+        }
+        try {
+            return pdf
+                    ? DeputyDocumentResult.success(index, command, court.pdf(command.docId(), command.docType(), command.maxAttempts()))
+                    : DeputyDocumentResult.success(index, command, document(command));
+        } catch (Exception e) {
+            return DeputyDocumentResult.failure(index, command, e);
+        } finally {
+            courtPermits.release();
+        }
+    }
 }
@@ -1,9 +1,13 @@
 package com.poc.lab.bt.domain.application.command;
 
+/**
+ * @param maxAttempts Court 호출 최대 시도 수(호출 측이 재시도를 맡으면 1). 0 이하면 설정값
+ */
 public record GetDeputyDocumentCommand(
         String docId,
         String docType,
-        String userId
+        String userId,
+        int maxAttempts
 ) {
 }
 
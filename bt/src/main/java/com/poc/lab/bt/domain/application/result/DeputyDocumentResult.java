@@ -0,0 +1,27 @@
+package com.poc.lab.bt.domain.application.result;
+
+import com.poc.lab.bt.domain.application.command.GetDeputyDocumentCommand;
+import com.poc.lab.bt.domain.domain.DeputyDocument;
+
+/**
+ * 일괄 조회 중 한 건의 결과. JSON 조회면 document, PDF 조회면 pdf 에 담긴다. 실패하면 둘 다 null, error 에 사유
+ */
+public record DeputyDocumentResult(
+        int index,
+        GetDeputyDocumentCommand command,
+        DeputyDocument document,
+        byte[] pdf,
+        String error
+) {
+    public static DeputyDocumentResult success(final int index, final GetDeputyDocumentCommand command, final DeputyDocument document) {
+        return new DeputyDocumentResult(index, command, document, null, null);
+    }
+
+    public static DeputyDocumentResult success(final int index, final GetDeputyDocumentCommand command, final byte[] pdf) {
+        return new DeputyDocumentResult(index, command, null, pdf, null);
+    }
+
+    public static DeputyDocumentResult failure(final int index, final GetDeputyDocumentCommand command, final Exception e) {
+        return new DeputyDocumentResult(index, command, null, null, e.getClass().getSimpleName() + ": " + e.getMessage());
+    }
+}
@@ -1,5 +1,22 @@
 package com.poc.lab.bt.domain.domain;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 public interface Court {
-    DeputyDocument document(String docId, String docType);
+    /**
+     * @param maxAttempts 재시도를 포함한 최대 호출 수. 0 이하면 설정값
+     */
+    DeputyDocument document(String docId, String docType, int maxAttempts);
+
+    /**
+     * PDF 원본 byte. document 와 같이 재시도/hedge 와 캐시를 적용한다
+     * @param maxAttempts 재시도를 포함한 최대 호출 수. 0 이하면 설정값
+     */
+    byte[] pdf(String docId, String docType, int maxAttempts);
+
+    /**
+     * PDF 원본 byte 를 메모리에 모으지 않고 out 으로 바로 전달
+     */
+    void transferPdf(String docId, String docType, OutputStream out) throws IOException;
 }
@@ -0,0 +1,17 @@
+package com.poc.lab.bt.domain.domain;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Court 가 성공 응답에 문서(본문 또는 pdf)를 담지 않았을 때
+ * - 재시도로 풀릴 수 있는 상류 응답 오류이므로 호출자에게는 502 로 알린다
+ */
+@ResponseStatus(HttpStatus.BAD_GATEWAY)
+public class CourtDocumentMissingException extends RestClientException {
+
+    public CourtDocumentMissingException(final String docId, final String docType) {
+        super("Court returned no document: " + docType + "/" + docId);
+    }
+}
@@ -0,0 +1,59 @@
+package com.poc.lab.bt.domain.infrastructure;
+
+import com.poc.lab.common.http.HedgedRetry;
+import com.poc.lab.common.http.HttpClientSettings;
+import com.poc.lab.common.http.PooledRestClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+@Configuration
+public class CourtClientConfig {
+
+    // Court 연결 풀 클라이언트. 연결 수는 Court 동시 호출 상한(bt.court.max-concurrency)에 맞춘다
+    @Bean
+    public RestClient courtRestClient(MeterRegistry meterRegistry,
+                                      ObservationRegistry observationRegistry,
+                                      @Value("${bt.court.base-url:http://localhost:8081}") String baseUrl,
+                                      @Value("${bt.court.max-concurrency:64}") int maxConnections,
+                                      @Value("${bt.court.http.connect-timeout:PT2S}") Duration connectTimeout,
+                                      @Value("${bt.court.http.read-timeout:PT10S}") Duration readTimeout,
+                                      @Value("${bt.court.http.keep-alive:PT15S}") Duration keepAlive,
+                                      @Value("${bt.court.http.time-to-live:PT5M}") Duration timeToLive) {
+        return PooledRestClients.create("court", baseUrl,
+                new HttpClientSettings(maxConnections, connectTimeout, readTimeout, keepAlive, timeToLive),
+                meterRegistry, observationRegistry);
+    }
+
+    // (docType, docId) 별 Court PDF 캐시. Court 응답의 Cache-Control max-age 동안 재조회하지 않는다
+    @Bean
+    public CourtDocumentCache courtDocumentCache(MeterRegistry meterRegistry,
+                                                 @Value("${bt.court.cache.enabled:true}") boolean enabled,
+                                                 @Value("${bt.court.cache.max-entries:10000}") int maxEntries,
+                                                 @Value("${bt.court.cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        if (!enabled) {
+            return CourtDocumentCache.disabled();
+        }
+        final CourtDocumentCache cache = new CourtDocumentCache(maxEntries, maxEntryBytes);
+        cache.bindTo(meterRegistry);
+        return cache;
+    }
+
+    // Court 문서 조회 재시도(max-attempts 1 이면 없음)와 hedged request(최근 응답 시간 percentile 분위 초과 시 한 번 더)
+    @Bean(destroyMethod = "shutdown")
+    public HedgedRetry courtHedgedRetry(MeterRegistry meterRegistry,
+                                        @Value("${bt.court.hedge.enabled:true}") boolean hedging,
+                                        @Value("${bt.court.hedge.percentile:0.5}") double percentile,
+                                        @Value("${bt.court.hedge.min-delay:PT0.2S}") Duration minDelay,
+                                        @Value("${bt.court.hedge.budget:0.3}") double budget,
+                                        @Value("${bt.court.retry.max-attempts:3}") int maxAttempts,
+                                        @Value("${bt.court.retry.base-backoff:PT0.1S}") Duration baseBackoff,
+                                        @Value("${bt.court.retry.max-backoff:PT1S}") Duration maxBackoff) {
+        return new HedgedRetry("court", meterRegistry, hedging, percentile, minDelay, budget, maxAttempts, baseBackoff, maxBackoff);
+    }
+}
@@ -0,0 +1,112 @@
+package com.poc.lab.bt.domain.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * (docType, docId) 별 Court PDF 캐시
+ * - Court 응답의 Cache-Control max-age 동안만 둔다(no-store/no-cache 이거나 max-age 가 없으면 두지 않는다)
+ * - 항목 수 maxEntries 를 넘으면 가장 오래 안 쓰인 것부터 내보내고, maxEntryBytes 보다 큰 PDF 는 두지 않는다
+ * - 지표: bt.court.cache.requests{result=hit|miss}, bt.court.cache.size
+ */
+public class CourtDocumentCache {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final int maxEntryBytes;
+    private final Map<Key, Entry> entries;
+
+    private Counter hits;
+    private Counter misses;
+
+    public CourtDocumentCache(final int maxEntries, final int maxEntryBytes) {
+        Assert.isTrue(maxEntries >= 0, "maxEntries must not be negative");
+        Assert.isTrue(maxEntryBytes >= 0, "maxEntryBytes must not be negative");
+        this.maxEntryBytes = maxEntryBytes;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static CourtDocumentCache disabled() {
+        return new CourtDocumentCache(0, 0);
+    }
+
+    /**
+     * 만료되지 않은 PDF. 없으면 null
+     */
+    public synchronized byte[] get(final String docType, final String docId) {
+        final Key key = new Key(docType, docId);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() - System.nanoTime() <= 0) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (hits != null) {
+            (entry != null ? hits : misses).increment();
+        }
+        return entry == null ? null : entry.pdf();
+    }
+
+    /**
+     * 응답 헤더와 본문 길이(모르면 음수)로 보아 캐시에 둘 수 있는지. 본문을 읽기 전에 판단한다
+     */
+    public boolean cacheable(final HttpHeaders headers, final long contentLength) {
+        return contentLength >= 0 && contentLength <= maxEntryBytes && maxAgeSeconds(headers) > 0;
+    }
+
+    public void put(final String docType, final String docId, final byte[] pdf, final HttpHeaders headers) {
+        final long maxAge = maxAgeSeconds(headers);
+        if (maxAge <= 0 || pdf.length > maxEntryBytes) {
+            return;
+        }
+        final Entry entry = new Entry(pdf, System.nanoTime() + TimeUnit.SECONDS.toNanos(maxAge));
+        synchronized (this) {
+            entries.put(new Key(docType, docId), entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("bt.court.cache.size", this, CourtDocumentCache::size)
+                .register(registry);
+        this.hits = Counter.builder("bt.court.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("bt.court.cache.requests").tag("result", "miss").register(registry);
+    }
+
+    private static long maxAgeSeconds(final HttpHeaders headers) {
+        final String cacheControl = headers.getCacheControl();
+        if (cacheControl == null || cacheControl.contains("no-store") || cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        final Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private record Key(
+            String docType,
+            String docId
+    ) {
+    }
+
+    private record Entry(
+            byte[] pdf,
+            long expiresAt
+    ) {
+    }
+}
@@ -1,32 +1,119 @@
 package com.poc.lab.bt.domain.infrastructure;
 
 import com.poc.lab.bt.domain.domain.Court;
+import com.poc.lab.bt.domain.domain.CourtDocumentMissingException;
 import com.poc.lab.bt.domain.domain.DeputyDocument;
+import com.poc.lab.common.http.HedgedRetry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
-import java.net.URI;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Base64;
 
 @Component
 public class DefaultCourt implements Court {
 
-    private final RestClient restClient = RestClient.builder()
-            .baseUrl("http://localhost:8081")
-            .build();
+    private final RestClient restClient;
+    private final HedgedRetry hedgedRetry;
+    private final CourtDocumentCache cache;
 
+    public DefaultCourt(@Qualifier("courtRestClient") final RestClient restClient, final HedgedRetry courtHedgedRetry,
+                        final CourtDocumentCache courtDocumentCache) {
+        this.restClient = restClient;
+        this.hedgedRetry = courtHedgedRetry;
+        this.cache = courtDocumentCache;
+    }
+
+    // 조회는 멱등이므로 재시도와 hedged request 를 적용한다
+    // Court 가 Cache-Control 로 허용한 동안은 같은 (docType, docId) 를 다시 조회하지 않는다
     @Override
-    public DeputyDocument document(final String docId, final String docType) {
-        final ResDocument resDocument = restClient.post()
-                .uri(URI.create("/documents/" + docType))
+    public DeputyDocument document(final String docId, final String docType, final int maxAttempts) {
+        final byte[] cached = cache.get(docType, docId);
+        if (cached != null) {
+            return new DeputyDocument(docId, docType, Base64.getEncoder().encodeToString(cached));
+        }
+        final ResponseEntity<ResDocument> response = hedgedRetry.call(maxAttempts > 0 ? maxAttempts : Integer.MAX_VALUE, () -> restClient.post()
+                .uri("/documents/{docType}", docType)
                 .accept(MediaType.APPLICATION_JSON)
                 .body(new ReqDocument(docId))
                 .retrieve()
-                .toEntity(ResDocument.class)
-                .getBody();
+                .toEntity(ResDocument.class));
+        final ResDocument resDocument = response.getBody();
+        if (resDocument == null || resDocument.pdf == null) {
+            throw new CourtDocumentMissingException(docId, docType);
+        }
+        if (cache.cacheable(response.getHeaders(), resDocument.pdf.length() / 4L * 3)) {
+            cache.put(docType, docId, Base64.getDecoder().decode(resDocument.pdf), response.getHeaders());
+        }
         return new DeputyDocument(docId, docType, resDocument.pdf);
     }
 
+    // document 와 같지만 Court 에 application/pdf 로 요청해 Base64 변환 없이 원본 byte 를 돌려준다
+    @Override
+    public byte[] pdf(final String docId, final String docType, final int maxAttempts) {
+        final byte[] cached = cache.get(docType, docId);
+        if (cached != null) {
+            return cached;
+        }
+        final ResponseEntity<byte[]> response = hedgedRetry.call(maxAttempts > 0 ? maxAttempts : Integer.MAX_VALUE, () -> restClient.post()
+                .uri("/documents/{docType}", docType)
+                .accept(MediaType.APPLICATION_PDF)
+                .body(new ReqDocument(docId))
+                .retrieve()
+                .toEntity(byte[].class));
+        final byte[] pdf = response.getBody();
+        if (pdf == null) {
+            throw new CourtDocumentMissingException(docId, docType);
+        }
+        cache.put(docType, docId, pdf, response.getHeaders());
+        return pdf;
+    }
+
+    // 응답 본문을 바로 흘려 보내므로 재시도/hedge 하지 않는다
+    // 캐시할 수 있는 크기의 응답만 모아서 쓰고 캐시에 둔다
+    @Override
+    public void transferPdf(final String docId, final String docType, final OutputStream out) throws IOException {
+        final byte[] cached = cache.get(docType, docId);
+        if (cached != null) {
+            out.write(cached);
+            return;
+        }
+        try {
+            restClient.post()
+                    .uri("/documents/{docType}", docType)
+                    .accept(MediaType.APPLICATION_PDF)
+                    .body(new ReqDocument(docId))
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isError()) {
+                            throw new RestClientException("Court document request failed: " + response.getStatusCode());
+                        }
+                        try {
+                            final HttpHeaders headers = response.getHeaders();
+                            if (!cache.cacheable(headers, headers.getContentLength())) {
+                                response.getBody().transferTo(out);
+                                return null;
+                            }
+                            final byte[] pdf = response.getBody().readAllBytes();
+                            out.write(pdf);
+                            cache.put(docType, docId, pdf, headers);
+                        } catch (IOException e) {
+                            // 호출자(응답 스트림) 쪽 쓰기 실패는 그대로 전달
+                            throw new UncheckedIOException(e);
+                        }
+                        return null;
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     record ReqDocument(
             String docId
     ) {
@@ -0,0 +1,89 @@
+package com.poc.lab.bt.domain.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.lab.bt.domain.application.DeputyService;
+import com.poc.lab.bt.domain.domain.Court;
+import com.poc.lab.bt.domain.domain.DeputyDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DeputyApiTests {
+
+    private static final String TWO_DOCUMENTS = """
+            [{"docId":"A-0","docType":"basic","userId":"u-1"},{"docId":"A-1","docType":"basic","userId":"u-1"}]
+            """;
+
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new DeputyApi(new DeputyService(new StubCourt(), 4), new ObjectMapper(), 2))
+            .build();
+
+    @Test
+    void rejectsBatchLargerThanMaxBatchSize() throws Exception {
+        mockMvc.perform(post("/api/v1/deputy/documents")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                [{"docId":"A-0","docType":"basic","userId":"u-1"},
+                                 {"docId":"A-1","docType":"basic","userId":"u-1"},
+                                 {"docId":"A-2","docType":"basic","userId":"u-1"}]
+                                """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamsPdfFramesWithHeaderAndRawBytes() throws Exception {
+        final MvcResult started = mockMvc.perform(post("/api/v1/deputy/documents")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(DeputyApi.PDF_FRAMES_VALUE)
+                        .content(TWO_DOCUMENTS))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        final MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(DeputyApi.PDF_FRAMES_VALUE))
+                .andReturn();
+
+        final String body = new String(result.getResponse().getContentAsByteArray(), StandardCharsets.ISO_8859_1);
+        // 끝나는 순서대로 오므로 순서와 무관하게 헤더 뒤에 원본 byte 가 이어지는지 본다
+        assertThat(body).contains("\"docId\":\"A-0\"", "\"length\":" + pdf("A-0").length + ",\"error\":null}\n" + "%PDF A-0");
+        assertThat(body).contains("\"docId\":\"A-1\"", "%PDF A-1");
+    }
+
+    private static byte[] pdf(final String docId) {
+        return ("%PDF " + docId).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class StubCourt implements Court {
+
+        @Override
+        public DeputyDocument document(final String docId, final String docType, final int maxAttempts) {
+            return new DeputyDocument(docId, docType, Base64.getEncoder().encodeToString(pdf(docId)));
+        }
+
+        @Override
+        public byte[] pdf(final String docId, final String docType, final int maxAttempts) {
+            return DeputyApiTests.pdf(docId);
+        }
+
+        @Override
+        public void transferPdf(final String docId, final String docType, final OutputStream out) throws IOException {
+            out.write(DeputyApiTests.pdf(docId));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.poc.lab.common.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.Assert;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 멱등 조회용 재시도 + hedged request
+ * - 시도가 최근 응답 시간의 hedgePercentile 분위(최소 minHedgeDelay)를 넘기면 같은 요청을 한 번 더 보내고 먼저 성공한 쪽을 사용
+ * - 진 쪽은 스레드 interrupt 로 취소(가상 스레드의 블로킹 소켓은 닫히고 연결은 풀에서 버려진다)
+ * - hedge 는 primary 요청 수의 hedgeBudget 비율까지만 보낸다(과부하 시 부하를 두 배로 만들지 않도록)
+ * - hedge 가 이기면 primary 응답 시간은 알 수 없으므로 그때까지의 경과 시간(하한)을 표본으로 남긴다
+ *   (이긴 primary 만 기록하면 느린 응답이 빠져 분위가 min-delay 쪽으로 내려가고 hedge 가 늘어난다)
+ * - 재시도는 타임아웃/연결 실패, 5xx, 429 에만, full jitter 지수 백오프로 maxAttempts 회까지
+ * - 호출 측이 이미 재시도한다면 {@link #ATTEMPTS_HEADER} 로 하위 서비스의 시도 수를 줄여 층마다 곱해지지 않게 한다
+ * - 지표: deputy.hedge.attempts{client,type=primary|hedge|retry}, deputy.hedge.wins{client,winner},
+ *         deputy.hedge.latency{client} (재시도 포함 전체 시간, 히스토그램)
+ */
+public class HedgedRetry {
+
+    /**
+     * 하위 서비스가 이 요청에 쓸 수 있는 최대 시도 수(1 이면 재시도 없음). 재시도를 맡은 호출 측이 보낸다
+     */
+    public static final String ATTEMPTS_HEADER = "X-Retry-Attempts";
+
+    private static final int WINDOW_SIZE = 512;
+    private static final int MIN_SAMPLES = 64;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    private final boolean hedging;
+    private final double hedgePercentile;
+    private final long minHedgeDelayNanos;
+    private final double hedgeBudget;
+    private final int maxAttempts;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("hedged-", 0).factory());
+
+    // 최근 primary 성공 응답 시간 ring buffer 와 캐시된 hedge 지연
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private int samples;
+    private int nextSample;
+    private long hedgeDelayNanos = -1;
+    private double hedgeTokens = MAX_HEDGE_TOKENS;
+
+    private final Counter primaries;
+    private final Counter hedges;
+    private final Counter retries;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+    private final Timer latency;
+
+    /**
+     * @param hedging         false 면 재시도만
+     * @param hedgePercentile hedge 기준 분위(0~1)
+     * @param hedgeBudget     primary 요청 대비 hedge 비율 상한(0~1)
+     * @param maxAttempts     첫 시도를 포함한 최대 시도 수. 1 이면 재시도 없음
+     */
+    public HedgedRetry(final String client, final MeterRegistry registry,
+                       final boolean hedging, final double hedgePercentile, final Duration minHedgeDelay, final double hedgeBudget,
+                       final int maxAttempts, final Duration baseBackoff, final Duration maxBackoff) {
+        Assert.hasText(client, "client must not be empty");
+        Assert.notNull(registry, "registry must not be null");
+        Assert.isTrue(hedgePercentile > 0 && hedgePercentile < 1, "hedgePercentile must be in (0, 1)");
+        Assert.isTrue(minHedgeDelay != null && !minHedgeDelay.isNegative(), "minHedgeDelay must not be negative");
+        Assert.isTrue(hedgeBudget >= 0 && hedgeBudget <= 1, "hedgeBudget must be in [0, 1]");
+        Assert.isTrue(maxAttempts > 0, "maxAttempts must be positive");
+        Assert.isTrue(baseBackoff != null && !baseBackoff.isNegative(), "baseBackoff must not be negative");
+        Assert.isTrue(maxBackoff != null && maxBackoff.compareTo(baseBackoff) >= 0, "maxBackoff must not be less than baseBackoff");
+        this.hedging = hedging;
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+        this.hedgeBudget = hedgeBudget;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffNanos = baseBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.primaries = attempts(registry, client, "primary");
+        this.hedges = attempts(registry, client, "hedge");
+        this.retries = attempts(registry, client, "retry");
+        this.primaryWins = wins(registry, client, "primary");
+        this.hedgeWins = wins(registry, client, "hedge");
+        this.latency = Timer.builder("deputy.hedge.latency")
+                .tag("client", client)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public <T> T call(final Supplier<T> request) {
+        return call(maxAttempts, request);
+    }
+
+    /**
+     * @param maxAttempts 이번 호출의 최대 시도 수(hedge 제외). 설정값보다 크면 설정값, 1 이면 hedge 만
+     */
+    public <T> T call(final int maxAttempts, final Supplier<T> request) {
+        final int attempts = Math.max(1, Math.min(maxAttempts, this.maxAttempts));
+        final long start = System.nanoTime();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return hedged(request);
+                } catch (RuntimeException e) {
+                    if (attempt >= attempts || !isRetryable(e)) {
+                        throw e;
+                    }
+                    retries.increment();
+                    sleep(backoffNanos(attempt));
+                }
+            }
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T hedged(final Supplier<T> request) {
+        final ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        final List<Future<T>> started = new ArrayList<>(2);
+        final long start = System.nanoTime();
+        started.add(completion.submit(request::get));
+        onPrimary();
+        try {
+            Future<T> done = completion.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (done == null && tryHedge()) {
+                started.add(completion.submit(request::get));
+                hedges.increment();
+            }
+            RuntimeException failure = null;
+            for (int pending = started.size(); pending > 0; pending--) {
+                if (done == null) {
+                    done = completion.take();
+                }
+                try {
+                    final T result = done.get();
+                    if (done == started.get(0)) {
+                        primaryWins.increment();
+                        recordLatency(System.nanoTime() - start);
+                    } else {
+                        hedgeWins.increment();
+                        // primary 는 적어도 지금까지 걸린다(하한으로 기록)
+                        recordLatency(System.nanoTime() - start);
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    // 한쪽이 실패해도 다른 쪽이 아직 진행 중이면 그 결과를 기다린다
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException runtime ? runtime : new CompletionException(e.getCause());
+                    }
+                }
+                done = null;
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            started.forEach(it -> it.cancel(true));
+        }
+    }
+
+    // 표본이 충분하지 않으면 hedge 하지 않는다
+    private synchronized long hedgeDelayNanos() {
+        if (!hedging || hedgeDelayNanos < 0) {
+            return Long.MAX_VALUE;
+        }
+        return hedgeDelayNanos;
+    }
+
+    private synchronized void onPrimary() {
+        primaries.increment();
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + hedgeBudget);
+    }
+
+    private synchronized boolean tryHedge() {
+        if (hedgeTokens < 1) {
+            return false;
+        }
+        hedgeTokens--;
+        return true;
+    }
+
+    private synchronized void recordLatency(final long nanos) {
+        latencies[nextSample] = nanos;
+        nextSample = (nextSample + 1) % WINDOW_SIZE;
+        samples++;
+        if (samples >= MIN_SAMPLES && samples % RECOMPUTE_EVERY == 0) {
+            final long[] window = Arrays.copyOf(latencies, Math.min(samples, WINDOW_SIZE));
+            Arrays.sort(window);
+            final int index = Math.min(window.length - 1, (int) Math.ceil(hedgePercentile * window.length) - 1);
+            hedgeDelayNanos = Math.max(minHedgeDelayNanos, window[Math.max(0, index)]);
+        }
+    }
+
+    // full jitter: [0, min(maxBackoff, baseBackoff * 2^(attempt-1))) 중 임의 값
+    private long backoffNanos(final int attempt) {
+        final long ceiling = Math.min(maxBackoffNanos, baseBackoffNanos << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling);
+    }
+
+    private static void sleep(final long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    // 멱등 조회이므로 일시적 실패(타임아웃/연결 실패, 5xx, 429)만 다시 보낸다
+    private static boolean isRetryable(final RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+
+    private static Counter attempts(final MeterRegistry registry, final String client, final String type) {
+        return Counter.builder("deputy.hedge.attempts").tag("client", client).tag("type", type).register(registry);
+    }
+
+    private static Counter wins(final MeterRegistry registry, final String client, final String winner) {
+        return Counter.builder("deputy.hedge.wins").tag("client", client).tag("winner", winner).register(registry);
+    }
+}
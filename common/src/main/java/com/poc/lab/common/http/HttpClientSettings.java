@@ -0,0 +1,36 @@
+package com.poc.lab.common.http;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 다운스트림 하나(base URL 하나)에 대한 HTTP 클라이언트 설정
+ *
+ * @param maxConnections 풀 최대 연결 수(라우트가 하나이므로 라우트당 최대와 같다). 다 쓰면 connectTimeout 동안 대기
+ * @param connectTimeout 연결 수립과 풀 대기 시간 상한
+ * @param readTimeout    응답 대기(소켓 read) 시간 상한
+ * @param keepAlive      유휴 연결 유지 시간. 서버 keep-alive 보다 짧게 둬야 끊긴 연결을 재사용하지 않는다
+ * @param timeToLive     연결 최대 수명(재연결로 서버 인스턴스 간 분산)
+ */
+public record HttpClientSettings(
+        int maxConnections,
+        Duration connectTimeout,
+        Duration readTimeout,
+        Duration keepAlive,
+        Duration timeToLive
+) {
+
+    public HttpClientSettings {
+        Assert.isTrue(maxConnections > 0, "maxConnections must be positive");
+        Assert.isTrue(connectTimeout != null && connectTimeout.isPositive(), "connectTimeout must be positive");
+        Assert.isTrue(readTimeout != null && readTimeout.isPositive(), "readTimeout must be positive");
+        Assert.isTrue(keepAlive != null && keepAlive.isPositive(), "keepAlive must be positive");
+        Assert.isTrue(timeToLive != null && timeToLive.isPositive(), "timeToLive must be positive");
+    }
+
+    public static HttpClientSettings defaults(final int maxConnections) {
+        return new HttpClientSettings(maxConnections, Duration.ofSeconds(2), Duration.ofSeconds(30),
+                Duration.ofSeconds(15), Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,88 @@
+package com.poc.lab.common.http;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+import org.springframework.web.client.RestClient;
+
+/**
+ * 다운스트림별 연결 풀 RestClient 생성
+ * - HTTP/1.1: Apache HttpClient 5 연결 풀(keep-alive, 유휴/만료 연결 정리, 자동 재시도 없음)
+ *   풀 상태는 httpcomponents.httpclient.pool.* (httpclient=name, leased/available/pending) 게이지로 기록
+ * - 요청 시간은 http.client.requests (client=name) 관측으로 기록. 히스토그램은 management.metrics.distribution 설정을 따른다
+ * - 요청 본문을 버퍼링하는 interceptor 는 쓰지 않는다(스트리밍 업로드 유지)
+ */
+public final class PooledRestClients {
+
+    private PooledRestClients() {
+    }
+
+    public static RestClient create(final String name, final String baseUrl, final HttpClientSettings settings,
+                                    final MeterRegistry meterRegistry, final ObservationRegistry observationRegistry) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(pooled(name, settings, meterRegistry))
+                .observationRegistry(observationRegistry)
+                .observationConvention(new NamedClientRequestObservationConvention(name))
+                .build();
+    }
+
+    private static ClientHttpRequestFactory pooled(final String name, final HttpClientSettings settings,
+                                                   final MeterRegistry meterRegistry) {
+        final PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.maxConnections())
+                .setMaxConnPerRoute(settings.maxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(settings.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(settings.readTimeout()))
+                        .setTimeToLive(TimeValue.of(settings.timeToLive()))
+                        .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setTcpNoDelay(true)
+                        .setSoKeepAlive(true)
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+        return new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // 풀이 다 찼을 때 빈 연결을 기다리는 시간
+                        .setConnectionRequestTimeout(Timeout.of(settings.connectTimeout()))
+                        .setResponseTimeout(Timeout.of(settings.readTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(settings.keepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(settings.keepAlive()))
+                .disableAutomaticRetries()
+                .build());
+    }
+
+    // 기본 태그(method, uri, status, outcome ...)에 다운스트림 이름을 더한다
+    private static final class NamedClientRequestObservationConvention extends DefaultClientRequestObservationConvention {
+
+        private final KeyValue client;
+
+        private NamedClientRequestObservationConvention(final String name) {
+            this.client = KeyValue.of("client", name);
+        }
+
+        @Override
+        public KeyValues getLowCardinalityKeyValues(final ClientRequestObservationContext context) {
+            return super.getLowCardinalityKeyValues(context).and(client);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.poc.lab.common.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgedRetryTests {
+
+    @Test
+    void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final HedgedRetry hedgedRetry = new HedgedRetry("court", registry,
+                true, 0.9, Duration.ofMillis(20), 1.0, 1, Duration.ZERO, Duration.ZERO);
+        try {
+            // 지연 분위 계산용 표본
+            for (int i = 0; i < 64; i++) {
+                hedgedRetry.call(() -> sleep(5));
+            }
+
+            final AtomicInteger attempts = new AtomicInteger();
+            final CountDownLatch primaryInterrupted = new CountDownLatch(1);
+            final long start = System.nanoTime();
+            final String result = hedgedRetry.call(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    try {
+                        Thread.sleep(5_000);
+                    } catch (InterruptedException e) {
+                        primaryInterrupted.countDown();
+                    }
+                    return "primary";
+                }
+                return "hedge";
+            });
+
+            assertThat(result).isEqualTo("hedge");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+            assertThat(primaryInterrupted.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(registry.get("deputy.hedge.wins").tags("client", "court", "winner", "hedge").counter().count())
+                    .isEqualTo(1);
+        } finally {
+            hedgedRetry.shutdown();
+        }
+    }
+
+    @Test
+    void callerBoundOverridesConfiguredAttempts() {
+        final HedgedRetry hedgedRetry = new HedgedRetry("bt", new SimpleMeterRegistry(),
+                false, 0.5, Duration.ZERO, 0, 3, Duration.ZERO, Duration.ZERO);
+        try {
+            final AtomicInteger calls = new AtomicInteger();
+            assertThatThrownBy(() -> hedgedRetry.call(1, () -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            })).isInstanceOf(HttpServerErrorException.class);
+            assertThat(calls).hasValue(1);
+
+            calls.set(0);
+            assertThatThrownBy(() -> hedgedRetry.call(10, () -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+            })).isInstanceOf(HttpServerErrorException.class);
+            assertThat(calls).hasValue(3);
+        } finally {
+            hedgedRetry.shutdown();
+        }
+    }
+
+    @Test
+    void retriesServerErrorsButNotClientErrors() {
+        final HedgedRetry hedgedRetry = new HedgedRetry("bt", new SimpleMeterRegistry(),
+                false, 0.5, Duration.ZERO, 0, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+        try {
+            final AtomicInteger calls = new AtomicInteger();
+            final String result = hedgedRetry.call(() -> {
+                if (calls.incrementAndGet() < 3) {
+                    throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+                }
+                return "ok";
+            });
+            assertThat(result).isEqualTo("ok");
+            assertThat(calls).hasValue(3);
+
+            final AtomicInteger badRequests = new AtomicInteger();
+            assertThatThrownBy(() -> hedgedRetry.call(() -> {
+                badRequests.incrementAndGet();
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            })).isInstanceOf(HttpClientErrorException.class);
+            assertThat(badRequests).hasValue(1);
+        } finally {
+            hedgedRetry.shutdown();
+        }
+    }
+
+    private static String sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "sample";
+    }
+}
@@ -0,0 +1,62 @@
+package com.poc.lab.common.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledRestClientsTests {
+
+    @Test
+    void concurrentRequestsReuseAtMostMaxConnections() throws Exception {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (StubHttpServer server = StubHttpServer.start(Duration.ofMillis(5))) {
+            final RestClient client = PooledRestClients.create("stub", server.baseUrl(),
+                    HttpClientSettings.defaults(8), registry, ObservationRegistry.NOOP);
+
+            final List<Future<String>> responses = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 400; i++) {
+                    responses.add(executor.submit(() -> client.post().uri("/files").body("x").retrieve().body(String.class)));
+                }
+            }
+            for (Future<String> response : responses) {
+                assertThat(response.get()).isEqualTo("ok");
+            }
+
+            assertThat(server.requests()).isEqualTo(400);
+            assertThat(server.maxInFlight()).isLessThanOrEqualTo(8);
+            assertThat(server.connections()).isLessThanOrEqualTo(8);
+            assertThat(registry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "stub").gauge().value())
+                    .isEqualTo(8);
+            assertThat(registry.get("httpcomponents.httpclient.pool.total.connections")
+                    .tags("httpclient", "stub", "state", "leased").gauge().value()).isZero();
+        }
+    }
+
+    @Test
+    void stalledServerFailsAfterReadTimeout() throws Exception {
+        try (StubHttpServer server = StubHttpServer.start(Duration.ofSeconds(5))) {
+            final RestClient client = PooledRestClients.create("stalled", server.baseUrl(),
+                    new HttpClientSettings(2, Duration.ofSeconds(1), Duration.ofMillis(200),
+                            Duration.ofSeconds(15), Duration.ofMinutes(5)),
+                    new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+            final long started = System.nanoTime();
+            assertThatThrownBy(() -> client.get().uri("/slow").retrieve().body(String.class))
+                    .isInstanceOf(ResourceAccessException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        }
+    }
+}
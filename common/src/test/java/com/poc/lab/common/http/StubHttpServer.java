@@ -0,0 +1,85 @@
+package com.poc.lab.common.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 부하/타임아웃 테스트용 in-process HTTP 서버
+ * - 모든 경로에 responseDelay 만큼 기다린 뒤 "ok" 응답(요청 본문은 끝까지 읽고 버림)
+ * - 요청마다 클라이언트 포트를 기록해 실제로 열린 연결 수를 센다
+ * - 요청은 가상 스레드에서 처리하므로 동시 요청 수는 클라이언트 풀이 정한다
+ */
+final class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Duration responseDelay;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private StubHttpServer(final Duration responseDelay) throws IOException {
+        this.responseDelay = responseDelay;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    static StubHttpServer start(final Duration responseDelay) throws IOException {
+        return new StubHttpServer(responseDelay);
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int connections() {
+        return clientPorts.size();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+            Thread.sleep(responseDelay);
+            final byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -1,41 +1,107 @@
 package com.poc.lab.court.domain.api;
 
+import com.poc.lab.court.domain.document.PdfTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import java.util.Random;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
+/**
+ * 법원 문서 조회 흉내
+ * - 응답 지연(court.latency.min ~ max)은 스케줄러로 흉내 내고 요청 스레드는 바로 돌려준다(DeferredResult)
+ * - PDF 는 docType 별로 미리 만든 틀에 docId 만 끼워 넣는다
+ * - 같은 (docType, docId) 는 항상 같은 내용이므로 Cache-Control(max-age)과 ETag 를 붙여 호출 측이 캐시할 수 있게 한다
+ */
 @RestController
 public class CourtApi {
 
+    private static final Map<String, PdfTemplate> TEMPLATES = Map.of(
+            "basic", new PdfTemplate("Basic Document ID: "),
+            "family", new PdfTemplate("Family Document ID: ")
+    );
+
+    private final ScheduledExecutorService latencyScheduler;
+    private final long minLatencyMillis;
+    private final long maxLatencyMillis;
+    private final CacheControl cacheControl;
+
+    public CourtApi(@Qualifier("courtLatencyScheduler") final ScheduledExecutorService latencyScheduler,
+                    @Value("${court.latency.min:PT0.1S}") final Duration minLatency,
+                    @Value("${court.latency.max:PT3S}") final Duration maxLatency,
+                    @Value("${court.document.max-age:PT10M}") final Duration maxAge) {
+        this.latencyScheduler = latencyScheduler;
+        this.minLatencyMillis = minLatency.toMillis();
+        this.maxLatencyMillis = Math.max(minLatency.toMillis() + 1, maxLatency.toMillis());
+        this.cacheControl = CacheControl.maxAge(maxAge);
+    }
+
+    /**
+     * Accept 에 application/pdf 가 있으면 Base64/JSON 없이 PDF 원본 byte 를 그대로 응답, 아니면 기존 JSON 응답
+     */
     @PostMapping("/documents/{docType}")
-    public ResponseEntity<CourtDocument> document(
+    public DeferredResult<ResponseEntity<?>> document(
             @PathVariable final String docType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept,
             @RequestBody final GetCourtDocumentRequest request
-    ) throws InterruptedException {
-        final int i = new Random().nextInt(1, 100);
-        if(i % 66 == 0) {
-            throw new RuntimeException("EDMS Error !");
+    ) {
+        final PdfTemplate template = TEMPLATES.get(docType.toLowerCase(Locale.ROOT));
+        if (template == null) {
+            throw new UnsupportedOperationException("Not supported yet.");
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        if (random.nextInt(1, 100) % 66 == 0) {
+            latencyScheduler.schedule(() -> result.setErrorResult(new RuntimeException("EDMS Error !")),
+                    random.nextLong(minLatencyMillis, maxLatencyMillis), TimeUnit.MILLISECONDS);
+            return result;
         }
-        final CourtDocument courtDocument = courtDocument(docType, request.docId);
-        return ResponseEntity.ok(courtDocument);
+        // 응답은 지금 만들어 두고 지연 후에는 넘기기만 한다
+        final ResponseEntity<?> response = response(template.render(request.docId), acceptsPdf(accept));
+        latencyScheduler.schedule(() -> result.setResult(response),
+                random.nextLong(minLatencyMillis, maxLatencyMillis), TimeUnit.MILLISECONDS);
+        return result;
     }
 
-    private CourtDocument courtDocument(final String docType, final String docId) throws InterruptedException {
-        Thread.sleep(new Random().nextInt(100, 3000));
-        if (docType.equalsIgnoreCase("basic")) {
-            String pdfContent = "%PDF-1.4\n1 0 obj\n<<\n/Type /Catalog\n/Pages 2 0 R\n>>\nendobj\n2 0 obj\n<<\n/Type /Pages\n/Kids [3 0 R]\n/Count 1\n>>\nendobj\n3 0 obj\n<<\n/Type /Page\n/Parent 2 0 R\n/Resources <<\n/Font <<\n/F1 4 0 R\n>>\n>>\n/MediaBox [0 0 612 792]\n/Contents 5 0 R\n>>\nendobj\n4 0 obj\n<<\n/Type /Font\n/Subtype /Type1\n/BaseFont /Helvetica\n>>\nendobj\n5 0 obj\n<< /Length 68 >>\nstream\nBT\n/F1 12 Tf\n100 700 Td\n(Basic Document ID: " + docId + ") Tj\nET\nendstream\nendobj\nxref\ntrailer\n<<\n/Size 6\n/Root 1 0 R\n>>\nstartxref\n%%EOF";
-            return new CourtDocument(java.util.Base64.getEncoder().encodeToString(pdfContent.getBytes()));
+    private ResponseEntity<?> response(final byte[] pdf, final boolean binary) {
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag(pdf))
+                .varyBy(HttpHeaders.ACCEPT);
+        if (binary) {
+            return builder
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(pdf.length)
+                    .body(pdf);
         }
-        if (docType.equalsIgnoreCase("family")) {
-            String pdfContent = "%PDF-1.4\n1 0 obj\n<<\n/Type /Catalog\n/Pages 2 0 R\n>>\nendobj\n2 0 obj\n<<\n/Type /Pages\n/Kids [3 0 R]\n/Count 1\n>>\nendobj\n3 0 obj\n<<\n/Type /Page\n/Parent 2 0 R\n/Resources <<\n/Font <<\n/F1 4 0 R\n>>\n>>\n/MediaBox [0 0 612 792]\n/Contents 5 0 R\n>>\nendobj\n4 0 obj\n<<\n/Type /Font\n/Subtype /Type1\n/BaseFont /Helvetica\n>>\nendobj\n5 0 obj\n<< /Length 69 >>\nstream\nBT\n/F1 12 Tf\n100 700 Td\n(Family Document ID: " + docId + ") Tj\nET\nendstream\nendobj\nxref\ntrailer\n<<\n/Size 6\n/Root 1 0 R\n>>\nstartxref\n%%EOF";
-            return new CourtDocument(java.util.Base64.getEncoder().encodeToString(pdfContent.getBytes()));
-        }
-        throw new UnsupportedOperationException("Not supported yet.");
+        return builder.body(new CourtDocument(Base64.getEncoder().encodeToString(pdf)));
+    }
+
+    private static String etag(final byte[] pdf) {
+        final CRC32 crc = new CRC32();
+        crc.update(pdf);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(pdf.length) + "\"";
+    }
+
+    private static boolean acceptsPdf(final String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_PDF::equalsTypeAndSubtype);
     }
 
     record GetCourtDocumentRequest(
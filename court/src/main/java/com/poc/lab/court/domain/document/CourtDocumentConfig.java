@@ -0,0 +1,18 @@
+package com.poc.lab.court.domain.document;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class CourtDocumentConfig {
+
+    // 지연을 흉내 낸 뒤 응답을 완료하는 스케줄러. 요청 스레드는 지연 동안 잡혀 있지 않는다
+    // 완료 작업은 이미 만든 응답을 넘기기만 하므로 스레드 하나로 충분하다
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService courtLatencyScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("court-latency").daemon().factory());
+    }
+}
@@ -0,0 +1,86 @@
+package com.poc.lab.court.domain.document;
+
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 한 페이지에 "{title}{docId}" 한 줄을 쓰는 PDF 를 미리 만들어 둔 틀
+ * - docId 앞뒤의 고정 byte(객체 1~4, xref 표)는 만들 때 한 번만 계산하고 요청마다 docId 와 길이 숫자만 끼워 넣는다
+ * - 본문 stream 의 /Length 와 startxref 는 docId 길이에 맞게 다시 계산한다(객체 위치는 docId 앞이라 바뀌지 않는다)
+ */
+public class PdfTemplate {
+
+    private static final String[] FIXED_OBJECTS = {
+            "1 0 obj\n<<\n/Type /Catalog\n/Pages 2 0 R\n>>\nendobj\n",
+            "2 0 obj\n<<\n/Type /Pages\n/Kids [3 0 R]\n/Count 1\n>>\nendobj\n",
+            "3 0 obj\n<<\n/Type /Page\n/Parent 2 0 R\n/Resources <<\n/Font <<\n/F1 4 0 R\n>>\n>>\n/MediaBox [0 0 612 792]\n/Contents 5 0 R\n>>\nendobj\n",
+            "4 0 obj\n<<\n/Type /Font\n/Subtype /Type1\n/BaseFont /Helvetica\n>>\nendobj\n"
+    };
+    private static final byte[] STREAM_OPEN = ascii(" >>\nstream\n");
+    private static final byte[] CONTENT_SUFFIX = ascii(") Tj\nET");
+    private static final byte[] STREAM_CLOSE = ascii("\nendstream\nendobj\n");
+    private static final byte[] EOF = ascii("\n%%EOF");
+
+    // "%PDF-1.4" ~ "5 0 obj\n<< /Length "
+    private final byte[] head;
+    // "BT ... (title"
+    private final byte[] contentPrefix;
+    // "xref" ~ "startxref\n"
+    private final byte[] xref;
+
+    public PdfTemplate(final String title) {
+        Assert.notNull(title, "title must not be null");
+        final StringBuilder head = new StringBuilder("%PDF-1.4\n");
+        final int[] offsets = new int[FIXED_OBJECTS.length + 1];
+        for (int i = 0; i < FIXED_OBJECTS.length; i++) {
+            offsets[i] = head.length();
+            head.append(FIXED_OBJECTS[i]);
+        }
+        offsets[FIXED_OBJECTS.length] = head.length();
+        head.append("5 0 obj\n<< /Length ");
+        this.head = ascii(head.toString());
+
+        final StringBuilder xref = new StringBuilder("xref\n0 ").append(offsets.length + 1).append("\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            xref.append(String.format("%010d 00000 n \n", offset));
+        }
+        xref.append("trailer\n<<\n/Size ").append(offsets.length + 1).append("\n/Root 1 0 R\n>>\nstartxref\n");
+        this.xref = ascii(xref.toString());
+        this.contentPrefix = escaped("BT\n/F1 12 Tf\n100 700 Td\n(", title);
+    }
+
+    public byte[] render(final String docId) {
+        final byte[] text = escaped("", docId == null ? "" : docId);
+        final int length = contentPrefix.length + text.length + CONTENT_SUFFIX.length;
+        final byte[] lengthDigits = ascii(Integer.toString(length));
+        final int xrefOffset = head.length + lengthDigits.length + STREAM_OPEN.length + length + STREAM_CLOSE.length;
+        final byte[] startxref = ascii(Integer.toString(xrefOffset));
+
+        final byte[] pdf = new byte[xrefOffset + xref.length + startxref.length + EOF.length];
+        int position = 0;
+        for (byte[] part : new byte[][]{head, lengthDigits, STREAM_OPEN, contentPrefix, text, CONTENT_SUFFIX, STREAM_CLOSE, xref, startxref, EOF}) {
+            System.arraycopy(part, 0, pdf, position, part.length);
+            position += part.length;
+        }
+        return pdf;
+    }
+
+    // PDF 문자열 안에서 의미가 있는 괄호와 역슬래시는 이스케이프
+    private static byte[] escaped(final String prefix, final String text) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length() + text.length() + 8);
+        out.writeBytes(ascii(prefix));
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            if (b == '(' || b == ')' || b == '\\') {
+                out.write('\\');
+            }
+            out.write(b);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] ascii(final String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,37 @@
+package com.poc.lab.court.domain.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PdfTemplateTests {
+
+    private final PdfTemplate template = new PdfTemplate("Basic Document ID: ");
+
+    @Test
+    void lengthAndStartXrefMatchRenderedDocId() {
+        for (String docId : new String[]{"", "d-1", "doc (1) \\ " + "x".repeat(300)}) {
+            final String pdf = new String(template.render(docId), StandardCharsets.ISO_8859_1);
+
+            final Matcher length = Pattern.compile("/Length (\\d+) >>\nstream\n").matcher(pdf);
+            assertThat(length.find()).isTrue();
+            final int streamEnd = pdf.indexOf("\nendstream");
+            assertThat(streamEnd - length.end()).isEqualTo(Integer.parseInt(length.group(1)));
+
+            final int startXref = Integer.parseInt(pdf.substring(pdf.lastIndexOf("startxref\n") + 10, pdf.lastIndexOf("\n%%EOF")));
+            assertThat(pdf.startsWith("xref\n", startXref)).isTrue();
+            assertThat(pdf.startsWith("5 0 obj", Integer.parseInt(pdf.substring(startXref + 109, startXref + 119)))).isTrue();
+        }
+    }
+
+    @Test
+    void escapesParenthesesInDocId() {
+        final String pdf = new String(template.render("a)b"), StandardCharsets.ISO_8859_1);
+
+        assertThat(pdf).contains("(Basic Document ID: a\\)b) Tj");
+    }
+}
@@ -1,75 +1,278 @@
 package com.poc.lab.edms;
 
+import com.poc.lab.edms.storage.HotObjectCache;
+import com.poc.lab.edms.storage.HotObjectCache.CachedObject;
+import com.poc.lab.edms.storage.ShardedFileStore;
+import com.poc.lab.edms.upload.UploadBudget;
+import com.poc.lab.edms.upload.UploadBudgetExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
-import java.util.UUID;
+import java.util.zip.CRC32;
 
 /**
  * EDMS API (모의 구현)
- * - PNG 바이너리 또는 Base64 PNG를 받아 resources 하위에 저장
+ * - PNG 바이너리 또는 Base64 PNG를 받아 {@link ShardedFileStore} 에 저장(같은 내용은 한 번만 저장)
+ * - 바이너리(PNG/JPEG/TIFF)는 디코딩/재인코딩 없이 앞부분 형식만 확인하고 요청 본문을 그대로 흘려 저장
+ * - 동시에 받는 본문 byte 합이 {@link UploadBudget} 을 넘으면 503 + Retry-After
  * - 저장 성공 시 UUID 기반 식별키 반환
+ * - 삭제: POST /files/delete/{id}, 일괄 삭제 POST /files/delete (JSON id 배열)
+ * - 일괄 업로드: POST /files/batch (multipart, part 순서대로 id 배열, 한 번의 group commit)
+ * - 조회: GET /files/{id}. ETag(내용 해시)/If-None-Match, 단일 Range 지원
+ *   자주 읽히는 객체는 {@link HotObjectCache} 에서, 나머지는 Tomcat sendfile(없으면 FileChannel.transferTo)로 보낸다
  */
 @RestController
 @RequestMapping("/files")
 public class EdmsApi {
 
-    // 바이너리 PNG 업로드
-    @PostMapping(consumes = MediaType.IMAGE_PNG_VALUE, produces = MediaType.TEXT_PLAIN_VALUE)
+    private static final String IMAGE_TIFF_VALUE = "image/tiff";
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] TIFF_LE_SIGNATURE = {'I', 'I', 42, 0};
+    private static final byte[] TIFF_BE_SIGNATURE = {'M', 'M', 0, 42};
+    private static final int IHDR_LENGTH = 13;
+    private static final int IHDR_TYPE = 0x49484452;
+    // 형식 확인에 읽는 앞부분: PNG signature + IHDR chunk(길이 4 + type 4 + data 13 + CRC 4)
+    private static final int HEADER_LENGTH = 8 + 4 + 4 + IHDR_LENGTH + 4;
+
+    // Tomcat NIO connector 의 sendfile 요청 속성(DefaultServlet 과 같은 방식)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // id 의 내용은 바뀌지 않는다(지워질 뿐)
+    private static final String CACHE_CONTROL = "max-age=86400";
+
+    private final ShardedFileStore store;
+    private final HotObjectCache cache;
+    private final UploadBudget uploadBudget;
+    private final Duration retryAfter;
+    private final int maxBatchParts;
+    private final long maxBatchBytes;
+
+    public EdmsApi(final ShardedFileStore store, final HotObjectCache cache, final UploadBudget uploadBudget,
+                   @Value("${edms.upload.retry-after:PT1S}") final Duration retryAfter,
+                   @Value("${edms.upload.max-batch-parts:64}") final int maxBatchParts,
+                   @Value("${spring.servlet.multipart.max-request-size:64MB}") final DataSize maxBatchBytes) {
+        this.store = store;
+        this.cache = cache;
+        this.uploadBudget = uploadBudget;
+        this.retryAfter = retryAfter;
+        this.maxBatchParts = maxBatchParts;
+        this.maxBatchBytes = maxBatchBytes.toBytes();
+    }
+
+    @GetMapping("/{id}")
+    public void download(@PathVariable final String id,
+                         final HttpServletRequest request,
+                         final HttpServletResponse response) throws IOException {
+        final CachedObject cached = cache.get(id);
+        if (cached != null) {
+            serve(request, response, cached.etag(), cached.contentType(), cached.content().length,
+                    (start, end) -> response.getOutputStream().write(cached.content(), (int) start, (int) (end - start)));
+            return;
+        }
+        final Path path = store.path(id);
+        if (path == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final String etag = etag(id, path, size);
+            final ByteBuffer head = ByteBuffer.allocate(PNG_SIGNATURE.length);
+            channel.read(head, 0);
+            final String contentType = contentType(Arrays.copyOf(head.array(), head.position()));
+            if (cache.admit(id, size)) {
+                final byte[] content = new byte[(int) size];
+                final ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                // 삭제는 파일을 지운 뒤 evict 한다. 표를 받은 뒤에도 파일이 있으면 이후의 삭제가 표를 무효로 만든다
+                final long ticket = cache.beginLoad(id);
+                if (store.path(id) != null) {
+                    cache.put(id, new CachedObject(content, contentType, etag), ticket);
+                } else {
+                    cache.evict(id);
+                }
+                serve(request, response, etag, contentType, size,
+                        (start, end) -> response.getOutputStream().write(content, (int) start, (int) (end - start)));
+                return;
+            }
+            serve(request, response, etag, contentType, size, (start, end) -> {
+                if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                    // 응답을 돌려준 뒤 connector 가 파일을 소켓으로 직접 보낸다
+                    request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+                    request.setAttribute(SENDFILE_START, start);
+                    request.setAttribute(SENDFILE_END, end);
+                    return;
+                }
+                final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                for (long position = start; position < end; ) {
+                    position += channel.transferTo(position, end - position, out);
+                }
+            });
+        } catch (NoSuchFileException e) {
+            // 조회 중 삭제
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    // 바이너리 이미지 업로드(PNG, JPEG, TIFF)
+    @PostMapping(consumes = {MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE, IMAGE_TIFF_VALUE},
+            produces = MediaType.TEXT_PLAIN_VALUE)
     public ResponseEntity<String> uploadPng(
             @RequestHeader(value = "X-UserId", required = false) String userId,
             @RequestHeader(value = "X-DocId", required = false) String docId,
             @RequestHeader(value = "X-DocType", required = false) String docType,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
             InputStream requestBody
     ) {
         final int i = new Random().nextInt(1, 100);
         if(i % 66 == 0) {
             throw new RuntimeException("EDMS Error !");
         }
-        try {
-            BufferedImage image = ImageIO.read(requestBody);
-            if (image == null) {
+        if (contentLength != null && contentLength > uploadBudget.maxBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("too large");
+        }
+        try (UploadBudget.Reservation reservation = uploadBudget.reserve(contentLength == null ? -1 : contentLength)) {
+            final InputStream body = reservation.guard(requestBody);
+            final MediaType mediaType = MediaType.parseMediaType(contentType);
+            final byte[] head = body.readNBytes(HEADER_LENGTH);
+            final String extension = extension(mediaType, head);
+            if (extension == null) {
                 return ResponseEntity.badRequest().body("invalid image");
             }
-            String id = saveImageToResources(image, userId, docId, docType);
-            return id != null ? ResponseEntity.ok(id) : ResponseEntity.internalServerError().build();
+            final String id = store.put(out -> {
+                out.write(head);
+                body.transferTo(out);
+            });
+            return ResponseEntity.ok(id);
+        } catch (UploadBudgetExceededException e) {
+            return busy();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 여러 이미지 한 번에 업로드(multipart/form-data). part 마다 Content-Type 과 단건 업로드와 같은 X-UserId/X-DocId/X-DocType 헤더
+    // 응답은 part 순서대로 id 배열, 묶음 전체를 한 번의 group commit 으로 저장
+    // atomic=true: 하나라도 형식이 틀리면 400 으로 아무것도 저장하지 않는다
+    // atomic=false: 형식이 틀린 part 자리는 null, 나머지만 저장
+    @PostMapping(path = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<String>> uploadBatch(
+            @RequestParam(value = "atomic", defaultValue = "true") final boolean atomic,
+            HttpServletRequest request
+    ) {
+        final int i = new Random().nextInt(1, 100);
+        if(i % 66 == 0) {
+            throw new RuntimeException("EDMS Error !");
+        }
+        final long contentLength = request.getContentLengthLong();
+        if (contentLength > uploadBudget.maxBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        // part 를 읽기 전에 잡아야 한다(getParts 가 본문 전체를 받는다, multipart 는 resolve-lazily 로 여기까지 미룬다)
+        // 길이를 모르는(chunked) 본문은 읽는 양을 셀 수 없으므로 multipart 최대 요청 크기만큼 잡는다
+        try (UploadBudget.Reservation ignored = uploadBudget.reserve(contentLength >= 0 ? contentLength : Math.min(maxBatchBytes, uploadBudget.maxBytes()))) {
+            final List<Part> parts = new ArrayList<>(request.getParts());
+            if (parts.size() > maxBatchParts) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+            }
+            final List<String> ids = new ArrayList<>(Collections.nCopies(parts.size(), null));
+            final List<Integer> valid = new ArrayList<>(parts.size());
+            final List<ShardedFileStore.ContentWriter> writers = new ArrayList<>(parts.size());
+            for (int index = 0; index < parts.size(); index++) {
+                final Part part = parts.get(index);
+                if (!validImage(part)) {
+                    if (atomic) {
+                        return ResponseEntity.badRequest().build();
+                    }
+                    continue;
+                }
+                valid.add(index);
+                writers.add(out -> {
+                    try (InputStream in = part.getInputStream()) {
+                        in.transferTo(out);
+                    }
+                });
+            }
+            final List<String> stored = store.putAll(writers);
+            for (int index = 0; index < stored.size(); index++) {
+                ids.set(valid.get(index), stored.get(index));
+            }
+            return ResponseEntity.ok(ids);
+        } catch (UploadBudgetExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                    .build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     // Base64 PNG 업로드 (필요 시 사용)
+    // 문자열로 모으지 않고 본문을 읽는 대로 디코딩해 저장(줄바꿈 등 Base64 문자가 아닌 값은 건너뛴다)
     @PostMapping(path = "/base64", consumes = MediaType.TEXT_PLAIN_VALUE, produces = MediaType.TEXT_PLAIN_VALUE)
     public ResponseEntity<String> uploadBase64Png(
             @RequestHeader(value = "X-UserId", required = false) String userId,
             @RequestHeader(value = "X-DocId", required = false) String docId,
             @RequestHeader(value = "X-DocType", required = false) String docType,
-            @RequestBody String base64
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream requestBody
     ) {
-        try {
-            if (!StringUtils.hasText(base64)) {
+        if (contentLength != null && contentLength > uploadBudget.maxBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("too large");
+        }
+        try (UploadBudget.Reservation reservation = uploadBudget.reserve(contentLength == null ? -1 : contentLength)) {
+            final InputStream body = Base64.getMimeDecoder().wrap(reservation.guard(requestBody));
+            final byte[] head = body.readNBytes(HEADER_LENGTH);
+            if (head.length == 0) {
                 return ResponseEntity.badRequest().body("empty body");
             }
-            byte[] bytes = Base64.getDecoder().decode(base64.trim());
-            try (ByteArrayInputStream bis = new ByteArrayInputStream(bytes)) {
-                BufferedImage image = ImageIO.read(bis);
-                if (image == null) {
-                    return ResponseEntity.badRequest().body("invalid base64 image");
-                }
-                String id = saveImageToResources(image, userId, docId, docType);
-                return id != null ? ResponseEntity.ok(id) : ResponseEntity.internalServerError().build();
+            if (!isPng(head)) {
+                return ResponseEntity.badRequest().body("invalid base64 image");
             }
+            final String id = store.put(out -> {
+                out.write(head);
+                body.transferTo(out);
+            });
+            return ResponseEntity.ok(id);
+        } catch (UploadBudgetExceededException e) {
+            return busy();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("decode error");
         }
@@ -78,60 +281,186 @@ public class EdmsApi {
     @PostMapping("/delete/{id}")
     public ResponseEntity<Integer> deleteFiles(@PathVariable final String id) {
         try {
-            final File baseDir = resolveWritableResourcesDir();
-            final File edmsDir = new File(baseDir, "static/edms");
-            if (!edmsDir.exists() || !edmsDir.isDirectory()) {
-                return ResponseEntity.notFound().build();
-            }
-            final File target = new File(edmsDir, id + ".png");
-            if (!target.exists()) {
+            // 조회 중에 캐시로 다시 들어가지 않도록 파일을 먼저 지우고 뺀다
+            final boolean deleted = store.delete(id);
+            cache.evict(id);
+            if (!deleted) {
                 return ResponseEntity.notFound().build();
             }
-            boolean deleted = target.delete();
-            if (deleted) {
-                return ResponseEntity.ok(1);
+            return ResponseEntity.ok(1);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 일괄 삭제. 없는 id 는 이미 삭제된 것으로 보고 건너뛴다(재전송해도 결과가 같도록)
+    // 응답은 실제로 지운 id 수, 지우는 중 오류가 나면 500 으로 전체를 다시 보내게 한다
+    @PostMapping(path = "/delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Integer> deleteFiles(@RequestBody final List<String> ids) {
+        try {
+            int deleted = 0;
+            for (String id : ids) {
+                if (store.delete(id)) {
+                    deleted++;
+                }
+                cache.evict(id);
             }
-            return ResponseEntity.ok(0);
+            return ResponseEntity.ok(deleted);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
-    // 실제 저장 로직: resources 하위 디렉토리에 파일 저장 후 UUID 반환
-    private String saveImageToResources(BufferedImage image, String userId, String docId, String docType) throws IOException {
-        File baseDir = resolveWritableResourcesDir();
-        File edmsDir = new File(baseDir, "static/edms");
-        if (!edmsDir.exists() && !edmsDir.mkdirs()) {
-            return null;
+    // 조건부 요청/Range 처리 후 [start, end) 구간을 body 로 보낸다
+    private static void serve(final HttpServletRequest request, final HttpServletResponse response,
+                              final String etag, final String contentType, final long size,
+                              final BodyWriter body) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        long start = 0;
+        long end = size;
+        final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range 가 현재 ETag 와 다르면 Range 를 무시하고 전체를 보낸다
+        if (StringUtils.hasText(rangeHeader) && (ifRange == null || ifRange.equals(etag))) {
+            final List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+                // 여러 구간(multipart/byteranges)은 지원하지 않고 전체를 보낸다
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size) + 1;
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+        response.setContentType(contentType);
+        response.setContentLengthLong(end - start);
+        if (!"HEAD".equals(request.getMethod())) {
+            body.write(start, end);
+        }
+    }
+
+    // 내용 해시가 있으면 강한 ETag, 없으면 크기/수정 시각 기반 약한 ETag
+    private String etag(final String id, final Path path, final long size) throws IOException {
+        final String hash = store.contentHash(id);
+        if (hash != null) {
+            return "\"" + hash + "\"";
+        }
+        return "W/\"" + size + "-" + Files.getLastModifiedTime(path).toMillis() + "\"";
+    }
+
+    private static boolean matches(final String ifNoneMatch, final String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        final String weakless = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            final String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || (value.startsWith("W/") ? value.substring(2) : value).equals(weakless)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String contentType(final byte[] head) {
+        if (Arrays.equals(head, PNG_SIGNATURE)) {
+            return MediaType.IMAGE_PNG_VALUE;
         }
-        String uuid = UUID.randomUUID().toString();
-        String fileName = uuid + ".png";
-        File out = new File(edmsDir, fileName);
-        if (!ImageIO.write(image, "png", out)) {
-            return null;
+        if (startsWith(head, JPEG_SIGNATURE)) {
+            return MediaType.IMAGE_JPEG_VALUE;
         }
-        if (!out.exists() || out.length() == 0) {
-            return null;
+        if (startsWith(head, TIFF_LE_SIGNATURE) || startsWith(head, TIFF_BE_SIGNATURE)) {
+            return IMAGE_TIFF_VALUE;
         }
-        return uuid;
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(long start, long end) throws IOException;
     }
 
-    private static File resolveWritableResourcesDir() throws IOException {
-        // Gradle 기본 출력 위치 우선 시도
-        File gradleBuildResources = new File("edms/build/resources/main");
-        if (gradleBuildResources.isDirectory() || gradleBuildResources.mkdirs()) {
-            return gradleBuildResources;
+    private static boolean validImage(final Part part) throws IOException {
+        if (part.getContentType() == null) {
+            return false;
         }
-        // Maven 기본 출력 위치 시도
-        File mavenTargetClasses = new File("edms/target/classes");
-        if (mavenTargetClasses.isDirectory() || mavenTargetClasses.mkdirs()) {
-            return mavenTargetClasses;
+        try (InputStream in = part.getInputStream()) {
+            return extension(MediaType.parseMediaType(part.getContentType()), in.readNBytes(HEADER_LENGTH)) != null;
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    // 한도가 찼으면 잠시 뒤 다시 보내게 한다(클라이언트 쪽 동시 호출 한도도 이 신호로 줄어든다)
+    private ResponseEntity<String> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .body("busy");
+    }
+
+    // Content-Type 과 파일 앞부분(signature, PNG 는 IHDR 까지)이 맞으면 확장자, 아니면 null
+    private static String extension(MediaType mediaType, byte[] head) {
+        if (MediaType.IMAGE_PNG.equalsTypeAndSubtype(mediaType) && isPng(head)) {
+            return "png";
         }
-        // 최후 대안: 실행 디렉토리 하위 폴더
-        File fallback = new File("edms-runtime-resources");
-        if (!fallback.exists()) {
-            Files.createDirectories(fallback.toPath());
+        if (MediaType.IMAGE_JPEG.equalsTypeAndSubtype(mediaType) && startsWith(head, JPEG_SIGNATURE)) {
+            return "jpg";
         }
-        return fallback;
+        if (MediaType.parseMediaType(IMAGE_TIFF_VALUE).equalsTypeAndSubtype(mediaType)
+                && (startsWith(head, TIFF_LE_SIGNATURE) || startsWith(head, TIFF_BE_SIGNATURE))) {
+            return "tif";
+        }
+        return null;
+    }
+
+    // signature 바로 뒤 첫 chunk 가 올바른 IHDR(길이 13, 크기 > 0, 허용된 색 형식/비트 깊이, CRC 일치)인지만 본다
+    // 전체 디코딩은 하지 않는다(나머지 chunk 가 깨졌는지는 읽는 쪽에서 알게 된다)
+    private static boolean isPng(byte[] head) {
+        if (head.length < HEADER_LENGTH || !startsWith(head, PNG_SIGNATURE)) {
+            return false;
+        }
+        final ByteBuffer ihdr = ByteBuffer.wrap(head, PNG_SIGNATURE.length, HEADER_LENGTH - PNG_SIGNATURE.length);
+        if (ihdr.getInt() != IHDR_LENGTH || ihdr.getInt() != IHDR_TYPE) {
+            return false;
+        }
+        final int width = ihdr.getInt();
+        final int height = ihdr.getInt();
+        final int bitDepth = ihdr.get();
+        final int colorType = ihdr.get();
+        final int compression = ihdr.get();
+        final int filter = ihdr.get();
+        final int interlace = ihdr.get();
+        if (width <= 0 || height <= 0 || compression != 0 || filter != 0 || (interlace != 0 && interlace != 1)) {
+            return false;
+        }
+        final boolean validDepth = switch (colorType) {
+            case 0 -> bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+            case 3 -> bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+            case 2, 4, 6 -> bitDepth == 8 || bitDepth == 16;
+            default -> false;
+        };
+        if (!validDepth) {
+            return false;
+        }
+        // CRC 는 chunk type + data 에 대해
+        final CRC32 crc = new CRC32();
+        crc.update(head, PNG_SIGNATURE.length + 4, 4 + IHDR_LENGTH);
+        return (int) crc.getValue() == ihdr.getInt();
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        return bytes.length >= prefix.length && Arrays.equals(bytes, 0, prefix.length, prefix, 0, prefix.length);
     }
 }
@@ -0,0 +1,140 @@
+package com.poc.lab.edms.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.Assert;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 자주 읽히는 저장 객체를 메모리에 두는 크기 제한 LRU
+ * - 전체 byte 합이 maxBytes 를 넘으면 가장 오래 안 읽힌 것부터 내보낸다
+ * - maxObjectBytes 보다 큰 객체는 두지 않는다(큰 파일은 sendfile 이 더 싸다)
+ * - 한 번 읽히고 끝나는 객체가 자주 읽히는 객체를 밀어내지 않도록 두 번째 요청부터 넣는다(doorkeeper)
+ * - 읽는 중에 삭제(evict)된 객체가 다시 들어가지 않도록 파일에서 읽은 객체는 {@link #beginLoad} 의 표로 넣는다
+ * - 지표: edms.cache.requests{result=hit|miss}, edms.cache.size, edms.cache.bytes
+ */
+public class HotObjectCache {
+
+    private final long maxBytes;
+    private final int maxObjectBytes;
+
+    private final Map<String, CachedObject> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // 한 번 본 id. 객체 수 기준으로만 제한(값은 쓰지 않는다)
+    private final Map<String, Boolean> seen;
+    private long bytes;
+    // 파일에서 읽어 넣으려는 id 와 그 표. evict 하면 지워져 그 전에 받은 표로는 넣지 못한다
+    private final Map<String, Long> loading = new HashMap<>();
+    private long tickets;
+
+    private Counter hits;
+    private Counter misses;
+
+    public HotObjectCache(final long maxBytes, final int maxObjectBytes, final int doorkeeperSize) {
+        Assert.isTrue(maxBytes >= 0, "maxBytes must not be negative");
+        Assert.isTrue(maxObjectBytes >= 0, "maxObjectBytes must not be negative");
+        Assert.isTrue(doorkeeperSize >= 0, "doorkeeperSize must not be negative");
+        this.maxBytes = maxBytes;
+        this.maxObjectBytes = maxObjectBytes;
+        this.seen = new LinkedHashMap<>(256, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+                return size() > doorkeeperSize;
+            }
+        };
+    }
+
+    public static HotObjectCache disabled() {
+        return new HotObjectCache(0, 0, 0);
+    }
+
+    public synchronized CachedObject get(final String id) {
+        final CachedObject cached = entries.get(id);
+        if (hits != null) {
+            (cached != null ? hits : misses).increment();
+        }
+        return cached;
+    }
+
+    /**
+     * size 크기의 객체를 넣을지. 처음 본 id 는 기억만 하고 false
+     */
+    public synchronized boolean admit(final String id, final long size) {
+        if (size > maxObjectBytes || size > maxBytes) {
+            return false;
+        }
+        return seen.remove(id) != null || seen.put(id, Boolean.TRUE) != null;
+    }
+
+    /**
+     * 파일에서 읽은 객체를 넣기 전, 파일이 아직 있는지 확인하기 전에 받는다
+     */
+    public synchronized long beginLoad(final String id) {
+        final long ticket = ++tickets;
+        loading.put(id, ticket);
+        return ticket;
+    }
+
+    /**
+     * ticket 을 받은 뒤 evict 되지 않았을 때만 넣는다
+     */
+    public synchronized void put(final String id, final CachedObject object, final long ticket) {
+        if (loading.remove(id, ticket)) {
+            put(id, object);
+        }
+    }
+
+    private void put(final String id, final CachedObject object) {
+        if (object.content().length > maxObjectBytes || object.content().length > maxBytes) {
+            return;
+        }
+        final CachedObject previous = entries.put(id, object);
+        if (previous != null) {
+            bytes -= previous.content().length;
+        }
+        bytes += object.content().length;
+        final Iterator<CachedObject> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().content().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized void evict(final String id) {
+        seen.remove(id);
+        loading.remove(id);
+        final CachedObject removed = entries.remove(id);
+        if (removed != null) {
+            bytes -= removed.content().length;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("edms.cache.size", this, HotObjectCache::size)
+                .register(registry);
+        Gauge.builder("edms.cache.bytes", this, HotObjectCache::bytes)
+                .baseUnit("bytes")
+                .register(registry);
+        this.hits = Counter.builder("edms.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("edms.cache.requests").tag("result", "miss").register(registry);
+    }
+
+    public record CachedObject(
+            byte[] content,
+            String contentType,
+            String etag
+    ) {
+    }
+}
@@ -0,0 +1,345 @@
+package com.poc.lab.edms.storage;
+
+import org.springframework.util.Assert;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 내용 해시(SHA-256) 기반 파일 저장소
+ * - objects/ab/cd/{sha256}: 내용, ids/ab/cd/{uuid}: 같은 내용 파일에 대한 hard link
+ *   (앞 두 byte 로 65536 개 디렉토리에 나눠 디렉토리 하나가 커지지 않도록)
+ * - 같은 내용은 한 번만 저장하고 참조 수는 파일 시스템 link 수(objects 자신 1 + id 수)로 센다
+ * - 쓰기는 tmp 에 흘려 쓰며 해시를 계산한 뒤 같은 파일 시스템 안에서 이름 바꾸기(중간에 끊겨도 반쪽 파일이 보이지 않는다)
+ * - {@link #putAll(List)} 은 묶음 전체를 디스크까지 내린 뒤 한꺼번에 공개한다(전부 저장되거나 아무것도 남지 않는다)
+ *   fsync 면 공개 뒤 묶음이 건드린 shard 디렉토리도 한 번씩 내려 이름 바꾸기/link 가 전원 차단 뒤에도 남게 한다
+ * - 삭제는 id link 하나를 지우고, 마지막 참조였으면 내용 파일도 지운다(디렉토리 탐색 없이 O(1))
+ * - id 에서 내용 파일을 찾기 위해 해시를 확장 속성(user.edms.sha256)에 둔다. 지원하지 않으면 삭제 시 내용을 다시 해시
+ * - hard link 를 지원하지 않는(unix 속성이 없는) 파일 시스템이면 중복 제거 없이 id 파일에 바로 저장
+ */
+public class ShardedFileStore {
+
+    private static final String HASH_ATTRIBUTE = "edms.sha256";
+    private static final String UNIX_VIEW = "unix";
+    private static final int LOCK_STRIPES = 256;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path objects;
+    private final Path ids;
+    private final Path tmp;
+    private final boolean fsync;
+    private final boolean dedup;
+    private final boolean hashAttribute;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    // 이미 만든 shard 디렉토리(요청마다 디렉토리 존재 확인을 하지 않도록)
+    private final Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param fsync 이름 바꾸기 전에 내용을, 이름 바꾸기 뒤에 디렉토리 항목을 디스크까지 내린다
+     */
+    public ShardedFileStore(final Path root, final boolean fsync) {
+        Assert.notNull(root, "root must not be null");
+        this.objects = root.resolve("objects");
+        this.ids = root.resolve("ids");
+        this.tmp = root.resolve("tmp");
+        this.fsync = fsync;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        try {
+            Files.createDirectories(objects);
+            Files.createDirectories(ids);
+            Files.createDirectories(tmp);
+            // 이전 실행이 쓰다 만 임시 파일 정리
+            try (Stream<Path> leftovers = Files.list(tmp)) {
+                for (Path leftover : (Iterable<Path>) leftovers::iterator) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+            final FileStore fileStore = Files.getFileStore(root);
+            this.dedup = fileStore.supportsFileAttributeView(UNIX_VIEW);
+            this.hashAttribute = fileStore.supportsFileAttributeView(UserDefinedFileAttributeView.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize store " + root, e);
+        }
+    }
+
+    /**
+     * writer 가 쓴 내용을 저장하고 새 id 를 돌려준다
+     */
+    public String put(final ContentWriter writer) throws IOException {
+        return putAll(List.of(writer)).get(0);
+    }
+
+    /**
+     * 여러 내용을 한 묶음으로 저장하고 writers 순서대로 id 를 돌려준다(group commit)
+     * - 모두 tmp 에 쓴 뒤(fsync 면 모두 디스크까지 내린 뒤) 한꺼번에 공개한다
+     * - 하나라도 실패하면 이미 공개한 id 를 지우고 예외(묶음 전체가 저장되거나 아무것도 남지 않는다)
+     */
+    public List<String> putAll(final List<ContentWriter> writers) throws IOException {
+        final List<Staged> staged = new ArrayList<>(writers.size());
+        final List<String> published = new ArrayList<>(writers.size());
+        try {
+            for (ContentWriter writer : writers) {
+                staged.add(stage(writer));
+            }
+            if (fsync) {
+                // 공개 전에 묶음 전체를 한 번에 내린다(요청마다 쓰기와 fsync 를 번갈아 하지 않도록)
+                for (Staged it : staged) {
+                    try (FileChannel channel = FileChannel.open(it.temp(), StandardOpenOption.WRITE)) {
+                        channel.force(true);
+                    }
+                }
+            }
+            final Set<Path> touched = new LinkedHashSet<>();
+            for (Staged it : staged) {
+                published.add(publish(it, touched));
+            }
+            if (fsync) {
+                // 같은 shard 에 여러 건이 들어가도 디렉토리마다 한 번만
+                for (Path directory : touched) {
+                    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                        channel.force(true);
+                    }
+                }
+            }
+            return published;
+        } catch (IOException | RuntimeException e) {
+            for (String id : published) {
+                try {
+                    delete(id);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        } finally {
+            for (Staged it : staged) {
+                Files.deleteIfExists(it.temp());
+            }
+        }
+    }
+
+    // tmp 에 흘려 쓰며 해시 계산
+    private Staged stage(final ContentWriter writer) throws IOException {
+        final String id = UUID.randomUUID().toString();
+        final Path temp = tmp.resolve(id + ".tmp");
+        final MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            final OutputStream out = new DigestOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE), digest);
+            writer.writeTo(out);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new Staged(id, temp, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    // 이름 바꾸기/link 로 id 공개. 항목이 바뀐 디렉토리는 touched 에 모은다
+    private String publish(final Staged staged, final Set<Path> touched) throws IOException {
+        final Path idPath = idPath(staged.id());
+        createDirectories(idPath.getParent(), touched);
+        touched.add(idPath.getParent());
+        if (!dedup) {
+            Files.move(staged.temp(), idPath, StandardCopyOption.ATOMIC_MOVE);
+            return staged.id();
+        }
+        final Path object = objectPath(staged.hash());
+        createDirectories(object.getParent(), touched);
+        final ReentrantLock lock = lock(staged.hash());
+        lock.lock();
+        try {
+            // 같은 해시의 삭제와 겹치지 않도록 잠근 상태에서 존재 확인과 link
+            if (!Files.exists(object)) {
+                if (hashAttribute) {
+                    Files.getFileAttributeView(staged.temp(), UserDefinedFileAttributeView.class)
+                            .write(HASH_ATTRIBUTE, StandardCharsets.US_ASCII.encode(staged.hash()));
+                }
+                Files.move(staged.temp(), object, StandardCopyOption.ATOMIC_MOVE);
+                touched.add(object.getParent());
+            }
+            Files.createLink(idPath, object);
+        } finally {
+            lock.unlock();
+        }
+        return staged.id();
+    }
+
+    /**
+     * 저장된 내용 파일 경로. 없거나 id 형식이 아니면 null
+     */
+    public Path path(final String id) {
+        final Path idPath = idPath(id);
+        return idPath != null && Files.exists(idPath) ? idPath : null;
+    }
+
+    /**
+     * 내용 해시(SHA-256 hex). 확장 속성이 없어 다시 계산해야 하면 null
+     */
+    public String contentHash(final String id) throws IOException {
+        final Path idPath = idPath(id);
+        if (idPath == null || !dedup || !hashAttribute) {
+            return null;
+        }
+        try {
+            return hashOf(idPath);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return id 가 있어 지웠으면 true
+     */
+    public boolean delete(final String id) throws IOException {
+        final Path idPath = idPath(id);
+        if (idPath == null) {
+            return false;
+        }
+        if (!dedup) {
+            return Files.deleteIfExists(idPath);
+        }
+        final String hash;
+        try {
+            hash = hashOf(idPath);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        final ReentrantLock lock = lock(hash);
+        lock.lock();
+        try {
+            if (!Files.deleteIfExists(idPath)) {
+                return false;
+            }
+            final Path object = objectPath(hash);
+            if (references(object) == 0) {
+                Files.deleteIfExists(object);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * id 가 가리키는 내용을 공유하는 id 수. 없으면 0
+     */
+    public int references(final String id) throws IOException {
+        final Path idPath = idPath(id);
+        if (idPath == null || !Files.exists(idPath)) {
+            return 0;
+        }
+        return dedup ? references(idPath) : 1;
+    }
+
+    private static int references(final Path path) throws IOException {
+        try {
+            // objects 쪽 이름 하나를 뺀 link 수
+            return (Integer) Files.getAttribute(path, "unix:nlink") - 1;
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private String hashOf(final Path idPath) throws IOException {
+        if (hashAttribute) {
+            final UserDefinedFileAttributeView view = Files.getFileAttributeView(idPath, UserDefinedFileAttributeView.class);
+            final ByteBuffer buffer = ByteBuffer.allocate(64);
+            view.read(HASH_ATTRIBUTE, buffer);
+            return StandardCharsets.US_ASCII.decode(buffer.flip()).toString();
+        }
+        final MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(idPath)) {
+            final byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // uuid 형식이 아닌 id(경로 조작 포함)는 null
+    private Path idPath(final String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            final String normalized = UUID.fromString(id).toString();
+            return normalized.equals(id) ? shard(ids, id) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Path objectPath(final String hash) {
+        return shard(objects, hash);
+    }
+
+    private static Path shard(final Path base, final String name) {
+        return base.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    // 새로 만들었을 수 있는 shard 디렉토리(ab/cd)의 상위 항목도 touched 에 넣는다
+    private void createDirectories(final Path directory, final Set<Path> touched) throws IOException {
+        if (createdDirectories.contains(directory)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        createdDirectories.add(directory);
+        touched.add(directory.getParent());
+        touched.add(directory.getParent().getParent());
+    }
+
+    private ReentrantLock lock(final String hash) {
+        return locks[Integer.parseInt(hash, 0, 2, 16) % LOCK_STRIPES];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Staged(
+            String id,
+            Path temp,
+            String hash
+    ) {
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,53 @@
+package com.poc.lab.edms.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.nio.file.Path;
+
+@Configuration
+public class StorageConfig {
+
+    // root 를 지정하지 않으면 빌드 출력 resources 하위 static/edms (시작 시 한 번만 결정)
+    @Bean
+    public ShardedFileStore shardedFileStore(@Value("${edms.storage.root:}") String root,
+                                             @Value("${edms.storage.fsync:false}") boolean fsync) {
+        final Path rootPath = StringUtils.hasText(root)
+                ? Path.of(root)
+                : resolveWritableResourcesDir().toPath().resolve("static/edms");
+        return new ShardedFileStore(rootPath, fsync);
+    }
+
+    // 조회용 메모리 LRU. max-bytes 가 0 이면 캐시 없이 항상 파일에서 보낸다
+    @Bean
+    public HotObjectCache hotObjectCache(MeterRegistry meterRegistry,
+                                         @Value("${edms.cache.max-bytes:67108864}") long maxBytes,
+                                         @Value("${edms.cache.max-object-bytes:1048576}") int maxObjectBytes,
+                                         @Value("${edms.cache.doorkeeper-size:100000}") int doorkeeperSize) {
+        if (maxBytes <= 0) {
+            return HotObjectCache.disabled();
+        }
+        final HotObjectCache cache = new HotObjectCache(maxBytes, maxObjectBytes, doorkeeperSize);
+        cache.bindTo(meterRegistry);
+        return cache;
+    }
+
+    private static File resolveWritableResourcesDir() {
+        // Gradle 기본 출력 위치 우선 시도
+        File gradleBuildResources = new File("edms/build/resources/main");
+        if (gradleBuildResources.isDirectory() || gradleBuildResources.mkdirs()) {
+            return gradleBuildResources;
+        }
+        // Maven 기본 출력 위치 시도
+        File mavenTargetClasses = new File("edms/target/classes");
+        if (mavenTargetClasses.isDirectory() || mavenTargetClasses.mkdirs()) {
+            return mavenTargetClasses;
+        }
+        // 최후 대안: 실행 디렉토리 하위 폴더(없으면 저장소가 만든다)
+        return new File("edms-runtime-resources");
+    }
+}
@@ -0,0 +1,127 @@
+package com.poc.lab.edms.upload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.Assert;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동시에 받고 있는 업로드 본문 byte 합 제한
+ * - Content-Length 가 있으면 시작 전에 그만큼 잡고, 없으면(chunked) 읽는 만큼 chunkSize 단위로 더 잡는다
+ * - 못 잡으면 기다리지 않고 {@link UploadBudgetExceededException}(호출 측이 503 + Retry-After 로 응답)
+ * - 지표: edms.upload.inflight.bytes, edms.upload.rejected
+ */
+public class UploadBudget {
+
+    private final long maxBytes;
+    private final int chunkSize;
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private Counter rejected;
+
+    public UploadBudget(final long maxBytes, final int chunkSize) {
+        Assert.isTrue(maxBytes > 0, "maxBytes must be positive");
+        Assert.isTrue(chunkSize > 0, "chunkSize must be positive");
+        this.maxBytes = maxBytes;
+        this.chunkSize = chunkSize;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @param contentLength 본문 길이, 모르면 음수
+     */
+    public Reservation reserve(final long contentLength) throws UploadBudgetExceededException {
+        final Reservation reservation = new Reservation();
+        if (contentLength > 0) {
+            reservation.acquire(contentLength);
+        }
+        return reservation;
+    }
+
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("edms.upload.inflight.bytes", this, UploadBudget::inFlight)
+                .baseUnit("bytes")
+                .register(registry);
+        this.rejected = Counter.builder("edms.upload.rejected").register(registry);
+    }
+
+    private void tryAcquire(final long bytes) throws UploadBudgetExceededException {
+        long current;
+        do {
+            current = inFlight.get();
+            if (current + bytes > maxBytes) {
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                throw new UploadBudgetExceededException(bytes, maxBytes - current);
+            }
+        } while (!inFlight.compareAndSet(current, current + bytes));
+    }
+
+    /**
+     * 요청 하나가 잡은 byte. 닫으면 돌려준다
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private long reserved;
+        private long consumed;
+
+        private Reservation() {
+        }
+
+        /**
+         * 잡은 양을 넘어 읽으면 chunkSize 만큼씩 더 잡는 본문 스트림
+         */
+        public InputStream guard(final InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    final int b = super.read();
+                    if (b >= 0) {
+                        consume(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                    final int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        consume(n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        private void acquire(final long bytes) throws UploadBudgetExceededException {
+            tryAcquire(bytes);
+            reserved += bytes;
+        }
+
+        private void consume(final int bytes) throws UploadBudgetExceededException {
+            consumed += bytes;
+            if (consumed > reserved) {
+                acquire(Math.max(chunkSize, consumed - reserved));
+            }
+        }
+
+        @Override
+        public void close() {
+            inFlight.addAndGet(-reserved);
+            reserved = 0;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.poc.lab.edms.upload;
+
+import java.io.IOException;
+
+/**
+ * 동시 업로드 byte 한도를 넘어 받을 수 없는 요청(503 + Retry-After)
+ * 본문을 읽는 중에도 날 수 있어 IOException 으로 둔다
+ */
+public class UploadBudgetExceededException extends IOException {
+
+    public UploadBudgetExceededException(final long requested, final long available) {
+        super("Upload budget exceeded: requested " + requested + " bytes, available " + available);
+    }
+}
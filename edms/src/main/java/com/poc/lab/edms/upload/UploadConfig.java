@@ -0,0 +1,20 @@
+package com.poc.lab.edms.upload;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class UploadConfig {
+
+    // 동시에 받는 업로드 본문 byte 합 상한. chunked 요청은 chunk-size 단위로 잡는다
+    @Bean
+    public UploadBudget uploadBudget(MeterRegistry meterRegistry,
+                                     @Value("${edms.upload.max-inflight-bytes:268435456}") long maxInflightBytes,
+                                     @Value("${edms.upload.chunk-size:65536}") int chunkSize) {
+        final UploadBudget budget = new UploadBudget(maxInflightBytes, chunkSize);
+        budget.bindTo(meterRegistry);
+        return budget;
+    }
+}
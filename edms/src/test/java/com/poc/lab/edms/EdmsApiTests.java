@@ -0,0 +1,285 @@
+package com.poc.lab.edms;
+
+import com.poc.lab.edms.storage.HotObjectCache;
+import com.poc.lab.edms.storage.ShardedFileStore;
+import com.poc.lab.edms.upload.UploadBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import jakarta.servlet.ServletException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class EdmsApiTests {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int BUDGET_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path root;
+
+    private ShardedFileStore store;
+    private RacingCache cache;
+    private UploadBudget uploadBudget;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        store = new ShardedFileStore(root, false);
+        cache = new RacingCache();
+        uploadBudget = new UploadBudget(BUDGET_BYTES, 16);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new EdmsApi(store, cache, uploadBudget, Duration.ofSeconds(2), 64, DataSize.ofMegabytes(64)))
+                .build();
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws Exception {
+        final byte[] image = image(64);
+        final String id = store.put(out -> out.write(image));
+
+        mockMvc.perform(get("/files/" + id).header(HttpHeaders.RANGE, "bytes=8-15"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-15/64"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 8))
+                .andExpect(content().bytes(Arrays.copyOfRange(image, 8, 16)));
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws Exception {
+        final String id = store.put(out -> out.write(image(64)));
+
+        mockMvc.perform(get("/files/" + id).header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */64"));
+    }
+
+    @Test
+    void rangeWithStaleIfRangeReturnsFullBody() throws Exception {
+        final byte[] image = image(64);
+        final String id = store.put(out -> out.write(image));
+
+        mockMvc.perform(get("/files/" + id)
+                        .header(HttpHeaders.RANGE, "bytes=8-15")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(image));
+    }
+
+    @Test
+    void matchingIfNoneMatchReturns304() throws Exception {
+        final String id = store.put(out -> out.write(image(64)));
+        final String etag = mockMvc.perform(get("/files/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/files/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void headReturnsHeadersWithoutBody() throws Exception {
+        final String id = store.put(out -> out.write(image(64)));
+
+        mockMvc.perform(head("/files/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 64))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void deleteBetweenAdmissionAndPutKeepsObjectOutOfCache() throws Exception {
+        final byte[] image = image(64);
+        final String id = store.put(out -> out.write(image));
+        // 첫 조회는 doorkeeper 에 기록만 된다
+        mockMvc.perform(get("/files/" + id)).andExpect(status().isOk());
+        // 두 번째 조회가 파일을 읽어 넣기 직전에 삭제 API 와 같은 순서(파일 삭제 → evict)로 지운다
+        cache.beforePut = it -> {
+            try {
+                store.delete(it);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cache.evict(it);
+        };
+
+        mockMvc.perform(get("/files/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(image));
+
+        assertThat(cache.size()).isZero();
+        mockMvc.perform(get("/files/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void pngWithBrokenIhdrIsRejected() throws Exception {
+        final byte[] badCrc = png(16, 16);
+        badCrc[8 + 4 + 4 + 13] ^= 1;
+        final byte[] zeroWidth = png(0, 16);
+
+        upload(post("/files").contentType(MediaType.IMAGE_PNG).content(badCrc))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("invalid image"));
+        upload(post("/files").contentType(MediaType.IMAGE_PNG).content(zeroWidth))
+                .andExpect(status().isBadRequest());
+        upload(post("/files").contentType(MediaType.IMAGE_PNG).content(png(16, 16)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void jpegAndTiffAreStoredByContentTypeAndSignature() throws Exception {
+        final byte[] jpeg = withPrefix(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+        final byte[] tiffLittleEndian = withPrefix(new byte[]{'I', 'I', 42, 0});
+        final byte[] tiffBigEndian = withPrefix(new byte[]{'M', 'M', 0, 42});
+
+        assertStored(upload(post("/files").contentType(MediaType.IMAGE_JPEG).content(jpeg)), jpeg);
+        assertStored(upload(post("/files").contentType("image/tiff").content(tiffLittleEndian)), tiffLittleEndian);
+        assertStored(upload(post("/files").contentType("image/tiff").content(tiffBigEndian)), tiffBigEndian);
+        // Content-Type 과 signature 가 다르면 거절
+        upload(post("/files").contentType(MediaType.IMAGE_JPEG).content(png(16, 16)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exhaustedBudgetWithContentLengthReturns503() throws Exception {
+        final byte[] png = png(16, 16);
+        try (UploadBudget.Reservation ignored = uploadBudget.reserve(BUDGET_BYTES - png.length + 1)) {
+            upload(post("/files").contentType(MediaType.IMAGE_PNG).content(png)
+                    .header(HttpHeaders.CONTENT_LENGTH, png.length))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+        }
+        assertThat(uploadBudget.inFlight()).isZero();
+    }
+
+    @Test
+    void exhaustedBudgetWhileReadingChunkedBodyReturns503() throws Exception {
+        // Content-Length 가 없으면 읽는 만큼 잡는다. 앞부분(형식 확인)을 읽을 자리도 없게 남긴다
+        try (UploadBudget.Reservation ignored = uploadBudget.reserve(BUDGET_BYTES - 16)) {
+            upload(post("/files").contentType(MediaType.IMAGE_PNG).content(png(16, 16)))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+        }
+        assertThat(uploadBudget.inFlight()).isZero();
+    }
+
+    @Test
+    void base64BodyWithLineBreaksIsDecodedWhileStreaming() throws Exception {
+        final byte[] png = withPrefix(png(16, 16));
+        // MIME 형식(76자마다 CRLF)에 줄바꿈을 더 섞는다
+        final String encoded = Base64.getMimeEncoder().encodeToString(png).replace("A", "A\n");
+
+        final String id = mockMvc.perform(post("/files/base64").contentType(MediaType.TEXT_PLAIN)
+                        .content(encoded.getBytes(StandardCharsets.US_ASCII)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(Files.readAllBytes(store.path(id))).isEqualTo(png);
+    }
+
+    // 모의 EDMS 는 바이너리 업로드를 가끔 일부러 실패시킨다(예외가 그대로 던져진다)
+    private ResultActions upload(final MockHttpServletRequestBuilder request) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return mockMvc.perform(request);
+            } catch (ServletException e) {
+                if (attempt >= 5) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void assertStored(final ResultActions result, final byte[] expected) throws Exception {
+        final String id = result.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(Files.readAllBytes(store.path(id))).isEqualTo(expected);
+    }
+
+    // signature 뒤에 형식 확인 길이(33 byte)를 넘는 본문을 붙인다
+    private static byte[] withPrefix(final byte[] prefix) {
+        final byte[] image = image(256);
+        System.arraycopy(prefix, 0, image, 0, prefix.length);
+        return image;
+    }
+
+    // signature + 올바른 IHDR chunk(8bit RGB) + IEND chunk
+    private static byte[] png(final int width, final int height) {
+        final ByteBuffer ihdr = ByteBuffer.allocate(4 + 13)
+                .putInt(0x49484452)
+                .putInt(width)
+                .putInt(height)
+                .put((byte) 8)
+                .put((byte) 2)
+                .put((byte) 0)
+                .put((byte) 0)
+                .put((byte) 0);
+        final CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(PNG_SIGNATURE);
+        out.writeBytes(ByteBuffer.allocate(4).putInt(13).array());
+        out.writeBytes(ihdr.array());
+        out.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+        out.writeBytes(new byte[]{0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82});
+        return out.toByteArray();
+    }
+
+    // PNG signature 로 시작하는 size byte
+    private static byte[] image(final int size) {
+        final byte[] image = new byte[size];
+        for (int i = 0; i < size; i++) {
+            image[i] = (byte) i;
+        }
+        System.arraycopy(PNG_SIGNATURE, 0, image, 0, PNG_SIGNATURE.length);
+        return image;
+    }
+
+    // 파일에서 읽은 객체를 넣기 직전에 끼어들 수 있는 캐시
+    private static final class RacingCache extends HotObjectCache {
+
+        private Consumer<String> beforePut = it -> {
+        };
+
+        RacingCache() {
+            super(1024 * 1024, 1024 * 1024, 100);
+        }
+
+        @Override
+        public void put(final String id, final CachedObject object, final long ticket) {
+            beforePut.accept(id);
+            super.put(id, object, ticket);
+        }
+    }
+}
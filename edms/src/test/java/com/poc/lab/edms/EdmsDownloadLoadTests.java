@@ -0,0 +1,109 @@
+package com.poc.lab.edms;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /files/{id} 동시 조회 벤치마크(기본 비활성)
+ * ./gradlew :edms:test --tests '*EdmsDownloadLoadTests' -Pedms.load-test.downloads=200000
+ * - 256KB 이미지 1000 개 중 10% 에 요청 80% 가 몰리도록 32 스레드로 조회해 MB/s 와 p50/p99 지연을 출력
+ * - edms.cache.max-bytes=0 을 함께 주면 캐시 없이 sendfile 경로만 잰다
+ */
+@EnabledIfSystemProperty(named = "edms.load-test.downloads", matches = "\\d+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EdmsDownloadLoadTests {
+
+    private static final int OBJECTS = 1000;
+    private static final int OBJECT_SIZE = 256 * 1024;
+    private static final int THREADS = 32;
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void storageRoot(final DynamicPropertyRegistry registry) throws Exception {
+        final Path root = Files.createTempDirectory("edms-load");
+        registry.add("edms.storage.root", root::toString);
+        registry.add("edms.cache.max-bytes", () -> System.getProperty("edms.cache.max-bytes", "67108864"));
+    }
+
+    @Test
+    void concurrentDownloads() throws Exception {
+        final int requests = Integer.getInteger("edms.load-test.downloads");
+        final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        final String[] ids = new String[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            final byte[] image = new byte[OBJECT_SIZE];
+            ThreadLocalRandom.current().nextBytes(image);
+            System.arraycopy(PNG_SIGNATURE, 0, image, 0, PNG_SIGNATURE.length);
+            HttpResponse<String> uploaded;
+            do {
+                // 모의 EDMS 는 업로드를 가끔 일부러 실패시킨다
+                uploaded = client.send(HttpRequest.newBuilder(uri("/files"))
+                        .header("Content-Type", "image/png")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(image))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+            } while (uploaded.statusCode() != 200);
+            ids[i] = uploaded.body();
+        }
+
+        final long[] latencies = new long[requests];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicLong bytes = new AtomicLong();
+        final long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            final List<Future<?>> workers = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i; (i = next.getAndIncrement()) < requests; ) {
+                        final ThreadLocalRandom random = ThreadLocalRandom.current();
+                        final String id = random.nextInt(10) < 8 ? ids[random.nextInt(OBJECTS / 10)] : ids[random.nextInt(OBJECTS)];
+                        final long requestStart = System.nanoTime();
+                        final HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri("/files/" + id)).build(),
+                                HttpResponse.BodyHandlers.ofByteArray());
+                        latencies[i] = System.nanoTime() - requestStart;
+                        assertThat(response.statusCode()).isEqualTo(200);
+                        bytes.addAndGet(response.body().length);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("requests=%d throughput=%.1f MB/s p50=%.2f ms p99=%.2f ms%n",
+                requests, bytes.get() / 1e6 / seconds,
+                latencies[requests / 2] / 1e6, latencies[(int) Math.ceil(requests * 0.99) - 1] / 1e6);
+    }
+
+    private URI uri(final String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
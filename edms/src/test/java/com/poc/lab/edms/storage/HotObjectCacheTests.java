@@ -0,0 +1,46 @@
+package com.poc.lab.edms.storage;
+
+import com.poc.lab.edms.storage.HotObjectCache.CachedObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotObjectCacheTests {
+
+    private static final CachedObject OBJECT = new CachedObject(new byte[16], "image/png", "\"etag\"");
+
+    @Test
+    void loadFinishedBeforeDeleteIsCached() {
+        final HotObjectCache cache = new HotObjectCache(1024, 64, 16);
+
+        cache.put("id-1", OBJECT, cache.beginLoad("id-1"));
+
+        assertThat(cache.get("id-1")).isSameAs(OBJECT);
+    }
+
+    @Test
+    void loadOverlappingDeleteIsDropped() {
+        final HotObjectCache cache = new HotObjectCache(1024, 64, 16);
+
+        final long ticket = cache.beginLoad("id-1");
+        // 파일을 읽는 동안 삭제
+        cache.evict("id-1");
+        cache.put("id-1", OBJECT, ticket);
+
+        assertThat(cache.get("id-1")).isNull();
+        assertThat(cache.bytes()).isZero();
+    }
+
+    @Test
+    void onlyLatestLoadOfAnIdIsCached() {
+        final HotObjectCache cache = new HotObjectCache(1024, 64, 16);
+
+        final long first = cache.beginLoad("id-1");
+        final long second = cache.beginLoad("id-1");
+        cache.put("id-1", OBJECT, first);
+
+        assertThat(cache.get("id-1")).isNull();
+        cache.put("id-1", OBJECT, second);
+        assertThat(cache.get("id-1")).isSameAs(OBJECT);
+    }
+}
@@ -0,0 +1,84 @@
+package com.poc.lab.edms.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 생성/삭제 처리량 부하 테스트(기본 비활성)
+ * ./gradlew :edms:test --tests '*ShardedFileStoreLoadTests' -Pedms.load-test.objects=1000000
+ * - 객체 수만큼 서로 다른 내용(8KB)과 중복 내용(10%)을 병렬로 저장한 뒤 모두 삭제
+ * - 객체 수가 늘어도 초당 처리량이 유지되는지(디렉토리 하나가 커지지 않는지) 확인용
+ */
+@EnabledIfSystemProperty(named = "edms.load-test.objects", matches = "\\d+")
+class ShardedFileStoreLoadTests {
+
+    private static final int OBJECT_SIZE = 8 * 1024;
+    private static final int THREADS = 16;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void createAndDeleteThroughput() throws Exception {
+        final int objects = Integer.getInteger("edms.load-test.objects");
+        final ShardedFileStore store = new ShardedFileStore(root, false);
+        final byte[] duplicate = new byte[OBJECT_SIZE];
+
+        final String[] ids = new String[objects];
+        final long createStart = System.nanoTime();
+        runParallel(objects, i -> {
+            final byte[] content = new byte[OBJECT_SIZE];
+            if (i % 10 != 0) {
+                ThreadLocalRandom.current().nextBytes(content);
+                ByteBuffer.wrap(content).putInt(i);
+            } else {
+                System.arraycopy(duplicate, 0, content, 0, OBJECT_SIZE);
+            }
+            ids[i] = store.put(out -> out.write(content));
+        });
+        final long createNanos = System.nanoTime() - createStart;
+
+        final long deleteStart = System.nanoTime();
+        runParallel(objects, i -> assertThat(store.delete(ids[i])).isTrue());
+        final long deleteNanos = System.nanoTime() - deleteStart;
+
+        System.out.printf("objects=%d create=%.0f/s delete=%.0f/s%n",
+                objects, objects / (createNanos / 1e9), objects / (deleteNanos / 1e9));
+        assertThat(store.path(ids[0])).isNull();
+    }
+
+    private static void runParallel(final int count, final IndexedTask task) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            final List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < count; i += THREADS) {
+                        task.run(i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index) throws Exception;
+    }
+}
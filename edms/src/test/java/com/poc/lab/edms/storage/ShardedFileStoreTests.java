@@ -0,0 +1,70 @@
+package com.poc.lab.edms.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedFileStoreTests {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameContentIsStoredOnceAndRemovedWithLastReference() throws Exception {
+        final ShardedFileStore store = new ShardedFileStore(root, false);
+
+        final String first = store.put(out -> out.write("image".getBytes(StandardCharsets.UTF_8)));
+        final String second = store.put(out -> out.write("image".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(Files.readString(store.path(second))).isEqualTo("image");
+        assertThat(store.references(first)).isEqualTo(2);
+        assertThat(countFiles(root.resolve("objects"))).isEqualTo(1);
+
+        assertThat(store.delete(first)).isTrue();
+        assertThat(store.delete(first)).isFalse();
+        assertThat(store.path(first)).isNull();
+        assertThat(store.references(second)).isEqualTo(1);
+        assertThat(countFiles(root.resolve("objects"))).isEqualTo(1);
+
+        assertThat(store.delete(second)).isTrue();
+        assertThat(countFiles(root.resolve("objects"))).isZero();
+        assertThat(countFiles(root.resolve("ids"))).isZero();
+    }
+
+    @Test
+    void failedWriteLeavesNothingBehind() throws Exception {
+        final ShardedFileStore store = new ShardedFileStore(root, false);
+
+        assertThatThrownBy(() -> store.put(out -> {
+            out.write(new byte[100_000]);
+            throw new IOException("client went away");
+        })).isInstanceOf(IOException.class);
+
+        assertThat(countFiles(root)).isZero();
+    }
+
+    @Test
+    void rejectsIdsThatAreNotUuids() throws Exception {
+        final ShardedFileStore store = new ShardedFileStore(root, false);
+        final String id = store.put(out -> out.write(1));
+
+        assertThat(store.path("../" + id)).isNull();
+        assertThat(store.delete(id.toUpperCase())).isFalse();
+        assertThat(store.path(id)).isNotNull();
+    }
+
+    private static long countFiles(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.poc.lab.edms.upload;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadBudgetTests {
+
+    @Test
+    void rejectsWhenKnownLengthDoesNotFit() throws Exception {
+        final UploadBudget budget = new UploadBudget(100, 10);
+
+        try (UploadBudget.Reservation ignored = budget.reserve(80)) {
+            assertThat(budget.inFlight()).isEqualTo(80);
+            assertThatThrownBy(() -> budget.reserve(30)).isInstanceOf(UploadBudgetExceededException.class);
+        }
+        assertThat(budget.inFlight()).isZero();
+    }
+
+    @Test
+    void chunkedBodyReservesWhileReading() throws Exception {
+        final UploadBudget budget = new UploadBudget(100, 10);
+
+        try (UploadBudget.Reservation reservation = budget.reserve(-1)) {
+            final InputStream body = reservation.guard(new ByteArrayInputStream(new byte[25]));
+            assertThat(body.readNBytes(5)).hasSize(5);
+            assertThat(budget.inFlight()).isEqualTo(10);
+            assertThat(body.readAllBytes()).hasSize(20);
+            assertThat(budget.inFlight()).isEqualTo(25);
+        }
+        assertThat(budget.inFlight()).isZero();
+
+        try (UploadBudget.Reservation reservation = budget.reserve(-1)) {
+            final InputStream body = reservation.guard(new ByteArrayInputStream(new byte[150]));
+            assertThatThrownBy(body::readAllBytes).isInstanceOf(UploadBudgetExceededException.class);
+        }
+        assertThat(budget.inFlight()).isZero();
+    }
+}